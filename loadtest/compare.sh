@@ -0,0 +1,36 @@
+#!/usr/bin/env sh
+# Prints throughput, p99 and error rate per request from two runs of run.sh as
+# tab-separated columns, e.g.
+#
+#   ./compare.sh platform virtual | column -t -s "$(printf '\t')"
+set -eu
+
+if [ $# -ne 2 ]; then
+    echo "usage: $0 <baseline label> <candidate label>" >&2
+    exit 1
+fi
+
+dir=$(cd "$(dirname "$0")" && pwd)
+base="$dir/results/$1/report/statistics.json"
+cand="$dir/results/$2/report/statistics.json"
+
+for file in "$base" "$cand"; do
+    if [ ! -f "$file" ]; then
+        echo "missing $file; run ./run.sh first" >&2
+        exit 1
+    fi
+done
+
+jq -r -n --slurpfile a "$base" --slurpfile b "$cand" --arg an "$1" --arg bn "$2" '
+    def pct(x; y): if x == 0 then "n/a" else (((y - x) / x * 100) * 10 | round / 10 | tostring) + "%" end;
+    def fmt(x): x * 10 | round / 10 | tostring;
+    ($a[0] | keys_unsorted) as $names
+    | ["request", "\($an) req/s", "\($bn) req/s", "change", "\($an) p99 ms", "\($bn) p99 ms", "change",
+       "\($an) err%", "\($bn) err%"],
+      ($names[] as $n
+       | select($b[0][$n] != null)
+       | [$n,
+          fmt($a[0][$n].throughput), fmt($b[0][$n].throughput), pct($a[0][$n].throughput; $b[0][$n].throughput),
+          fmt($a[0][$n].pct3ResTime), fmt($b[0][$n].pct3ResTime), pct($a[0][$n].pct3ResTime; $b[0][$n].pct3ResTime),
+          fmt($a[0][$n].errorPct), fmt($b[0][$n].errorPct)])
+    | @tsv'
@@ -0,0 +1,32 @@
+#!/usr/bin/env sh
+# Runs the mixed browse/checkout plan against a running instance and writes
+# results/<label>/results.jtl plus the JMeter HTML report in results/<label>/report.
+#
+#   ./run.sh platform                  # instance started with VIRTUAL_THREADS_ENABLED=false
+#   ./run.sh virtual -Jduration=600    # extra arguments go to JMeter
+set -eu
+
+if [ $# -lt 1 ]; then
+    echo "usage: $0 <label> [jmeter args...]" >&2
+    exit 1
+fi
+
+label=$1
+shift
+dir=$(cd "$(dirname "$0")" && pwd)
+out="$dir/results/$label"
+
+if [ -e "$out" ]; then
+    echo "$out already exists; pick another label or remove it" >&2
+    exit 1
+fi
+mkdir -p "$out"
+
+"${JMETER:-jmeter}" -n \
+    -t "$dir/mixed-browse-checkout.jmx" \
+    -l "$out/results.jtl" \
+    -j "$out/jmeter.log" \
+    -e -o "$out/report" \
+    "$@"
+
+echo "Report: $out/report/index.html"
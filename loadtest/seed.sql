@@ -0,0 +1,38 @@
+-- ============================================
+-- Load-test customers for mixed-browse-checkout.jmx
+-- ============================================
+-- Creates verified customers loadtest+1@example.com .. loadtest+500@example.com,
+-- each with one default address, sharing the password of the template customer
+-- registered through the API (see README.md). Also restocks the active catalog so
+-- checkouts do not run out of stock mid-run. Safe to run again.
+
+SET @password = (SELECT password FROM users WHERE email = 'loadtest+template@example.com');
+
+INSERT IGNORE INTO users (first_name, last_name, email, password, phone_number, role, is_enabled, email_verified)
+WITH RECURSIVE seq (n) AS (
+    SELECT 1
+    UNION ALL
+    SELECT n + 1 FROM seq WHERE n < 500
+)
+SELECT 'Load', 'Tester', CONCAT('loadtest+', n, '@example.com'), @password,
+       CONCAT('+2547', LPAD(n, 8, '0')), 'CUSTOMER', TRUE, 1
+FROM seq
+WHERE @password IS NOT NULL;
+
+INSERT INTO addresses (user_id, full_name, phone_number, address_line1, city, postal_code, country,
+                       address_type, is_default, created_at)
+SELECT u.id, 'Load Tester', u.phone_number, CONCAT(u.id, ' Load Test Road'), 'Nairobi', '00100', 'Kenya',
+       'HOME', TRUE, NOW(6)
+FROM users u
+WHERE u.email LIKE 'loadtest+%@example.com'
+  AND u.email <> 'loadtest+template@example.com'
+  AND NOT EXISTS (SELECT 1 FROM addresses a WHERE a.user_id = u.id);
+
+-- Plenty of stock on every active product; inventory rows are updated, never inserted,
+-- since their ids come from id_generators
+UPDATE inventory i
+    JOIN products p ON p.id = i.product_id
+SET i.quantity = 1000000, i.reserved_quantity = 0
+WHERE p.is_active = TRUE;
+
+UPDATE products SET stock_quantity = 1000000 WHERE is_active = TRUE;
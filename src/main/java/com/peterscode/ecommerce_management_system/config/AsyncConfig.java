@@ -1,33 +1,68 @@
 package com.peterscode.ecommerce_management_system.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Async executors, one per workload so a slow SMTP server cannot starve notification or
+ * payment work. Audit events have their own writer thread (see AuditLogWriter).
+ * <p>
+ * Every executor publishes {@code async.executor.queue.depth}, {@code async.executor.active},
+ * {@code async.task.wait}, {@code async.task.duration} and {@code async.task.rejected},
+ * tagged with the executor name.
+ * <p>
+ * On virtual threads an executor runs up to {@code max-size} tasks at once and lets up to
+ * {@code queue-capacity} more wait for a slot (published as the queue depth); beyond that its
+ * rejection policy applies, as for the thread pools.
+ */
 @Slf4j
 @Configuration
 @EnableAsync
+@RequiredArgsConstructor
 public class AsyncConfig implements AsyncConfigurer {
 
+    private final AsyncExecutorProperties properties;
+    private final MeterRegistry meterRegistry;
+
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("Async-");
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(60);
-        executor.initialize();
+        return buildExecutor("default", "Async-", properties.getDefaults());
+    }
 
-        log.info("Async task executor initialized with core pool size: {}", executor.getCorePoolSize());
-        return executor;
+    @Bean(name = "emailExecutor")
+    public Executor emailExecutor() {
+        return buildExecutor("email", "Email-", properties.getEmail());
+    }
+
+    @Bean(name = "notificationExecutor")
+    public Executor notificationExecutor() {
+        return buildExecutor("notification", "Notify-", properties.getNotification());
+    }
+
+    @Bean(name = "paymentExecutor")
+    public Executor paymentExecutor() {
+        return buildExecutor("payment", "Payment-", properties.getPayment());
     }
 
     @Override
@@ -44,4 +79,159 @@ public class AsyncConfig implements AsyncConfigurer {
                     throwable);
         };
     }
-}
\ No newline at end of file
+
+    private Executor buildExecutor(String name, String threadPrefix, AsyncExecutorProperties.Pool pool) {
+        AtomicInteger active = new AtomicInteger();
+        TaskDecorator decorator = timingDecorator(name, active);
+        Counter rejected = meterRegistry.counter("async.task.rejected", "executor", name);
+
+        if (pool.isVirtualThreads()) {
+            SimpleAsyncTaskExecutor threads = new SimpleAsyncTaskExecutor(threadPrefix);
+            threads.setVirtualThreads(true);
+            threads.setTaskTerminationTimeout(TimeUnit.SECONDS.toMillis(60));
+            BoundedVirtualThreadExecutor executor = new BoundedVirtualThreadExecutor(name, threads, decorator,
+                    pool, rejected);
+
+            Gauge.builder("async.executor.queue.depth", executor, BoundedVirtualThreadExecutor::getWaiting)
+                    .tag("executor", name).register(meterRegistry);
+            Gauge.builder("async.executor.active", active, AtomicInteger::get).tag("executor", name).register(meterRegistry);
+
+            log.info("Async executor '{}' initialized on virtual threads with concurrency limit: {}, queue: {}",
+                    name, pool.getMaxSize(), pool.getQueueCapacity());
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(pool.getCoreSize());
+        executor.setMaxPoolSize(pool.getMaxSize());
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        executor.setThreadNamePrefix(threadPrefix);
+        executor.setTaskDecorator(decorator);
+        executor.setRejectedExecutionHandler(rejectionHandler(name, pool.getRejectionPolicy(), rejected));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+
+        Gauge.builder("async.executor.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .tag("executor", name).register(meterRegistry);
+        Gauge.builder("async.executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("executor", name).register(meterRegistry);
+
+        log.info("Async executor '{}' initialized with core pool size: {}, max: {}, queue: {}",
+                name, executor.getCorePoolSize(), executor.getMaxPoolSize(), pool.getQueueCapacity());
+        return executor;
+    }
+
+    /**
+     * Records queue wait and run time for each task
+     */
+    private TaskDecorator timingDecorator(String name, AtomicInteger active) {
+        Timer waitTimer = meterRegistry.timer("async.task.wait", "executor", name);
+        Timer durationTimer = meterRegistry.timer("async.task.duration", "executor", name);
+
+        return runnable -> {
+            long submittedAt = System.nanoTime();
+            return () -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                active.incrementAndGet();
+                try {
+                    runnable.run();
+                } finally {
+                    active.decrementAndGet();
+                    durationTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            };
+        };
+    }
+
+    private RejectedExecutionHandler rejectionHandler(String name, AsyncExecutorProperties.RejectionPolicy policy,
+                                                      Counter rejected) {
+        RejectedExecutionHandler delegate = switch (policy) {
+            case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case DISCARD -> (task, executor) ->
+                    log.error("Async executor '{}' saturated, task discarded", name);
+            case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+        };
+
+        return (task, executor) -> {
+            rejected.increment();
+            delegate.rejectedExecution(task, executor);
+        };
+    }
+
+    /**
+     * One virtual thread per task, at most {@code maxSize} running and {@code queueCapacity}
+     * waiting for a slot; further tasks go to the rejection policy. CALLER_RUNS runs the task
+     * on the submitting thread.
+     */
+    static class BoundedVirtualThreadExecutor implements AsyncTaskExecutor, AutoCloseable {
+
+        private final String name;
+        private final SimpleAsyncTaskExecutor threads;
+        private final TaskDecorator decorator;
+        private final AsyncExecutorProperties.RejectionPolicy rejectionPolicy;
+        private final Counter rejected;
+        private final Semaphore running;
+        private final Semaphore admitted;
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        BoundedVirtualThreadExecutor(String name, SimpleAsyncTaskExecutor threads, TaskDecorator decorator,
+                                     AsyncExecutorProperties.Pool pool, Counter rejected) {
+            this.name = name;
+            this.threads = threads;
+            this.decorator = decorator;
+            this.rejectionPolicy = pool.getRejectionPolicy();
+            this.rejected = rejected;
+            this.running = new Semaphore(pool.getMaxSize());
+            this.admitted = new Semaphore(pool.getMaxSize() + pool.getQueueCapacity());
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            // Decorated here so the wait for a slot counts as queue wait
+            Runnable decorated = decorator.decorate(task);
+            if (!admitted.tryAcquire()) {
+                reject(decorated);
+                return;
+            }
+            try {
+                threads.execute(() -> {
+                    waiting.incrementAndGet();
+                    try {
+                        running.acquireUninterruptibly();
+                    } finally {
+                        waiting.decrementAndGet();
+                    }
+                    try {
+                        decorated.run();
+                    } finally {
+                        running.release();
+                        admitted.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                admitted.release();
+                throw e;
+            }
+        }
+
+        private void reject(Runnable task) {
+            rejected.increment();
+            switch (rejectionPolicy) {
+                case CALLER_RUNS -> task.run();
+                case DISCARD -> log.error("Async executor '{}' saturated, task discarded", name);
+                case ABORT -> throw new TaskRejectedException("Async executor '" + name + "' saturated");
+            }
+        }
+
+        int getWaiting() {
+            return waiting.get();
+        }
+
+        @Override
+        public void close() {
+            threads.close();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.peterscode.ecommerce_management_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sizing for the async executors defined in {@link AsyncConfig}, bound from {@code app.async}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.async")
+@Data
+public class AsyncExecutorProperties {
+
+    private Pool defaults = new Pool(5, 10, 100, RejectionPolicy.CALLER_RUNS, false);
+    private Pool email = new Pool(2, 4, 1000, RejectionPolicy.CALLER_RUNS, false);
+    private Pool notification = new Pool(2, 6, 500, RejectionPolicy.CALLER_RUNS, false);
+    private Pool payment = new Pool(2, 4, 200, RejectionPolicy.CALLER_RUNS, false);
+
+    public enum RejectionPolicy {
+        /** Run the task on the submitting thread (throttles the producer) */
+        CALLER_RUNS,
+        /** Drop the task; it is logged and counted */
+        DISCARD,
+        /** Throw TaskRejectedException to the caller */
+        ABORT
+    }
+
+    @Data
+    public static class Pool {
+        private int coreSize;
+        private int maxSize;
+        private int queueCapacity;
+        private RejectionPolicy rejectionPolicy;
+        /** Run tasks on virtual threads: maxSize at a time, queueCapacity more waiting */
+        private boolean virtualThreads;
+
+        public Pool() {
+        }
+
+        public Pool(int coreSize, int maxSize, int queueCapacity, RejectionPolicy rejectionPolicy, boolean virtualThreads) {
+            this.coreSize = coreSize;
+            this.maxSize = maxSize;
+            this.queueCapacity = queueCapacity;
+            this.rejectionPolicy = rejectionPolicy;
+            this.virtualThreads = virtualThreads;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.peterscode.ecommerce_management_system.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounds how many threads may hold a database connection at once.
+ * <p>
+ * With virtual threads the request concurrency is no longer capped by the Tomcat pool, so
+ * thousands of requests could queue inside Hikari until its connection timeout. A fair
+ * semaphore in front of the pool makes them wait in order (without pinning a carrier
+ * thread) and fail fast with a transient error once {@code acquire-timeout-ms} passes.
+ * <p>
+ * On Java 21 a virtual thread blocked inside a {@code synchronized} block pins its carrier, so
+ * in this mode code that holds a lock across database or Redis I/O uses a
+ * {@code ReentrantLock} or a single-flight flag instead (snapshot rebuilds, rollup flushes,
+ * lease maintenance). Keep it that way when adding such code.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.concurrency-limit.enabled", havingValue = "true")
+public class DataSourceConcurrencyConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceConcurrencyLimiter(Environment environment,
+                                                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        int permits = environment.getProperty("app.datasource.concurrency-limit.permits", Integer.class,
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        long acquireTimeoutMs = environment.getProperty("app.datasource.concurrency-limit.acquire-timeout-ms",
+                Long.class, 5000L);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    ConcurrencyLimitedDataSource limited =
+                            new ConcurrencyLimitedDataSource(dataSource, permits, acquireTimeoutMs);
+                    meterRegistry.ifAvailable(registry -> limited.bindMetrics(registry, beanName));
+                    log.info("DataSource '{}' limited to {} concurrent connections", beanName, permits);
+                    return limited;
+                }
+                return bean;
+            }
+        };
+    }
+
+    static class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+
+        private final Semaphore permits;
+        private final long acquireTimeoutMs;
+
+        ConcurrencyLimitedDataSource(DataSource target, int permits, long acquireTimeoutMs) {
+            super(target);
+            this.permits = new Semaphore(permits, true);
+            this.acquireTimeoutMs = acquireTimeoutMs;
+        }
+
+        void bindMetrics(MeterRegistry registry, String name) {
+            Gauge.builder("db.concurrency.permits.available", permits, Semaphore::availablePermits)
+                    .tag("datasource", name).register(registry);
+            Gauge.builder("db.concurrency.waiting", permits, Semaphore::getQueueLength)
+                    .tag("datasource", name).register(registry);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            try {
+                return releasing(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            try {
+                return releasing(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        private void acquire() throws SQLException {
+            try {
+                if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new SQLTransientConnectionException(
+                            "Database concurrency limit reached, timed out after " + acquireTimeoutMs + "ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted while waiting for a database permit", e);
+            }
+        }
+
+        /**
+         * Wrap the connection so the permit is returned exactly once when it is closed
+         */
+        private Connection releasing(Connection connection) {
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        boolean closing = "close".equals(method.getName()) && released.compareAndSet(false, true);
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            if (closing) {
+                                permits.release();
+                            }
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.peterscode.ecommerce_management_system.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * SQL counters for the request running on the current thread.
+ * <p>
+ * Opened and closed by {@link SqlStatsConfig.SqlStatsFilter}; filled in by the instrumented
+ * DataSource (executions, rows, time) and {@link SqlStatementInspector} (statement shapes used
+ * for N+1 detection). Work handed to other threads is not attributed to the request.
+ */
+public final class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    /**
+     * IN lists of different lengths are the same statement shape
+     */
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+
+    private int statements;
+    private long rows;
+    private long nanos;
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    private SqlRequestStats() {
+    }
+
+    public static SqlRequestStats begin() {
+        SqlRequestStats stats = new SqlRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Stats of the current request, or null outside an instrumented request
+     */
+    public static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    void recordShape(String sql) {
+        shapes.merge(IN_LIST.matcher(sql).replaceAll("(?)"), 1, Integer::sum);
+    }
+
+    void recordExecution(long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+    }
+
+    void recordRow() {
+        rows++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Prepared statement text (IN lists collapsed) to the number of times it was prepared
+     */
+    public Map<String, Integer> getShapes() {
+        return shapes;
+    }
+}
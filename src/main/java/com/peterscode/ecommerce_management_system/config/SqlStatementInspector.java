@@ -0,0 +1,20 @@
+package com.peterscode.ecommerce_management_system.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Records every statement Hibernate prepares against the current request's {@link SqlRequestStats}.
+ * Registered through {@code spring.jpa.properties.hibernate.session_factory.statement_inspector},
+ * so Hibernate creates it; it does nothing outside an instrumented request.
+ */
+public class SqlStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.recordShape(sql);
+        }
+        return sql;
+    }
+}
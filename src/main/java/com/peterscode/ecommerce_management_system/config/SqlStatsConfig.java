@@ -0,0 +1,245 @@
+package com.peterscode.ecommerce_management_system.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts SQL statements, rows and time per HTTP request.
+ * <p>
+ * The DataSource is wrapped so statement executions and {@code ResultSet.next()} calls made on the
+ * request thread are recorded in {@link SqlRequestStats}; {@link SqlStatementInspector} adds the
+ * statement text Hibernate prepares. When the request completes the totals are published per
+ * endpoint (the matched handler pattern) as {@code http.server.sql.*} meters, a statement
+ * prepared {@code repeat-threshold} times or more is logged as a likely N+1, and the statement
+ * count is checked against the endpoint's budget.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.sql-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatsConfig {
+
+    private static final double[] STATEMENT_BUCKETS = {1, 2, 3, 5, 10, 20, 50, 100, 200};
+
+    @Bean
+    public static BeanPostProcessor sqlStatsDataSourceInstrumenter() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+                    log.info("DataSource '{}' instrumented for per-request SQL stats", beanName);
+                    return new InstrumentedDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SqlStatsFilter sqlStatsFilter(SqlStatsProperties properties, MeterRegistry meterRegistry) {
+        return new SqlStatsFilter(properties, meterRegistry);
+    }
+
+    /**
+     * Outermost filter, so statements issued by authentication are attributed to the request
+     */
+    @Slf4j
+    @RequiredArgsConstructor
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public static class SqlStatsFilter extends OncePerRequestFilter {
+
+        private final SqlStatsProperties properties;
+        private final MeterRegistry meterRegistry;
+
+        @Override
+        protected void doFilterInternal(
+                @NonNull HttpServletRequest request,
+                @NonNull HttpServletResponse response,
+                @NonNull FilterChain filterChain
+        ) throws ServletException, IOException {
+
+            SqlRequestStats stats = SqlRequestStats.begin();
+            String overBudget = null;
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                SqlRequestStats.end();
+                // Async (streaming) requests continue on another thread; their totals would be partial
+                if (!request.isAsyncStarted()) {
+                    overBudget = record(request, stats);
+                }
+            }
+            if (overBudget != null && properties.isFailOnBudget()) {
+                throw new IllegalStateException(overBudget);
+            }
+        }
+
+        /**
+         * Publish the request's totals; returns a message when the statement budget was exceeded
+         */
+        private String record(HttpServletRequest request, SqlRequestStats stats) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNMAPPED";
+            String method = request.getMethod();
+
+            DistributionSummary.builder("http.server.sql.statements")
+                    .description("SQL statements executed per request")
+                    .tags("method", method, "uri", uri)
+                    .serviceLevelObjectives(STATEMENT_BUCKETS)
+                    .register(meterRegistry)
+                    .record(stats.getStatements());
+            DistributionSummary.builder("http.server.sql.rows")
+                    .description("Result set rows read per request")
+                    .tags("method", method, "uri", uri)
+                    .register(meterRegistry)
+                    .record(stats.getRows());
+            Timer.builder("http.server.sql.time")
+                    .description("Time spent executing SQL per request")
+                    .tags("method", method, "uri", uri)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(stats.getNanos()));
+
+            for (Map.Entry<String, Integer> shape : stats.getShapes().entrySet()) {
+                if (shape.getValue() >= properties.getRepeatThreshold()) {
+                    Counter.builder("http.server.sql.repeated")
+                            .description("Requests that prepared the same statement repeatedly (likely N+1)")
+                            .tags("method", method, "uri", uri)
+                            .register(meterRegistry)
+                            .increment();
+                    log.warn("Possible N+1 on {} {}: {}x {}", method, uri, shape.getValue(),
+                            abbreviate(shape.getKey()));
+                }
+            }
+
+            Integer budget = properties.getBudgets().get(method + " " + uri);
+            int limit = budget != null ? budget : properties.getDefaultBudget();
+            if (limit > 0 && stats.getStatements() > limit) {
+                String message = String.format("%s %s executed %d SQL statements, budget is %d (%d rows, %d ms)",
+                        method, uri, stats.getStatements(), limit, stats.getRows(),
+                        TimeUnit.NANOSECONDS.toMillis(stats.getNanos()));
+                log.warn(message);
+                return message;
+            }
+            return null;
+        }
+
+        private static String abbreviate(String sql) {
+            String flat = sql.replaceAll("\\s+", " ").trim();
+            return flat.length() > 300 ? flat.substring(0, 300) + "..." : flat;
+        }
+    }
+
+    /**
+     * Wraps connections, statements and result sets in JDK proxies. Only calls made while a
+     * request is being measured pay for the timing; everything else is passed straight through.
+     */
+    static class InstrumentedDataSource extends DelegatingDataSource {
+
+        InstrumentedDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return connection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return connection(super.getConnection(username, password));
+        }
+
+        private static Connection connection(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        return result instanceof Statement statement ? statement(statement) : result;
+                    });
+        }
+
+        private static Statement statement(Statement statement) {
+            Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                    : statement instanceof PreparedStatement ? PreparedStatement.class
+                    : Statement.class;
+            return (Statement) Proxy.newProxyInstance(
+                    Statement.class.getClassLoader(),
+                    new Class<?>[]{type},
+                    (proxy, method, args) -> {
+                        SqlRequestStats stats = SqlRequestStats.current();
+                        if (stats == null) {
+                            return invoke(statement, method, args);
+                        }
+                        Object result;
+                        if (method.getName().startsWith("execute")) {
+                            long start = System.nanoTime();
+                            try {
+                                result = invoke(statement, method, args);
+                            } finally {
+                                stats.recordExecution(System.nanoTime() - start);
+                            }
+                        } else {
+                            result = invoke(statement, method, args);
+                        }
+                        return result instanceof ResultSet resultSet ? resultSet(resultSet) : result;
+                    });
+        }
+
+        private static ResultSet resultSet(ResultSet resultSet) {
+            return (ResultSet) Proxy.newProxyInstance(
+                    ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(resultSet, method, args);
+                        if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                            SqlRequestStats stats = SqlRequestStats.current();
+                            if (stats != null) {
+                                stats.recordRow();
+                            }
+                        }
+                        return result;
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
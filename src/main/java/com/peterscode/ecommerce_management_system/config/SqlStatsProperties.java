@@ -0,0 +1,31 @@
+package com.peterscode.ecommerce_management_system.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-request SQL instrumentation ({@link SqlStatsConfig}), bound from {@code app.sql-stats}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.sql-stats")
+@Data
+public class SqlStatsProperties {
+
+    private boolean enabled = true;
+
+    /** Same statement prepared this many times in one request is reported as a likely N+1 */
+    private int repeatThreshold = 5;
+
+    /** Statement budget for endpoints without an entry in {@link #budgets}; 0 disables */
+    private int defaultBudget = 0;
+
+    /** Statement budgets keyed by {@code "METHOD /path/pattern"}, e.g. {@code "[GET /api/v1/orders]": 4} */
+    private Map<String, Integer> budgets = new LinkedHashMap<>();
+
+    /** Throw when a request exceeds its budget instead of logging (for tests) */
+    private boolean failOnBudget = false;
+}
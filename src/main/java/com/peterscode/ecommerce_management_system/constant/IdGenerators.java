@@ -0,0 +1,35 @@
+package com.peterscode.ecommerce_management_system.constant;
+
+import java.util.List;
+
+/**
+ * Table-backed id generation for high-volume tables.
+ * <p>
+ * Hibernate ({@code @PooledId}) and JDBC batch writers take ids from the same in-memory pool
+ * ({@code JdbcIdAllocator}), which reserves blocks of {@code app.id-allocator.block-size} ids
+ * by advancing the table's id_generators row. {@code next_val} stays {@link #NEXT_VAL_OFFSET}
+ * above the next free id: V17 seeded it at the table's maximum id plus 50 (its header still
+ * describes Hibernate's pooled TableGenerator, which is no longer used), and every reservation
+ * keeps that offset.
+ */
+public class IdGenerators {
+
+    public static final String TABLE = "id_generators";
+    public static final String NAME_COLUMN = "sequence_name";
+    public static final String VALUE_COLUMN = "next_val";
+    public static final int NEXT_VAL_OFFSET = 49;
+
+    // Sequence names (one row each in id_generators)
+    public static final String ORDERS = "orders";
+    public static final String ORDER_ITEMS = "order_items";
+    public static final String NOTIFICATIONS = "notifications";
+    public static final String AUDIT_LOGS = "audit_logs";
+    public static final String CART_ITEMS = "cart_items";
+    public static final String INVENTORY = "inventory";
+
+    public static final List<String> SEQUENCES = List.of(ORDERS, ORDER_ITEMS, NOTIFICATIONS, AUDIT_LOGS, CART_ITEMS,
+            INVENTORY);
+
+    private IdGenerators() {
+    }
+}
@@ -1,11 +1,14 @@
 package com.peterscode.ecommerce_management_system.controller;
 
+import com.peterscode.ecommerce_management_system.model.dto.request.BulkOrderStatusRequest;
 import com.peterscode.ecommerce_management_system.model.dto.request.CancelOrderRequest;
 import com.peterscode.ecommerce_management_system.model.dto.request.OrderRequest;
 import com.peterscode.ecommerce_management_system.model.dto.request.TrackingInfoRequest;
 import com.peterscode.ecommerce_management_system.model.dto.request.UpdateStatusRequest;
 import com.peterscode.ecommerce_management_system.model.dto.response.ApiResponse;
+import com.peterscode.ecommerce_management_system.model.dto.response.BulkOrderStatusResponse;
 import com.peterscode.ecommerce_management_system.model.dto.response.OrderResponse;
+import com.peterscode.ecommerce_management_system.model.dto.response.UserOrderStatsResponse;
 import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
 import com.peterscode.ecommerce_management_system.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -130,6 +133,15 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success("Order count retrieved successfully", count));
     }
 
+    @GetMapping("/user/stats")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    @Operation(summary = "Get user's order stats (total spent, counts per status)")
+    public ResponseEntity<ApiResponse<UserOrderStatsResponse>> getUserOrderStats(Authentication authentication) {
+        Long userId = getUserId(authentication);
+        UserOrderStatsResponse stats = orderService.getUserOrderStats(userId);
+        return ResponseEntity.ok(ApiResponse.success("Order stats retrieved successfully", stats));
+    }
+
     // =================================================================================
     // ADMIN ONLY ENDPOINTS
     // =================================================================================
@@ -172,6 +184,15 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success("Order status updated successfully", order));
     }
 
+    @PutMapping("/status/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Move many orders to one status, e.g. end-of-day shipping (Admin Only)")
+    public ResponseEntity<ApiResponse<BulkOrderStatusResponse>> bulkUpdateOrderStatus(
+            @Valid @RequestBody BulkOrderStatusRequest request) {
+        BulkOrderStatusResponse result = orderService.bulkUpdateOrderStatus(request.getOrderIds(), request.getStatus());
+        return ResponseEntity.ok(ApiResponse.success("Order statuses updated", result));
+    }
+
     @PutMapping("/{orderId}/tracking")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Add tracking info (Admin Only)")
@@ -1,9 +1,14 @@
 package com.peterscode.ecommerce_management_system.controller;
 
 import com.peterscode.ecommerce_management_system.model.dto.response.ApiResponse;
+import com.peterscode.ecommerce_management_system.model.dto.response.DashboardResponse;
 import com.peterscode.ecommerce_management_system.model.dto.response.PageResponse;
+import com.peterscode.ecommerce_management_system.model.dto.response.ProductImportResponse;
 import com.peterscode.ecommerce_management_system.model.dto.response.ProductResponse;
+import com.peterscode.ecommerce_management_system.model.dto.response.ProductSummaryResponse;
 import com.peterscode.ecommerce_management_system.model.dto.request.ProductRequest;
+import com.peterscode.ecommerce_management_system.service.DashboardService;
+import com.peterscode.ecommerce_management_system.service.ProductImportService;
 import com.peterscode.ecommerce_management_system.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -11,11 +16,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -26,6 +36,8 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final DashboardService dashboardService;
 
     /**
      * Create product (Admin/Seller only)
@@ -44,6 +56,42 @@ public class ProductController {
                 .body(ApiResponse.success("Product created successfully", product));
     }
 
+    /**
+     * Bulk import products from the raw request body (Admin/Seller only)
+     * POST /api/v1/products/import?format=csv|ndjson
+     */
+    @PostMapping("/import")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SELLER')")
+    public ResponseEntity<ApiResponse<ProductImportResponse>> importProducts(
+            @RequestParam(defaultValue = "csv") String format,
+            InputStream body) throws IOException {
+
+        log.info("Product import request received ({})", format);
+        ProductImportResponse result = productImportService.importProducts(body, ProductImportService.Format.from(format));
+
+        return ResponseEntity.ok(ApiResponse.success("Products imported", result));
+    }
+
+    /**
+     * Stream every product (Admin only)
+     * GET /api/v1/products/export?format=csv|ndjson
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "csv") String format) {
+
+        log.info("Product export request received ({})", format);
+        ProductImportService.Format exportFormat = ProductImportService.Format.from(format);
+        StreamingResponseBody body = output -> productImportService.exportProducts(output, exportFormat);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"products." + exportFormat.name().toLowerCase() + "\"")
+                .body(body);
+    }
+
     /**
      * Get product by ID (Public)
      * GET /api/v1/products/{id}
@@ -89,6 +137,32 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success("Products retrieved successfully", products));
     }
 
+    /**
+     * Get product summaries for listing grids (Public - shows only active)
+     * GET /api/v1/products/summary?categoryId=1&includeDescendants=true&page=0&size=24
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<ApiResponse<PageResponse<ProductSummaryResponse>>> getProductSummaries(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "false") boolean includeDescendants,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") String sortDir) {
+
+        log.debug("Get product summaries - category: {}, page: {}, size: {}", categoryId, page, size);
+
+        Sort sort = sortDir.equalsIgnoreCase("ASC")
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+
+        Pageable pageable = PageRequest.of(page, size, sort);
+        PageResponse<ProductSummaryResponse> products =
+                productService.getProductSummaries(categoryId, includeDescendants, pageable);
+
+        return ResponseEntity.ok(ApiResponse.success("Products retrieved successfully", products));
+    }
+
     /**
      * Get all products including inactive (Admin/Seller only)
      * GET /api/v1/products/all?page=0&size=10
@@ -115,11 +189,12 @@ public class ProductController {
 
     /**
      * Get products by category (Public)
-     * GET /api/v1/products/category/{categoryId}
+     * GET /api/v1/products/category/{categoryId}?includeDescendants=true
      */
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<ApiResponse<PageResponse<ProductResponse>>> getProductsByCategory(
             @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "false") boolean includeDescendants,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "name") String sortBy,
@@ -132,7 +207,7 @@ public class ProductController {
                 : Sort.by(sortBy).descending();
 
         Pageable pageable = PageRequest.of(page, size, sort);
-        PageResponse<ProductResponse> products = productService.getProductsByCategory(categoryId, pageable);
+        PageResponse<ProductResponse> products = productService.getProductsByCategory(categoryId, includeDescendants, pageable);
 
         return ResponseEntity.ok(ApiResponse.success("Products retrieved successfully", products));
     }
@@ -395,11 +470,12 @@ public class ProductController {
     public ResponseEntity<ApiResponse<ProductStats>> getProductStats() {
         log.debug("Get product statistics");
 
+        DashboardResponse.ProductTiles tiles = dashboardService.getProductTiles();
         ProductStats stats = ProductStats.builder()
-                .totalProducts(productService.getTotalProductsCount())
-                .activeProducts(productService.getActiveProductsCount())
-                .lowStockCount(productService.getLowStockProducts().size())
-                .outOfStockCount(productService.getOutOfStockProducts().size())
+                .totalProducts(tiles.getTotal())
+                .activeProducts(tiles.getActive())
+                .lowStockCount((int) tiles.getLowStock())
+                .outOfStockCount((int) tiles.getOutOfStock())
                 .build();
 
         return ResponseEntity.ok(ApiResponse.success("Statistics retrieved successfully", stats));
@@ -0,0 +1,65 @@
+package com.peterscode.ecommerce_management_system.controller;
+
+import com.peterscode.ecommerce_management_system.model.dto.response.ApiResponse;
+import com.peterscode.ecommerce_management_system.model.dto.response.DashboardResponse;
+import com.peterscode.ecommerce_management_system.model.dto.response.SalesReportResponse;
+import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
+import com.peterscode.ecommerce_management_system.model.enums.ReportGranularity;
+import com.peterscode.ecommerce_management_system.model.enums.SalesDimension;
+import com.peterscode.ecommerce_management_system.service.DashboardService;
+import com.peterscode.ecommerce_management_system.service.SalesReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1/reports")
+@RequiredArgsConstructor
+@Tag(name = "Reports", description = "Admin dashboards and sales analytics served from snapshots and rollups")
+public class ReportController {
+
+    private final SalesReportService salesReportService;
+    private final DashboardService dashboardService;
+
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Product, user and order counts for the admin dashboard from the in-memory snapshot")
+    public ResponseEntity<ApiResponse<DashboardResponse>> getDashboard(
+            @RequestParam(defaultValue = "30") int days) {
+        DashboardResponse dashboard = dashboardService.getDashboard(days);
+        return ResponseEntity.ok(ApiResponse.success("Dashboard retrieved successfully", dashboard));
+    }
+
+    @GetMapping("/sales")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Sales over a date range: a time series for TOTAL, top entries for other dimensions")
+    public ResponseEntity<ApiResponse<SalesReportResponse>> getSalesReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "TOTAL") SalesDimension dimension,
+            @RequestParam(defaultValue = "DAY") ReportGranularity granularity,
+            @RequestParam(required = false) Set<OrderStatus> statuses,
+            @RequestParam(defaultValue = "10") int limit) {
+        SalesReportResponse report = salesReportService.getSalesReport(from, to, dimension, granularity, statuses, limit);
+        return ResponseEntity.ok(ApiResponse.success("Sales report retrieved successfully", report));
+    }
+
+    @PostMapping("/sales/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild sales rollups for a date range from orders (runs in the background)")
+    public ResponseEntity<ApiResponse<String>> backfillSales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        salesReportService.backfill(from, to);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Sales rollup backfill started"));
+    }
+}
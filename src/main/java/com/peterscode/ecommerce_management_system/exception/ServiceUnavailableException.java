@@ -0,0 +1,8 @@
+package com.peterscode.ecommerce_management_system.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
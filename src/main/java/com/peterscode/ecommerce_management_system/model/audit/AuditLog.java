@@ -1,5 +1,7 @@
 package com.peterscode.ecommerce_management_system.model.audit;
 
+import com.peterscode.ecommerce_management_system.constant.IdGenerators;
+import com.peterscode.ecommerce_management_system.model.id.PooledId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,12 +20,14 @@ import java.time.LocalDateTime;
         @Index(name = "idx_user_email", columnList = "user_email"),
         @Index(name = "idx_action", columnList = "action"),
         @Index(name = "idx_created_at", columnList = "created_at"),
-        @Index(name = "idx_ip_address", columnList = "ip_address")
+        @Index(name = "idx_ip_address", columnList = "ip_address"),
+        @Index(name = "idx_ip_status_created", columnList = "ip_address, status, created_at"),
+        @Index(name = "idx_action_status_created", columnList = "action, status, created_at")
 })
 public class AuditLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId(IdGenerators.AUDIT_LOGS)
     private Long id;
 
     @Column(name = "user_email")
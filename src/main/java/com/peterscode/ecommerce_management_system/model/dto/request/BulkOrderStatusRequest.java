@@ -0,0 +1,26 @@
+package com.peterscode.ecommerce_management_system.model.dto.request;
+
+import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusRequest {
+
+    @NotEmpty(message = "Order ids are required")
+    @Size(max = 20000, message = "At most 20000 orders per request")
+    private List<Long> orderIds;
+
+    @NotNull(message = "Order status is required")
+    private OrderStatus status;
+}
@@ -0,0 +1,32 @@
+package com.peterscode.ecommerce_management_system.model.dto.response;
+
+import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusResponse {
+
+    private OrderStatus status;
+    private long requested;
+    private long updated;
+    private long skipped;
+    private long durationMs;
+    private List<SkippedOrder> skippedOrders;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SkippedOrder {
+        private Long orderId;
+        private String reason;
+    }
+}
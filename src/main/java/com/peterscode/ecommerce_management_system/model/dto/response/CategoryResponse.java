@@ -28,6 +28,7 @@ public class CategoryResponse implements Serializable {
     private Integer displayOrder;
     private Boolean isActive;
     private Long productCount;
+    private Long totalProductCount;
     private String metaTitle;
     private String metaDescription;
     private String metaKeywords;
@@ -0,0 +1,56 @@
+package com.peterscode.ecommerce_management_system.model.dto.response;
+
+import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
+import com.peterscode.ecommerce_management_system.model.enums.Role;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardResponse {
+
+    private LocalDateTime snapshotAt; // counts reflect writes up to about this time
+    private ProductTiles products;
+    private UserTiles users;
+    private OrderTiles orders;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductTiles {
+        private long total;
+        private long active;
+        private long lowStock;
+        private long outOfStock;
+        private Map<Long, Long> byCategory;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UserTiles {
+        private long total;
+        private long enabled;
+        private Map<Role, Long> byRole;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OrderTiles {
+        private long total;
+        private Map<OrderStatus, Long> byStatus;
+        private Map<LocalDate, Long> perDay;
+    }
+}
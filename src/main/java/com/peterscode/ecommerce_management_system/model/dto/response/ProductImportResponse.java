@@ -0,0 +1,31 @@
+package com.peterscode.ecommerce_management_system.model.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private long durationMs;
+    private List<RowError> errors; // capped at app.product-import.max-reported-errors
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String sku;
+        private String message;
+    }
+}
@@ -0,0 +1,76 @@
+package com.peterscode.ecommerce_management_system.model.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Listing-grid view of a product. Built directly by a JPQL constructor expression
+ * (see ProductRepository), so no entity, description TEXT or seller row is loaded.
+ */
+@Data
+@NoArgsConstructor
+public class ProductSummaryResponse implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private String name;
+    private String sku;
+    private String shortDescription;
+    private BigDecimal price;
+    private BigDecimal discountPrice;
+    private BigDecimal actualPrice;
+    private BigDecimal discountPercentage;
+    private Long categoryId;
+    private String categoryName;
+    private String categorySlug;
+    private Integer stockQuantity;
+    private Boolean inStock;
+    private String imageUrl;
+    private String brand;
+    private Boolean isActive;
+    private Boolean isFeatured;
+    private Long soldCount;
+    private BigDecimal averageRating;
+    private Integer reviewCount;
+
+    /**
+     * Constructor used by the projection queries; argument order must match their SELECT lists
+     */
+    public ProductSummaryResponse(Long id, String name, String sku, String shortDescription,
+                                  BigDecimal price, BigDecimal discountPrice,
+                                  Long categoryId, String categoryName, String categorySlug,
+                                  Integer stockQuantity, String imageUrl, String brand,
+                                  Boolean isActive, Boolean isFeatured, Long soldCount,
+                                  BigDecimal averageRating, Integer reviewCount) {
+        this.id = id;
+        this.name = name;
+        this.sku = sku;
+        this.shortDescription = shortDescription;
+        this.price = price;
+        this.discountPrice = discountPrice;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.categorySlug = categorySlug;
+        this.stockQuantity = stockQuantity;
+        this.imageUrl = imageUrl;
+        this.brand = brand;
+        this.isActive = isActive;
+        this.isFeatured = isFeatured;
+        this.soldCount = soldCount;
+        this.averageRating = averageRating;
+        this.reviewCount = reviewCount;
+
+        // Same rules as Product#getActualPrice, Product#getDiscountPercentage and Product#isInStock
+        boolean discounted = discountPrice != null && discountPrice.compareTo(BigDecimal.ZERO) > 0;
+        this.actualPrice = discounted ? discountPrice : price;
+        this.discountPercentage = discountPrice == null || price == null || price.compareTo(BigDecimal.ZERO) == 0
+                ? BigDecimal.ZERO
+                : price.subtract(discountPrice).multiply(BigDecimal.valueOf(100)).divide(price, 2, RoundingMode.HALF_UP);
+        this.inStock = stockQuantity != null && stockQuantity > 0;
+    }
+}
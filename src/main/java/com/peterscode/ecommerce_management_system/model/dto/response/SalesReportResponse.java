@@ -0,0 +1,41 @@
+package com.peterscode.ecommerce_management_system.model.dto.response;
+
+import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
+import com.peterscode.ecommerce_management_system.model.enums.ReportGranularity;
+import com.peterscode.ecommerce_management_system.model.enums.SalesDimension;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesReportResponse {
+
+    private LocalDate from;
+    private LocalDate to;
+    private SalesDimension dimension;
+    private ReportGranularity granularity; // TOTAL reports only
+    private List<OrderStatus> statuses;
+    private List<Row> rows;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Row {
+        private LocalDateTime bucket;  // TOTAL reports: start of the hour/day
+        private Long dimensionId;      // PRODUCT, CATEGORY and SELLER reports
+        private String name;
+        private long orders;
+        private long units;
+        private BigDecimal revenue;
+    }
+}
@@ -0,0 +1,21 @@
+package com.peterscode.ecommerce_management_system.model.dto.response;
+
+import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderStatsResponse {
+
+    private BigDecimal totalSpent;
+    private Long orderCount;
+    private Map<OrderStatus, Long> statusCounts;
+}
@@ -1,5 +1,7 @@
 package com.peterscode.ecommerce_management_system.model.entity;
 
+import com.peterscode.ecommerce_management_system.constant.IdGenerators;
+import com.peterscode.ecommerce_management_system.model.id.PooledId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,7 +25,7 @@ import java.time.LocalDateTime;
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId(IdGenerators.CART_ITEMS)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,6 +1,8 @@
 package com.peterscode.ecommerce_management_system.model.entity;
 
+import com.peterscode.ecommerce_management_system.constant.IdGenerators;
 import com.peterscode.ecommerce_management_system.exception.BadRequestException;
+import com.peterscode.ecommerce_management_system.model.id.PooledId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,7 +21,7 @@ import java.time.LocalDateTime;
 public class Inventory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId(IdGenerators.INVENTORY)
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -1,6 +1,8 @@
 package com.peterscode.ecommerce_management_system.model.entity;
 
+import com.peterscode.ecommerce_management_system.constant.IdGenerators;
 import com.peterscode.ecommerce_management_system.model.enums.NotificationType;
+import com.peterscode.ecommerce_management_system.model.id.PooledId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -19,12 +21,13 @@ import java.time.LocalDateTime;
         @Index(name = "idx_user_id", columnList = "user_id"),
         @Index(name = "idx_is_read", columnList = "is_read"),
         @Index(name = "idx_type", columnList = "type"),
-        @Index(name = "idx_created_at", columnList = "created_at")
+        @Index(name = "idx_created_at", columnList = "created_at"),
+        @Index(name = "idx_expires_at", columnList = "expires_at")
 })
 public class Notification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId(IdGenerators.NOTIFICATIONS)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
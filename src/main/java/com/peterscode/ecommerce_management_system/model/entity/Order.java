@@ -1,6 +1,8 @@
 package com.peterscode.ecommerce_management_system.model.entity;
 
+import com.peterscode.ecommerce_management_system.constant.IdGenerators;
 import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
+import com.peterscode.ecommerce_management_system.model.id.PooledId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -28,7 +30,7 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledId(IdGenerators.ORDERS)
     private Long id;
 
     @Column(name = "order_number", nullable = false, unique = true, length = 50)
@@ -20,6 +20,7 @@ import java.time.LocalDateTime;
         @Index(name = "idx_product_name", columnList = "name"),
         @Index(name = "idx_product_sku", columnList = "sku"),
         @Index(name = "idx_category_id", columnList = "category_id"),
+        @Index(name = "idx_product_category_active", columnList = "category_id, is_active"),
         @Index(name = "idx_seller_id", columnList = "seller_id"),
         @Index(name = "idx_is_active", columnList = "is_active"),
         @Index(name = "idx_created_at", columnList = "created_at")
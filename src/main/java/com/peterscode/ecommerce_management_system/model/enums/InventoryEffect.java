@@ -0,0 +1,11 @@
+package com.peterscode.ecommerce_management_system.model.enums;
+
+/**
+ * What an order status transition does to the stock of the order's items
+ */
+public enum InventoryEffect {
+    NONE,              // No stock change
+    CONFIRM_RESERVED,  // Reserved stock is sold: quantity and reserved both drop
+    RELEASE_RESERVED,  // Reservation is dropped: reserved drops
+    RESTOCK            // Sold stock comes back: quantity grows
+}
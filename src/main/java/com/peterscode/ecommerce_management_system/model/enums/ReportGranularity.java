@@ -0,0 +1,6 @@
+package com.peterscode.ecommerce_management_system.model.enums;
+
+public enum ReportGranularity {
+    HOUR,
+    DAY
+}
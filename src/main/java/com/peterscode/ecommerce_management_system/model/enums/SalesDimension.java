@@ -0,0 +1,11 @@
+package com.peterscode.ecommerce_management_system.model.enums;
+
+/**
+ * What a sales rollup row is aggregated by
+ */
+public enum SalesDimension {
+    TOTAL,     // All sales; dimension id is 0
+    PRODUCT,   // By product id
+    CATEGORY,  // By the product's category id
+    SELLER     // By the product's seller id (0 when the product has none)
+}
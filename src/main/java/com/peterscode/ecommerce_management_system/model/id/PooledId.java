@@ -0,0 +1,23 @@
+package com.peterscode.ecommerce_management_system.model.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns the id from the in-memory block pool of the named id_generators sequence
+ * (see {@code IdGenerators}), the same pool JDBC batch writers for the table draw from.
+ */
+@IdGeneratorType(PooledIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledId {
+
+    /**
+     * The id_generators sequence name
+     */
+    String value();
+}
@@ -0,0 +1,34 @@
+package com.peterscode.ecommerce_management_system.model.id;
+
+import com.peterscode.ecommerce_management_system.service.impl.JdbcIdAllocator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+
+/**
+ * Id generator behind {@link PooledId}. Ids are assigned before the insert, so Hibernate can
+ * still batch it, and come from memory: the generator never opens a connection of its own
+ * while the session's transaction holds one.
+ */
+public class PooledIdGenerator implements BeforeExecutionGenerator {
+
+    private final String sequenceName;
+
+    public PooledIdGenerator(PooledId config) {
+        this.sequenceName = config.value();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return JdbcIdAllocator.nextId(sequenceName);
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -2,7 +2,6 @@ package com.peterscode.ecommerce_management_system.repository;
 
 import com.peterscode.ecommerce_management_system.model.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -31,10 +30,6 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     @Query("SELECT c FROM Cart c WHERE c.updatedAt < :date AND c.user IS NULL")
     List<Cart> findAbandonedGuestCarts(@Param("date") LocalDateTime date);
 
-    @Modifying
-    @Query("DELETE FROM Cart c WHERE c.updatedAt < :date AND c.user IS NULL")
-    void deleteAbandonedGuestCarts(@Param("date") LocalDateTime date);
-
     void deleteByUserId(Long userId);
 
     void deleteBySessionId(String sessionId);
@@ -4,7 +4,6 @@ import com.peterscode.ecommerce_management_system.model.entity.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -48,14 +47,6 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     @Query("SELECT c FROM Category c WHERE c.isActive = true ORDER BY c.displayOrder ASC, c.name ASC")
     List<Category> findActiveOrderedByDisplayOrder();
 
-    @Modifying
-    @Query("UPDATE Category c SET c.productCount = c.productCount + 1 WHERE c.id = :categoryId")
-    void incrementProductCount(@Param("categoryId") Long categoryId);
-
-    @Modifying
-    @Query("UPDATE Category c SET c.productCount = c.productCount - 1 WHERE c.id = :categoryId AND c.productCount > 0")
-    void decrementProductCount(@Param("categoryId") Long categoryId);
-
     @Query("SELECT c FROM Category c WHERE c.productCount > 0 ORDER BY c.productCount DESC")
     Page<Category> findCategoriesWithProducts(Pageable pageable);
 
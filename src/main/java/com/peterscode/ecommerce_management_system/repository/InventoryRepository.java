@@ -10,6 +10,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -23,4 +25,14 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
     @Query("SELECT i FROM Inventory i WHERE (i.quantity - i.reservedQuantity) <= i.lowStockThreshold")
     Page<Inventory> findLowStockInventories(Pageable pageable);
+
+    @Query("SELECT i.product.id AS productId, (i.quantity - i.reservedQuantity) AS availableStock " +
+            "FROM Inventory i WHERE i.product.id IN :productIds")
+    List<AvailableStock> findAvailableStockByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    interface AvailableStock {
+        Long getProductId();
+
+        Integer getAvailableStock();
+    }
 }
\ No newline at end of file
@@ -4,12 +4,14 @@ import com.peterscode.ecommerce_management_system.model.entity.Order;
 import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,10 +20,49 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     Optional<Order> findByOrderNumber(String orderNumber);
 
+    /*
+     * Two-phase order pages: page the ids (sorted and counted on the orders table alone), then load
+     * that page with its items, products, user and addresses in one query. Fetch-joining the items
+     * collection directly into a paged query would make Hibernate paginate in memory.
+     */
+
+    @Query(value = "SELECT o.id FROM Order o",
+            countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<Long> findPageIds(Pageable pageable);
+
+    @Query(value = "SELECT o.id FROM Order o WHERE o.user.id = :userId",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.id = :userId")
+    Page<Long> findPageIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(value = "SELECT o.id FROM Order o WHERE o.status = :status",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.status = :status")
+    Page<Long> findPageIdsByStatus(@Param("status") OrderStatus status, Pageable pageable);
+
+    /**
+     * Row-lock a batch of orders (only the orders rows, unlike a locking fetch-join query)
+     */
+    @Query(value = "SELECT id FROM orders WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o.id FROM Order o WHERE o.user.id = :userId ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findRecentIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT DISTINCT o FROM Order o " +
+            "JOIN FETCH o.user " +
+            "JOIN FETCH o.shippingAddress " +
+            "JOIN FETCH o.billingAddress " +
+            "LEFT JOIN FETCH o.orderItems i " +
+            "LEFT JOIN FETCH i.product " +
+            "WHERE o.id IN :ids")
+    List<Order> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = {"user", "shippingAddress", "billingAddress"})
     Page<Order> findByUserId(Long userId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "shippingAddress", "billingAddress"})
     Page<Order> findByStatus(OrderStatus status, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"user", "shippingAddress", "billingAddress"})
     Page<Order> findByUserIdAndStatus(Long userId, OrderStatus status, Pageable pageable);
 
     List<Order> findByUserIdAndStatusIn(Long userId, List<OrderStatus> statuses);
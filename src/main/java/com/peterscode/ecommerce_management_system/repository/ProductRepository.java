@@ -1,9 +1,11 @@
 package com.peterscode.ecommerce_management_system.repository;
 
+import com.peterscode.ecommerce_management_system.model.dto.response.ProductSummaryResponse;
 import com.peterscode.ecommerce_management_system.model.entity.Product;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
@@ -12,6 +14,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,16 +29,46 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE p.id = :id")
     Optional<Product> findByIdForUpdate(@Param("id") Long id);
 
+    @EntityGraph(attributePaths = {"category", "seller"})
     Page<Product> findByIsActiveTrue(Pageable pageable);
 
+    @EntityGraph(attributePaths = {"category", "seller"})
     Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"category", "seller"})
     Page<Product> findByCategoryIdAndIsActiveTrue(Long categoryId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"category", "seller"})
+    Page<Product> findByCategoryIdInAndIsActiveTrue(Collection<Long> categoryIds, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"category", "seller"})
     Page<Product> findBySellerId(Long sellerId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"category", "seller"})
     Page<Product> findByIsFeaturedTrue(Pageable pageable);
 
+    /**
+     * Full-entity pages used by ProductResponse mapping; category and seller are fetched in the same select
+     */
+    @Override
+    @EntityGraph(attributePaths = {"category", "seller"})
+    Page<Product> findAll(Pageable pageable);
+
+    String SUMMARY_SELECT = "SELECT new com.peterscode.ecommerce_management_system.model.dto.response.ProductSummaryResponse(" +
+            "p.id, p.name, p.sku, p.shortDescription, p.price, p.discountPrice, " +
+            "c.id, c.name, c.slug, p.stockQuantity, p.imageUrl, p.brand, " +
+            "p.isActive, p.isFeatured, p.soldCount, p.averageRating, p.reviewCount) " +
+            "FROM Product p JOIN p.category c ";
+
+    @Query(value = SUMMARY_SELECT + "WHERE p.isActive = true",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isActive = true")
+    Page<ProductSummaryResponse> findActiveSummaries(Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE p.isActive = true AND c.id IN :categoryIds",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isActive = true AND p.category.id IN :categoryIds")
+    Page<ProductSummaryResponse> findActiveSummariesByCategoryIds(@Param("categoryIds") Collection<Long> categoryIds,
+                                                                  Pageable pageable);
+
     @Query("SELECT p FROM Product p WHERE p.isActive = true AND p.stockQuantity > 0")
     Page<Product> findInStockProducts(Pageable pageable);
 
@@ -3,6 +3,7 @@ package com.peterscode.ecommerce_management_system.repository;
 import com.peterscode.ecommerce_management_system.model.entity.Review;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,10 +15,13 @@ import java.util.Optional;
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
 
+    @EntityGraph(attributePaths = {"product", "user"})
     Page<Review> findByProductId(Long productId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"product", "user"})
     Page<Review> findByProductIdAndIsApprovedTrue(Long productId, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"product", "user"})
     Page<Review> findByUserId(Long userId, Pageable pageable);
 
     boolean existsByProductIdAndUserId(Long productId, Long userId);
@@ -38,10 +42,13 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT COUNT(r) FROM Review r WHERE r.product.id = :productId AND r.rating = :rating AND r.isApproved = true")
     Long countByProductIdAndRating(@Param("productId") Long productId, @Param("rating") Integer rating);
 
+    @EntityGraph(attributePaths = {"product", "user"})
     Page<Review> findByIsApprovedFalse(Pageable pageable);
 
+    @EntityGraph(attributePaths = {"product", "user"})
     Page<Review> findByVerifiedPurchaseTrue(Pageable pageable);
 
+    @EntityGraph(attributePaths = {"product", "user"})
     @Query("SELECT r FROM Review r WHERE r.product.id = :productId AND r.rating >= :minRating AND r.isApproved = true")
     Page<Review> findHighRatedReviews(@Param("productId") Long productId,
                                       @Param("minRating") Integer minRating,
@@ -4,13 +4,8 @@ import com.peterscode.ecommerce_management_system.model.entity.TokenType;
 import com.peterscode.ecommerce_management_system.model.entity.User;
 import com.peterscode.ecommerce_management_system.model.entity.VerificationToken;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -20,8 +15,4 @@ public interface VerificationTokenRepository extends JpaRepository<VerificationT
 
     // Useful for cleanup before creating new tokens
     void deleteByUserAndTokenType(User user, TokenType tokenType);
-
-    @Modifying
-    @Query("DELETE FROM VerificationToken v WHERE v.expiresAt < :now")
-    void deleteExpiredTokens(@Param("now") LocalDateTime now);
 }
\ No newline at end of file
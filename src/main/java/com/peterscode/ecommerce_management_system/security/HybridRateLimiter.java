@@ -0,0 +1,364 @@
+package com.peterscode.ecommerce_management_system.security;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limiter that keeps the global budget in Redis but spends it locally.
+ * <p>
+ * Each node leases a batch of tokens per client and window from Redis and hands them out
+ * with lock-free counters, so a well-behaved client only costs a Redis round trip once per
+ * batch. Leases are topped up asynchronously when a bucket drops below its refill threshold.
+ * Redis never grants more than the window limit, so clients are never over-admitted; at most
+ * two leases per node (the current one and an in-flight refill) can be stranded, which bounds
+ * how far below the limit a client spread across several nodes can be cut off.
+ * <p>
+ * While Redis is unavailable each node falls back to its own budget per client and window,
+ * capped at the window limit divided by the expected number of nodes and counting what Redis
+ * already granted in that window. Sensitive endpoints fail closed instead. Blacklist checks
+ * keep serving the last answer seen for an IP (or "not blacklisted") and new blacklist entries
+ * are held only in the local cache until Redis is back.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HybridRateLimiter {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SecurityUtils securityUtils;
+
+    private static final String RATE_LIMIT_KEY_PREFIX = "security:ratelimit:";
+    private static final long MINUTE_IN_MILLIS = 60_000L;
+    private static final long HOUR_IN_MILLIS = 3_600_000L;
+    private static final long HOURLY_ABUSE_BLACKLIST_MILLIS = 30 * 60 * 1000L;
+    private static final long LEASE_UNAVAILABLE = -1;
+
+    /**
+     * Grants up to ARGV[2] tokens from the window budget ARGV[1] and returns the amount granted.
+     */
+    private static final DefaultRedisScript<Long> LEASE_SCRIPT = new DefaultRedisScript<>(
+            "local used = tonumber(redis.call('GET', KEYS[1]) or '0') " +
+            "local grant = math.min(tonumber(ARGV[2]), tonumber(ARGV[1]) - used) " +
+            "if grant <= 0 then return 0 end " +
+            "redis.call('INCRBY', KEYS[1], grant) " +
+            "if used == 0 then redis.call('PEXPIRE', KEYS[1], ARGV[3]) end " +
+            "return grant",
+            Long.class);
+
+    @Value("${app.rate-limit.requests-per-minute:60}")
+    private int requestsPerMinute;
+
+    @Value("${app.rate-limit.requests-per-hour:1000}")
+    private int requestsPerHour;
+
+    @Value("${app.rate-limit.sensitive-requests-per-minute:10}")
+    private int sensitiveRequestsPerMinute;
+
+    @Value("${app.rate-limit.lease-fraction:0.1}")
+    private double leaseFraction;
+
+    @Value("${app.rate-limit.refill-threshold:0.5}")
+    private double refillThreshold;
+
+    @Value("${app.rate-limit.expected-nodes:1}")
+    private int expectedNodes;
+
+    @Value("${app.rate-limit.blacklist-cache-millis:5000}")
+    private long blacklistCacheMillis;
+
+    private final Map<String, LocalBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Long> blacklistCache = new ConcurrentHashMap<>();
+    private final ThreadPoolTaskExecutor refillExecutor = buildRefillExecutor();
+    private final AtomicBoolean blacklistUnavailable = new AtomicBoolean();
+
+    public enum Decision {
+        ALLOWED,
+        MINUTE_LIMIT_EXCEEDED,
+        HOUR_LIMIT_EXCEEDED,
+        SENSITIVE_LIMIT_EXCEEDED
+    }
+
+    private enum Window {
+        MINUTE("minute", MINUTE_IN_MILLIS),
+        HOUR("hour", HOUR_IN_MILLIS),
+        SENSITIVE("sensitive", MINUTE_IN_MILLIS);
+
+        private final String name;
+        private final long millis;
+
+        Window(String name, long millis) {
+            this.name = name;
+            this.millis = millis;
+        }
+    }
+
+    private static final class LocalBucket {
+        private final Window window;
+        private final long windowIndex;
+        private final AtomicLong tokens = new AtomicLong();
+        // Everything this node was granted in the window, from Redis or the fallback budget
+        private final AtomicLong granted = new AtomicLong();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private volatile boolean exhausted;
+
+        private LocalBucket(Window window, long windowIndex) {
+            this.window = window;
+            this.windowIndex = windowIndex;
+        }
+    }
+
+    /**
+     * Consume one token from every window that applies to the request
+     */
+    public Decision tryAcquire(String ipAddress, boolean sensitive) {
+        long now = System.currentTimeMillis();
+
+        if (!tryAcquire(Window.MINUTE, ipAddress, now)) {
+            return Decision.MINUTE_LIMIT_EXCEEDED;
+        }
+
+        if (!tryAcquire(Window.HOUR, ipAddress, now)) {
+            // Auto-blacklist for 30 minutes if hourly limit is exceeded
+            blacklistCache.put(ipAddress, now + HOURLY_ABUSE_BLACKLIST_MILLIS);
+            try {
+                securityUtils.blacklistIp(ipAddress, HOURLY_ABUSE_BLACKLIST_MILLIS);
+                blacklistAvailable();
+            } catch (DataAccessException e) {
+                blacklistFailed(e);
+            }
+            return Decision.HOUR_LIMIT_EXCEEDED;
+        }
+
+        if (sensitive && !tryAcquire(Window.SENSITIVE, ipAddress, now)) {
+            return Decision.SENSITIVE_LIMIT_EXCEEDED;
+        }
+
+        return Decision.ALLOWED;
+    }
+
+    /**
+     * Check the IP blacklist, caching the answer locally for a few seconds. While Redis is
+     * unavailable the last answer seen for the IP is served, or false if there is none.
+     */
+    public boolean isBlacklisted(String ipAddress) {
+        long now = System.currentTimeMillis();
+        Long cachedUntil = blacklistCache.get(ipAddress);
+        if (cachedUntil != null) {
+            if (cachedUntil > now) {
+                return true;
+            }
+            if (-cachedUntil > now) {
+                return false;
+            }
+        }
+
+        boolean blacklisted;
+        try {
+            blacklisted = securityUtils.isIpBlacklisted(ipAddress);
+            blacklistAvailable();
+        } catch (DataAccessException e) {
+            blacklistFailed(e);
+            blacklisted = cachedUntil != null && cachedUntil > 0;
+        }
+        // Positive entries hold the expiry, negative entries hold the negated expiry
+        blacklistCache.put(ipAddress, blacklisted ? now + blacklistCacheMillis : -(now + blacklistCacheMillis));
+        return blacklisted;
+    }
+
+    private void blacklistFailed(DataAccessException e) {
+        if (blacklistUnavailable.compareAndSet(false, true)) {
+            log.warn("IP blacklist unavailable, serving cached answers until Redis is back: {}", e.getMessage());
+        }
+    }
+
+    private void blacklistAvailable() {
+        if (blacklistUnavailable.compareAndSet(true, false)) {
+            log.info("IP blacklist available again");
+        }
+    }
+
+    private boolean tryAcquire(Window window, String ipAddress, long now) {
+        long windowIndex = now / window.millis;
+        String bucketKey = window.name + ":" + ipAddress;
+
+        LocalBucket bucket = buckets.get(bucketKey);
+        if (bucket == null || bucket.windowIndex != windowIndex) {
+            bucket = buckets.compute(bucketKey, (key, existing) ->
+                    existing == null || existing.windowIndex < windowIndex
+                            ? new LocalBucket(window, windowIndex)
+                            : existing);
+        }
+
+        long remaining = takeLocalToken(bucket);
+        if (remaining >= 0) {
+            if (remaining < refillMark(window)) {
+                refillAsync(bucket, ipAddress);
+            }
+            return true;
+        }
+
+        if (bucket.exhausted) {
+            return false;
+        }
+
+        // Nothing leased yet (or drained faster than refill): lease on the request path
+        long granted = lease(bucket, ipAddress);
+        if (granted == LEASE_UNAVAILABLE) {
+            return false;
+        }
+        if (granted == 0) {
+            bucket.exhausted = true;
+            return false;
+        }
+        bucket.tokens.addAndGet(granted - 1);
+        return true;
+    }
+
+    /**
+     * Take a token without letting the counter go negative; returns tokens left or -1
+     */
+    private long takeLocalToken(LocalBucket bucket) {
+        while (true) {
+            long current = bucket.tokens.get();
+            if (current <= 0) {
+                return -1;
+            }
+            if (bucket.tokens.compareAndSet(current, current - 1)) {
+                return current - 1;
+            }
+        }
+    }
+
+    private void refillAsync(LocalBucket bucket, String ipAddress) {
+        if (bucket.exhausted || !bucket.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refillExecutor.execute(() -> {
+                try {
+                    long granted = lease(bucket, ipAddress);
+                    if (granted > 0) {
+                        bucket.tokens.addAndGet(granted);
+                    } else if (granted == 0) {
+                        bucket.exhausted = true;
+                    }
+                } finally {
+                    bucket.refilling.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bucket.refilling.set(false);
+            log.debug("Rate limit refill queue full, will lease on demand for IP: {}", ipAddress);
+        }
+    }
+
+    /**
+     * Lease tokens for the bucket's window; 0 when the budget is spent, {@link #LEASE_UNAVAILABLE}
+     * when Redis is down and the window fails closed
+     */
+    private long lease(LocalBucket bucket, String ipAddress) {
+        Window window = bucket.window;
+        int limit = limitFor(window);
+        String redisKey = RATE_LIMIT_KEY_PREFIX + window.name + ":" + ipAddress + ":" + bucket.windowIndex;
+
+        try {
+            Long granted = stringRedisTemplate.execute(
+                    LEASE_SCRIPT,
+                    Collections.singletonList(redisKey),
+                    String.valueOf(limit),
+                    String.valueOf(leaseSize(window)),
+                    String.valueOf(window.millis));
+            long leased = granted != null ? granted : 0;
+            bucket.granted.addAndGet(leased);
+            return leased;
+        } catch (Exception e) {
+            if (window == Window.SENSITIVE) {
+                log.warn("Rate limit lease failed for IP {}, rejecting sensitive request: {}", ipAddress, e.getMessage());
+                return LEASE_UNAVAILABLE;
+            }
+            // Degrade to node-local limiting rather than failing every request while Redis is away
+            log.warn("Rate limit lease failed for IP {}, falling back to local budget: {}", ipAddress, e.getMessage());
+            return leaseLocally(bucket, fallbackLimit(window), leaseSize(window));
+        }
+    }
+
+    /**
+     * Grant up to {@code size} tokens without the window's total on this node passing {@code cap}
+     */
+    private long leaseLocally(LocalBucket bucket, long cap, long size) {
+        while (true) {
+            long granted = bucket.granted.get();
+            long grant = Math.min(size, cap - granted);
+            if (grant <= 0) {
+                return 0;
+            }
+            if (bucket.granted.compareAndSet(granted, granted + grant)) {
+                return grant;
+            }
+        }
+    }
+
+    private long fallbackLimit(Window window) {
+        return Math.max(1L, limitFor(window) / Math.max(1, expectedNodes));
+    }
+
+    private int limitFor(Window window) {
+        return switch (window) {
+            case MINUTE -> requestsPerMinute;
+            case HOUR -> requestsPerHour;
+            case SENSITIVE -> sensitiveRequestsPerMinute;
+        };
+    }
+
+    private long leaseSize(Window window) {
+        return Math.max(1L, Math.round(limitFor(window) * leaseFraction));
+    }
+
+    private long refillMark(Window window) {
+        return Math.round(leaseSize(window) * refillThreshold);
+    }
+
+    /**
+     * Drop buckets from finished windows and expired blacklist answers
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpiredBuckets() {
+        long now = System.currentTimeMillis();
+        buckets.values().removeIf(bucket -> bucket.windowIndex < now / bucket.window.millis);
+        // Expired answers are what an outage falls back to; keep them until Redis is back
+        if (!blacklistUnavailable.get()) {
+            blacklistCache.values().removeIf(until -> Math.abs(until) <= now);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refillExecutor.shutdown();
+    }
+
+    private static ThreadPoolTaskExecutor buildRefillExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("RateLimit-");
+        executor.setDaemon(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,246 @@
+package com.peterscode.ecommerce_management_system.security;
+
+import com.peterscode.ecommerce_management_system.constant.SecurityConstants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streaming brute-force signals for the login flow.
+ * <p>
+ * Failed logins are kept as sliding windows (sorted sets scored by timestamp) per account and
+ * IP pair and per IP in Redis, and every read or update is a single Lua script, so a login
+ * decision costs one round trip and no SQL. As before, an account is locked once one IP fills
+ * its window for that account, so failures spread across other IPs cannot lock someone out;
+ * IPs over the failure window across all accounts are throttled.
+ * <p>
+ * Each node also keeps its own Count-Min sketch of failed and throttled attempts per IP, so an
+ * IP that keeps going after it is throttled is noticed. The sketch counts only what this node
+ * sees: an IP is blacklisted (in Redis, so on every node) once a single node's estimate
+ * crosses the heavy-hitter threshold, which should stay above the throttle.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginSignalEngine {
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    // Followed by "{username}:{ip}", the same scope as the old login attempt counter
+    private static final String ACCOUNT_FAILURES_KEY = "security:login:failures:account:";
+    private static final String IP_FAILURES_KEY = "security:login:failures:ip:";
+
+    /**
+     * Returns 0 allow, 1 account already locked, 2 account locked now, 3 IP throttled, 4 IP blacklisted.
+     */
+    private static final DefaultRedisScript<Long> CHECK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[4]) == 1 then return 4 end " +
+            "if redis.call('EXISTS', KEYS[3]) == 1 then return 1 end " +
+            "local floor = tonumber(ARGV[1]) - tonumber(ARGV[2]) " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', floor) " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', floor) " +
+            "if redis.call('ZCARD', KEYS[1]) >= tonumber(ARGV[3]) then " +
+            "  redis.call('SET', KEYS[3], 'locked', 'PX', ARGV[5]) " +
+            "  redis.call('DEL', KEYS[1]) " +
+            "  return 2 " +
+            "end " +
+            "if redis.call('ZCARD', KEYS[2]) >= tonumber(ARGV[4]) then return 3 end " +
+            "return 0",
+            Long.class);
+
+    /**
+     * Adds a failure to both windows, trims them and returns {accountFailures, ipFailures}.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> RECORD_SCRIPT = new DefaultRedisScript<>(
+            "local now = tonumber(ARGV[1]) " +
+            "local floor = now - tonumber(ARGV[2]) " +
+            "local counts = {} " +
+            "for i = 1, 2 do " +
+            "  redis.call('ZADD', KEYS[i], now, ARGV[3]) " +
+            "  redis.call('ZREMRANGEBYSCORE', KEYS[i], '-inf', floor) " +
+            "  redis.call('PEXPIRE', KEYS[i], ARGV[2]) " +
+            "  counts[i] = redis.call('ZCARD', KEYS[i]) " +
+            "end " +
+            "return counts",
+            List.class);
+
+    @Value("${app.security.max-login-attempts:5}")
+    private int maxAccountFailures;
+
+    @Value("${app.security.account-lock-duration:1800000}")
+    private long accountLockDuration;
+
+    @Value("${app.security.login-signals.window-ms:900000}")
+    private long windowMs;
+
+    @Value("${app.security.login-signals.max-ip-failures:20}")
+    private int maxIpFailures;
+
+    @Value("${app.security.login-signals.heavy-hitter-threshold:100}")
+    private long heavyHitterThreshold;
+
+    private final AtomicReference<SketchPair> sketches = new AtomicReference<>(new SketchPair(new CountMinSketch(), new CountMinSketch()));
+    private final Set<String> flaggedHeavyHitters = ConcurrentHashMap.newKeySet();
+
+    public enum LoginDecision {
+        ALLOW,
+        ACCOUNT_LOCKED,
+        ACCOUNT_LOCKED_NOW,
+        IP_THROTTLED,
+        IP_BLACKLISTED
+    }
+
+    /**
+     * A login decision; {@code heavyHitterEstimate} is this node's sketch estimate for the IP when
+     * this attempt got it blacklisted, otherwise 0
+     */
+    public record LoginCheck(LoginDecision decision, long heavyHitterEstimate) {
+        public boolean heavyHitter() {
+            return heavyHitterEstimate > 0;
+        }
+    }
+
+    public record FailureSignal(long accountFailures, long ipFailures, long heavyHitterEstimate) {
+        public boolean heavyHitter() {
+            return heavyHitterEstimate > 0;
+        }
+    }
+
+    /**
+     * Decide whether a login may proceed; locks the account when its window is full
+     */
+    public LoginCheck evaluate(String username, String ipAddress) {
+        Long code = stringRedisTemplate.execute(
+                CHECK_SCRIPT,
+                List.of(accountFailuresKey(username, ipAddress),
+                        IP_FAILURES_KEY + ipAddress,
+                        SecurityConstants.ACCOUNT_LOCK_KEY + username,
+                        SecurityConstants.IP_BLACKLIST_KEY + ipAddress),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(windowMs),
+                String.valueOf(maxAccountFailures),
+                String.valueOf(maxIpFailures),
+                String.valueOf(accountLockDuration));
+
+        if (code == null) {
+            return new LoginCheck(LoginDecision.ALLOW, 0);
+        }
+        return switch (code.intValue()) {
+            case 1 -> new LoginCheck(LoginDecision.ACCOUNT_LOCKED, 0);
+            case 2 -> new LoginCheck(LoginDecision.ACCOUNT_LOCKED_NOW, 0);
+            // Throttled attempts never reach the password check, so count them here
+            case 3 -> new LoginCheck(LoginDecision.IP_THROTTLED, countAttempt(ipAddress));
+            case 4 -> new LoginCheck(LoginDecision.IP_BLACKLISTED, 0);
+            default -> new LoginCheck(LoginDecision.ALLOW, 0);
+        };
+    }
+
+    /**
+     * Record a failed login in the account and IP windows and this node's sketch
+     */
+    public FailureSignal recordFailure(String username, String ipAddress) {
+        long now = System.currentTimeMillis();
+        List<?> counts = stringRedisTemplate.execute(
+                RECORD_SCRIPT,
+                List.of(accountFailuresKey(username, ipAddress), IP_FAILURES_KEY + ipAddress),
+                String.valueOf(now),
+                String.valueOf(windowMs),
+                now + ":" + Long.toHexString(ThreadLocalRandom.current().nextLong()));
+
+        long accountFailures = counts != null && counts.size() > 0 ? ((Number) counts.get(0)).longValue() : 0;
+        long ipFailures = counts != null && counts.size() > 1 ? ((Number) counts.get(1)).longValue() : 0;
+
+        return new FailureSignal(accountFailures, ipFailures, countAttempt(ipAddress));
+    }
+
+    /**
+     * Add an attempt to this node's sketch; blacklists the IP and returns the estimate when it
+     * first crosses the heavy-hitter threshold, otherwise 0
+     */
+    private long countAttempt(String ipAddress) {
+        SketchPair pair = sketches.get();
+        pair.current().add(ipAddress);
+        long estimate = pair.current().estimate(ipAddress) + pair.previous().estimate(ipAddress);
+        if (estimate < heavyHitterThreshold || !flaggedHeavyHitters.add(ipAddress)) {
+            return 0;
+        }
+        stringRedisTemplate.opsForValue().set(SecurityConstants.IP_BLACKLIST_KEY + ipAddress, "blocked",
+                Duration.ofMillis(accountLockDuration));
+        log.warn("Heavy hitter detected: ~{} failed or throttled logins from IP {} on this node, blacklisted",
+                estimate, ipAddress);
+        return estimate;
+    }
+
+    /**
+     * Clear the account window for this IP after a successful login
+     */
+    public void recordSuccess(String username, String ipAddress) {
+        stringRedisTemplate.delete(accountFailuresKey(username, ipAddress));
+    }
+
+    private static String accountFailuresKey(String username, String ipAddress) {
+        return ACCOUNT_FAILURES_KEY + username + ":" + ipAddress;
+    }
+
+    /**
+     * Age the local sketch: estimates cover the current and previous half-window
+     */
+    @Scheduled(fixedRateString = "${app.security.login-signals.sketch-rotate-ms:450000}")
+    public void rotateSketch() {
+        SketchPair pair = sketches.get();
+        sketches.set(new SketchPair(new CountMinSketch(), pair.current()));
+        flaggedHeavyHitters.clear();
+    }
+
+    private record SketchPair(CountMinSketch current, CountMinSketch previous) {
+    }
+
+    /**
+     * Fixed-size Count-Min sketch with lock-free counters; estimates never undercount.
+     */
+    static final class CountMinSketch {
+        private static final int DEPTH = 4;
+        private static final int WIDTH = 2048;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final AtomicLongArray counters = new AtomicLongArray(DEPTH * WIDTH);
+
+        void add(String item) {
+            for (int row = 0; row < DEPTH; row++) {
+                counters.incrementAndGet(row * WIDTH + bucket(item, row));
+            }
+        }
+
+        long estimate(String item) {
+            long min = Long.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, counters.get(row * WIDTH + bucket(item, row)));
+            }
+            return min;
+        }
+
+        private static int bucket(String item, int row) {
+            int hash = SEEDS[row];
+            for (byte b : item.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x01000193;
+            }
+            hash ^= hash >>> 16;
+            return (hash & 0x7FFFFFFF) % WIDTH;
+        }
+    }
+}
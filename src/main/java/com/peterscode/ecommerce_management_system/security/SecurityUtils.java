@@ -92,32 +92,6 @@ public class SecurityUtils {
         log.warn("IP address blacklisted: {}", ipAddress);
     }
 
-    /**
-     * Record login attempt
-     */
-    public void recordLoginAttempt(String username, String ipAddress) {
-        String key = SecurityConstants.LOGIN_ATTEMPTS_KEY + username + ":" + ipAddress;
-        redisTemplate.opsForValue().increment(key);
-        redisTemplate.expire(key, SecurityConstants.LOGIN_ATTEMPT_WINDOW, TimeUnit.MILLISECONDS);
-    }
-
-    /**
-     * Get login attempt count
-     */
-    public int getLoginAttempts(String username, String ipAddress) {
-        String key = SecurityConstants.LOGIN_ATTEMPTS_KEY + username + ":" + ipAddress;
-        Object attempts = redisTemplate.opsForValue().get(key);
-        return attempts != null ? Integer.parseInt(attempts.toString()) : 0;
-    }
-
-    /**
-     * Reset login attempts
-     */
-    public void resetLoginAttempts(String username, String ipAddress) {
-        String key = SecurityConstants.LOGIN_ATTEMPTS_KEY + username + ":" + ipAddress;
-        redisTemplate.delete(key);
-    }
-
     /**
      * Lock account temporarily
      */
@@ -163,14 +137,6 @@ public class SecurityUtils {
         return input.replaceAll("[<>\"']", "");
     }
 
-    /**
-     * Check if request is from suspicious IP
-     */
-    public boolean isSuspiciousActivity(String ipAddress, String username) {
-        int attempts = getLoginAttempts(username, ipAddress);
-        return attempts >= SecurityConstants.MAX_LOGIN_ATTEMPTS;
-    }
-
     /**
      * Generate secure random token
      */
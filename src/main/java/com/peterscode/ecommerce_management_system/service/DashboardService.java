@@ -0,0 +1,17 @@
+package com.peterscode.ecommerce_management_system.service;
+
+import com.peterscode.ecommerce_management_system.model.dto.response.DashboardResponse;
+
+public interface DashboardService {
+
+    /**
+     * Every admin dashboard tile from the in-memory snapshot, with orders per day for the last
+     * {@code days} days
+     */
+    DashboardResponse getDashboard(int days);
+
+    /**
+     * Product tiles only
+     */
+    DashboardResponse.ProductTiles getProductTiles();
+}
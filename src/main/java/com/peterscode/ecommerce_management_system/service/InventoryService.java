@@ -3,8 +3,12 @@ package com.peterscode.ecommerce_management_system.service;
 import com.peterscode.ecommerce_management_system.model.dto.request.InventoryUpdateRequest;
 import com.peterscode.ecommerce_management_system.model.dto.response.InventoryResponse;
 import com.peterscode.ecommerce_management_system.model.dto.response.PageResponse;
+import com.peterscode.ecommerce_management_system.model.enums.InventoryEffect;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface InventoryService {
 
     InventoryResponse getInventoryByProductId(Long productId);
@@ -19,7 +23,17 @@ public interface InventoryService {
 
     void confirmStockReduction(Long productId, Integer quantity);
 
+    /**
+     * Apply one effect to many products (product id to quantity) with a single batched statement
+     */
+    void applyInventoryEffect(InventoryEffect effect, Map<Long, Integer> quantities);
+
     Integer getStock(Long productId);
 
+    /**
+     * Available stock for several products in one query; products without inventory are absent
+     */
+    Map<Long, Integer> getStock(Collection<Long> productIds);
+
     PageResponse<InventoryResponse> getLowStockInventory(Pageable pageable);
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.peterscode.ecommerce_management_system.service;
 
 import com.peterscode.ecommerce_management_system.model.dto.request.OrderRequest;
+import com.peterscode.ecommerce_management_system.model.dto.response.BulkOrderStatusResponse;
 import com.peterscode.ecommerce_management_system.model.dto.response.OrderResponse;
+import com.peterscode.ecommerce_management_system.model.dto.response.UserOrderStatsResponse;
 import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -27,6 +29,12 @@ public interface OrderService {
 
     OrderResponse updateOrderStatus(Long orderId, OrderStatus status);
 
+    /**
+     * Move many orders to one status in chunked transactions; orders that cannot make the
+     * transition are skipped and reported
+     */
+    BulkOrderStatusResponse bulkUpdateOrderStatus(List<Long> orderIds, OrderStatus status);
+
     // UPDATED: Now accepts requestingUserId
     OrderResponse cancelOrder(Long orderId, String reason, Long requestingUserId);
 
@@ -40,5 +48,7 @@ public interface OrderService {
 
     Long getUserOrderCount(Long userId);
 
+    UserOrderStatsResponse getUserOrderStats(Long userId);
+
     void deleteOrder(Long orderId);
 }
\ No newline at end of file
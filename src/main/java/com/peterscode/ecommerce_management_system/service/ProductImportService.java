@@ -0,0 +1,46 @@
+package com.peterscode.ecommerce_management_system.service;
+
+import com.peterscode.ecommerce_management_system.exception.BadRequestException;
+import com.peterscode.ecommerce_management_system.model.dto.response.ProductImportResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface ProductImportService {
+
+    enum Format {
+        CSV("text/csv"),
+        NDJSON("application/x-ndjson");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public static Format from(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new BadRequestException("Unsupported format '" + value + "', expected csv or ndjson");
+        }
+    }
+
+    /**
+     * Import products from a CSV or NDJSON stream for the current seller.
+     * Rows are parsed incrementally and written in multi-row batches; invalid rows are reported, not fatal.
+     */
+    ProductImportResponse importProducts(InputStream input, Format format) throws IOException;
+
+    /**
+     * Write every product to the stream as it is read from the database
+     */
+    void exportProducts(OutputStream output, Format format) throws IOException;
+}
@@ -2,6 +2,7 @@ package com.peterscode.ecommerce_management_system.service;
 
 import com.peterscode.ecommerce_management_system.model.dto.response.PageResponse;
 import com.peterscode.ecommerce_management_system.model.dto.response.ProductResponse;
+import com.peterscode.ecommerce_management_system.model.dto.response.ProductSummaryResponse;
 import com.peterscode.ecommerce_management_system.model.dto.request.ProductRequest;
 import org.springframework.data.domain.Pageable;
 
@@ -38,7 +39,12 @@ public interface ProductService {
     /**
      * Get products by category
      */
-    PageResponse<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable);
+    PageResponse<ProductResponse> getProductsByCategory(Long categoryId, boolean includeDescendants, Pageable pageable);
+
+    /**
+     * Get active product summaries for listing grids, optionally limited to a category (and its descendants)
+     */
+    PageResponse<ProductSummaryResponse> getProductSummaries(Long categoryId, boolean includeDescendants, Pageable pageable);
 
     /**
      * Get products by seller
@@ -0,0 +1,25 @@
+package com.peterscode.ecommerce_management_system.service;
+
+import com.peterscode.ecommerce_management_system.model.dto.response.SalesReportResponse;
+import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
+import com.peterscode.ecommerce_management_system.model.enums.ReportGranularity;
+import com.peterscode.ecommerce_management_system.model.enums.SalesDimension;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+public interface SalesReportService {
+
+    /**
+     * Sales from {@code from} to {@code to} (inclusive) read from the rollups. TOTAL returns one
+     * row per hour or day; other dimensions return their top {@code limit} entries by revenue.
+     * Statuses default to orders that count as sales (CONFIRMED through DELIVERED).
+     */
+    SalesReportResponse getSalesReport(LocalDate from, LocalDate to, SalesDimension dimension,
+                                       ReportGranularity granularity, Set<OrderStatus> statuses, int limit);
+
+    /**
+     * Rebuild the rollups for the date range from orders in the background
+     */
+    void backfill(LocalDate from, LocalDate to);
+}
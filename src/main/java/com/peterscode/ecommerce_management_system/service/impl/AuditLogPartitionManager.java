@@ -0,0 +1,232 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSetMetaData;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Maintains the monthly partitions of {@code audit_logs} (see V12 migration).
+ * <p>
+ * Partitions are named {@code pYYYYMM} and bounded by UTC month starts in epoch seconds.
+ * New months are split off the trailing {@code p_future} partition ahead of time, and
+ * partitions entirely older than the retention window are exported to gzipped NDJSON
+ * and then dropped.
+ * <p>
+ * Every node runs the job at startup and nightly, but only the holder of a cluster lease
+ * alters the table, so two nodes never reorganize or drop the same partition at once. The
+ * lease is renewed before each drop and the pass stops if it has been lost.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditLogPartitionManager {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ClusterLeases clusterLeases;
+
+    private static final String TABLE = "audit_logs";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final Pattern PARTITION_NAME = Pattern.compile("p_history|p\\d{6}");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String LEASE_NAME = "audit-log:partitions";
+
+    @Value("${app.audit.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${app.audit.partitions.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${app.audit.partitions.archive-enabled:true}")
+    private boolean archiveEnabled;
+
+    @Value("${app.audit.partitions.archive-dir:archive/audit-logs}")
+    private String archiveDir;
+
+    @Value("${app.audit.partitions.lease-ms:1800000}")
+    private long leaseMs;
+
+    private record PartitionInfo(String name, Long upperBound) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    /**
+     * Runs every day at 2:30 AM: pre-create upcoming months, then retire expired ones
+     */
+    @Scheduled(cron = "0 30 2 * * ?")
+    public void maintainPartitions() {
+        Optional<ClusterLeases.Lease> acquired = clusterLeases.tryAcquire(LEASE_NAME, leaseMs);
+        if (acquired.isEmpty()) {
+            log.debug("Audit log partition maintenance is running on another node, skipping");
+            return;
+        }
+        ClusterLeases.Lease lease = acquired.get();
+        try {
+            List<PartitionInfo> partitions = loadPartitions();
+            if (partitions.isEmpty()) {
+                log.warn("Table {} is not partitioned, skipping partition maintenance", TABLE);
+                return;
+            }
+
+            LocalDate currentMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+            createUpcomingPartitions(partitions, currentMonth);
+            retireExpiredPartitions(loadPartitions(), currentMonth.minusMonths(retentionMonths), lease);
+        } catch (Exception e) {
+            log.error("Audit log partition maintenance failed: {}", e.getMessage(), e);
+        } finally {
+            clusterLeases.release(lease);
+        }
+    }
+
+    private List<PartitionInfo> loadPartitions() {
+        return jdbcTemplate.query(
+                "SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                        "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, rowNum) -> {
+                    String description = rs.getString("PARTITION_DESCRIPTION");
+                    Long bound = "MAXVALUE".equalsIgnoreCase(description) ? null : Long.valueOf(description);
+                    return new PartitionInfo(rs.getString("PARTITION_NAME"), bound);
+                },
+                TABLE);
+    }
+
+    /**
+     * Split p_future so every month up to monthsAhead has its own partition
+     */
+    private void createUpcomingPartitions(List<PartitionInfo> partitions, LocalDate currentMonth) {
+        long highestBound = partitions.stream()
+                .map(PartitionInfo::upperBound)
+                .filter(bound -> bound != null)
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(Long.MIN_VALUE);
+
+        List<String> definitions = new ArrayList<>();
+        for (int i = 0; i <= monthsAhead; i++) {
+            LocalDate month = currentMonth.plusMonths(i);
+            long upperBound = epochSeconds(month.plusMonths(1));
+            if (upperBound > highestBound) {
+                definitions.add("PARTITION p" + month.format(PARTITION_SUFFIX) + " VALUES LESS THAN (" + upperBound + ")");
+            }
+        }
+
+        if (definitions.isEmpty()) {
+            return;
+        }
+
+        definitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION +
+                " INTO (" + String.join(", ", definitions) + ")");
+        log.info("Created {} audit log partition(s) ahead of time", definitions.size() - 1);
+    }
+
+    /**
+     * Archive and drop partitions whose rows are all older than the cutoff month
+     */
+    private void retireExpiredPartitions(List<PartitionInfo> partitions, LocalDate cutoffMonth,
+                                         ClusterLeases.Lease lease) {
+        long cutoff = epochSeconds(cutoffMonth);
+
+        for (PartitionInfo partition : partitions) {
+            if (partition.upperBound() == null || partition.upperBound() > cutoff) {
+                continue;
+            }
+            if (!PARTITION_NAME.matcher(partition.name()).matches()) {
+                log.warn("Skipping unexpected audit log partition: {}", partition.name());
+                continue;
+            }
+
+            if (archiveEnabled) {
+                try {
+                    archivePartition(partition.name());
+                } catch (Exception e) {
+                    log.error("Failed to archive audit log partition {}, keeping it: {}", partition.name(), e.getMessage());
+                    continue;
+                }
+            }
+
+            // Archiving can outlast the lease; never drop once another node may have taken over
+            if (!clusterLeases.renew(lease)) {
+                log.warn("Audit log partition maintenance lost its lease before dropping {}, stopping",
+                        partition.name());
+                return;
+            }
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partition.name());
+            log.info("Dropped audit log partition {}", partition.name());
+        }
+    }
+
+    /**
+     * Stream a partition's rows to {@code audit_logs-<partition>.ndjson.gz}, one JSON object per line
+     */
+    private void archivePartition(String partitionName) throws IOException {
+        Path directory = Paths.get(archiveDir);
+        Files.createDirectories(directory);
+        Path target = directory.resolve(TABLE + "-" + partitionName + ".ndjson.gz");
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+
+        // Stream rows instead of materialising the whole month in memory
+        JdbcTemplate streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingTemplate.setFetchSize(Integer.MIN_VALUE);
+
+        long[] rows = {0};
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temporary)), StandardCharsets.UTF_8))) {
+            streamingTemplate.query("SELECT * FROM " + TABLE + " PARTITION (" + partitionName + ")", rs -> {
+                ResultSetMetaData metaData = rs.getMetaData();
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                    Object value = rs.getObject(column);
+                    row.put(metaData.getColumnLabel(column), value instanceof java.util.Date ? value.toString() : value);
+                }
+                try {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        }
+
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Archived {} audit log rows from partition {} to {}", rows[0], partitionName, target);
+    }
+
+    private static long epochSeconds(LocalDate date) {
+        return date.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+}
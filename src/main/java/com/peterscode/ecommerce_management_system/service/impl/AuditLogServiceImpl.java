@@ -9,7 +9,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,56 +20,49 @@ import java.time.LocalDateTime;
 public class AuditLogServiceImpl implements AuditLogService {
 
     private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
     private final SecurityUtils securityUtils;
 
-    @Async
     @Override
-    @Transactional
     public void logSuccess(String action, String resourceType, String resourceId,
                            String details, HttpServletRequest request) {
         try {
             AuditLog auditLog = buildAuditLog(action, resourceType, resourceId,
                     "SUCCESS", details, null, request);
-            auditLogRepository.save(auditLog);
-            log.debug("Audit log created for successful action: {}", action);
+            auditLogWriter.enqueue(auditLog);
+            log.debug("Audit log queued for successful action: {}", action);
         } catch (Exception e) {
             log.error("Error creating audit log: {}", e.getMessage());
         }
     }
 
-    @Async
     @Override
-    @Transactional
     public void logFailure(String action, String resourceType, String resourceId,
                            String errorMessage, HttpServletRequest request) {
         try {
             AuditLog auditLog = buildAuditLog(action, resourceType, resourceId,
                     "FAILURE", null, errorMessage, request);
-            auditLogRepository.save(auditLog);
-            log.debug("Audit log created for failed action: {}", action);
+            auditLogWriter.enqueue(auditLog);
+            log.debug("Audit log queued for failed action: {}", action);
         } catch (Exception e) {
             log.error("Error creating audit log: {}", e.getMessage());
         }
     }
 
-    @Async
     @Override
-    @Transactional
     public void logWarning(String action, String resourceType, String resourceId,
                            String details, HttpServletRequest request) {
         try {
             AuditLog auditLog = buildAuditLog(action, resourceType, resourceId,
                     "WARNING", details, null, request);
-            auditLogRepository.save(auditLog);
-            log.debug("Audit log created for warning: {}", action);
+            auditLogWriter.enqueue(auditLog);
+            log.debug("Audit log queued for warning: {}", action);
         } catch (Exception e) {
             log.error("Error creating audit log: {}", e.getMessage());
         }
     }
 
-    @Async
     @Override
-    @Transactional
     public void logAuthenticationAttempt(String username, boolean success,
                                          String ipAddress, String userAgent) {
         try {
@@ -84,16 +76,14 @@ public class AuditLogServiceImpl implements AuditLogService {
                     .details(success ? "User logged in successfully" : "Failed login attempt")
                     .build();
 
-            auditLogRepository.save(auditLog);
+            auditLogWriter.enqueue(auditLog);
             log.debug("Authentication attempt logged for user: {}", username);
         } catch (Exception e) {
             log.error("Error logging authentication attempt: {}", e.getMessage());
         }
     }
 
-    @Async
     @Override
-    @Transactional
     public void logLogout(String username, String ipAddress) {
         try {
             AuditLog auditLog = AuditLog.builder()
@@ -105,16 +95,14 @@ public class AuditLogServiceImpl implements AuditLogService {
                     .details("User logged out")
                     .build();
 
-            auditLogRepository.save(auditLog);
+            auditLogWriter.enqueue(auditLog);
             log.debug("Logout logged for user: {}", username);
         } catch (Exception e) {
             log.error("Error logging logout: {}", e.getMessage());
         }
     }
 
-    @Async
     @Override
-    @Transactional
     public void logPasswordChange(String username, boolean success, String ipAddress) {
         try {
             AuditLog auditLog = AuditLog.builder()
@@ -126,16 +114,14 @@ public class AuditLogServiceImpl implements AuditLogService {
                     .details(success ? "Password changed successfully" : "Password change failed")
                     .build();
 
-            auditLogRepository.save(auditLog);
+            auditLogWriter.enqueue(auditLog);
             log.debug("Password change logged for user: {}", username);
         } catch (Exception e) {
             log.error("Error logging password change: {}", e.getMessage());
         }
     }
 
-    @Async
     @Override
-    @Transactional
     public void logSecurityEvent(String event, String details, String ipAddress) {
         try {
             AuditLog auditLog = AuditLog.builder()
@@ -146,7 +132,7 @@ public class AuditLogServiceImpl implements AuditLogService {
                     .details(details)
                     .build();
 
-            auditLogRepository.save(auditLog);
+            auditLogWriter.enqueue(auditLog);
             log.warn("Security event logged: {} from IP: {}", event, ipAddress);
         } catch (Exception e) {
             log.error("Error logging security event: {}", e.getMessage());
@@ -186,7 +172,7 @@ public class AuditLogServiceImpl implements AuditLogService {
     }
 
     /**
-     * Build audit log from request
+     * Build audit log from request (runs on the caller thread, while the request is still live)
      */
     private AuditLog buildAuditLog(String action, String resourceType, String resourceId,
                                    String status, String details, String errorMessage,
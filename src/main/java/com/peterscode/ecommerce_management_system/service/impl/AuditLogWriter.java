@@ -0,0 +1,271 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import com.peterscode.ecommerce_management_system.constant.IdGenerators;
+import com.peterscode.ecommerce_management_system.model.audit.AuditLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dedicated writer for audit events.
+ * <p>
+ * Callers publish into a bounded lock-free ring buffer and return immediately. A single
+ * drainer thread takes events off in batches and writes each batch with one multi-row
+ * INSERT, so audit traffic never competes with email or notification work on the shared
+ * async pool. When the ring is full, producers wait up to {@code offer-timeout-ms} and
+ * then drop the event; drops are counted rather than blocking the request.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditLogWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final JdbcIdAllocator idAllocator;
+
+    private static final String INSERT_PREFIX = "INSERT INTO audit_logs (id, user_email, user_id, action, resource_type, " +
+            "resource_id, ip_address, user_agent, request_method, request_url, details, status, error_message, " +
+            "created_at, session_id, execution_time_ms) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int ROW_WIDTH = 16;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
+    @Value("${app.audit.writer.capacity:8192}")
+    private int capacity;
+
+    @Value("${app.audit.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.audit.writer.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${app.audit.writer.offer-timeout-ms:2}")
+    private long offerTimeoutMs;
+
+    private RingBuffer<AuditLog> ringBuffer;
+    private Thread drainer;
+    private volatile boolean running;
+
+    private Counter enqueuedCounter;
+    private Counter droppedCounter;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Timer batchTimer;
+
+    @PostConstruct
+    public void start() {
+        ringBuffer = new RingBuffer<>(capacity);
+
+        Gauge.builder("audit.log.queue.depth", ringBuffer, RingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("audit.log.queue.capacity", ringBuffer, RingBuffer::capacity)
+                .register(meterRegistry);
+        enqueuedCounter = meterRegistry.counter("audit.log.events", "outcome", "enqueued");
+        droppedCounter = meterRegistry.counter("audit.log.events", "outcome", "dropped");
+        writtenCounter = meterRegistry.counter("audit.log.events", "outcome", "written");
+        failedCounter = meterRegistry.counter("audit.log.events", "outcome", "failed");
+        batchTimer = meterRegistry.timer("audit.log.batch.write");
+
+        running = true;
+        drainer = new Thread(this::drainLoop, "audit-log-writer");
+        drainer.setDaemon(true);
+        drainer.start();
+
+        log.info("Audit log writer started with capacity {} and batch size {}", ringBuffer.capacity(), batchSize);
+    }
+
+    /**
+     * Queue an audit event for writing; returns false if it had to be dropped
+     */
+    public boolean enqueue(AuditLog auditLog) {
+        if (auditLog.getCreatedAt() == null) {
+            auditLog.setCreatedAt(LocalDateTime.now());
+        }
+
+        if (ringBuffer.offer(auditLog)) {
+            onEnqueued();
+            return true;
+        }
+
+        // Backpressure: nudge the drainer and give it a short window to free a slot
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+        do {
+            LockSupport.unpark(drainer);
+            LockSupport.parkNanos(50_000L);
+            if (ringBuffer.offer(auditLog)) {
+                onEnqueued();
+                return true;
+            }
+        } while (System.nanoTime() < deadline);
+
+        droppedCounter.increment();
+        log.debug("Audit log queue full, dropped event: {}", auditLog.getAction());
+        return false;
+    }
+
+    private void onEnqueued() {
+        enqueuedCounter.increment();
+        if (ringBuffer.size() >= batchSize) {
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    private void drainLoop() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running || ringBuffer.size() > 0) {
+            AuditLog next;
+            while (batch.size() < batchSize && (next = ringBuffer.poll()) != null) {
+                batch.add(next);
+            }
+
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+                continue;
+            }
+
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<AuditLog> batch) {
+        String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(batch.size(), ROW_PLACEHOLDERS));
+        Object[] args = new Object[batch.size() * ROW_WIDTH];
+        int i = 0;
+        for (AuditLog entry : batch) {
+            i++; // id, assigned below
+            args[i++] = entry.getUserEmail();
+            args[i++] = entry.getUserId();
+            args[i++] = entry.getAction();
+            args[i++] = entry.getResourceType();
+            args[i++] = entry.getResourceId();
+            args[i++] = entry.getIpAddress();
+            args[i++] = entry.getUserAgent();
+            args[i++] = entry.getRequestMethod();
+            args[i++] = entry.getRequestUrl();
+            args[i++] = entry.getDetails();
+            args[i++] = entry.getStatus();
+            args[i++] = entry.getErrorMessage();
+            args[i++] = Timestamp.valueOf(entry.getCreatedAt());
+            args[i++] = entry.getSessionId();
+            args[i++] = entry.getExecutionTimeMs();
+        }
+
+        for (int attempt = 1; attempt <= MAX_WRITE_ATTEMPTS; attempt++) {
+            try {
+                if (args[0] == null) {
+                    // Reserved once, so a retried batch reuses the same ids
+                    long[] ids = idAllocator.allocate(IdGenerators.AUDIT_LOGS, batch.size());
+                    for (int row = 0; row < batch.size(); row++) {
+                        args[row * ROW_WIDTH] = ids[row];
+                    }
+                }
+                batchTimer.record(() -> jdbcTemplate.update(sql, args));
+                writtenCounter.increment(batch.size());
+                return;
+            } catch (Exception e) {
+                log.error("Error writing audit log batch of {} (attempt {}): {}", batch.size(), attempt, e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100L * attempt));
+            }
+        }
+        failedCounter.increment(batch.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ringBuffer.size() > 0) {
+            log.warn("Audit log writer stopped with {} events unwritten", ringBuffer.size());
+        }
+    }
+
+    /**
+     * Bounded multi-producer, single-consumer ring buffer. Each slot carries a sequence
+     * number so producers claim slots with a single CAS and the consumer never locks.
+     */
+    static final class RingBuffer<E> {
+        private final Object[] slots;
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+
+        RingBuffer(int requestedCapacity) {
+            int size = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+            this.slots = new Object[size];
+            this.sequences = new AtomicLongArray(size);
+            this.mask = size - 1;
+            for (int i = 0; i < size; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        boolean offer(E element) {
+            long position = tail.get();
+            while (true) {
+                int index = (int) (position & mask);
+                long difference = sequences.get(index) - position;
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        slots[index] = element;
+                        sequences.setRelease(index, position + 1);
+                        return true;
+                    }
+                    position = tail.get();
+                } else if (difference < 0) {
+                    return false;
+                } else {
+                    position = tail.get();
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        E poll() {
+            long position = head.get();
+            int index = (int) (position & mask);
+            if (sequences.getAcquire(index) != position + 1) {
+                return null;
+            }
+            E element = (E) slots[index];
+            slots[index] = null;
+            sequences.setRelease(index, position + mask + 1);
+            head.lazySet(position + 1);
+            return element;
+        }
+
+        int size() {
+            return (int) Math.max(0, tail.get() - head.get());
+        }
+
+        int capacity() {
+            return slots.length;
+        }
+    }
+}
@@ -17,6 +17,7 @@ import com.peterscode.ecommerce_management_system.model.enums.Role;
 import com.peterscode.ecommerce_management_system.repository.UserRepository;
 import com.peterscode.ecommerce_management_system.repository.VerificationTokenRepository;
 import com.peterscode.ecommerce_management_system.security.JwtTokenProvider;
+import com.peterscode.ecommerce_management_system.security.LoginSignalEngine;
 import com.peterscode.ecommerce_management_system.security.SecurityUtils;
 import com.peterscode.ecommerce_management_system.service.AuditLogService;
 import com.peterscode.ecommerce_management_system.service.AuthService;
@@ -48,6 +49,7 @@ public class AuthServiceImpl implements AuthService {
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
     private final SecurityUtils securityUtils;
+    private final LoginSignalEngine loginSignalEngine;
     private final AuditLogService auditLogService;
     private final EmailService emailService;
     private final VerificationTokenRepository verificationTokenRepository;
@@ -157,26 +159,46 @@ public class AuthServiceImpl implements AuthService {
 
         log.debug("Login attempt from IP: {} for email: {}", ipAddress, request.getEmail());
 
-        // Check if IP is blacklisted
-        if (securityUtils.isIpBlacklisted(ipAddress)) {
-            auditLogService.logSecurityEvent("LOGIN_BLOCKED", "Blocked IP attempted login", ipAddress);
-            throw new BadRequestException("Access denied");
+        // Blacklist, lockout and brute-force windows are decided in a single Redis call
+        LoginSignalEngine.LoginCheck check = loginSignalEngine.evaluate(request.getEmail(), ipAddress);
+        if (check.heavyHitter()) {
+            auditHeavyHitter(check.heavyHitterEstimate(), ipAddress);
+        }
+        switch (check.decision()) {
+            case IP_BLACKLISTED -> {
+                auditLogService.logSecurityEvent("LOGIN_BLOCKED", "Blocked IP attempted login", ipAddress);
+                throw new BadRequestException("Access denied");
+            }
+            case IP_THROTTLED -> {
+                log.warn("Too many failed logins from IP: {}", ipAddress);
+                auditLogService.logSecurityEvent("LOGIN_THROTTLED",
+                        "Failed login threshold exceeded for IP", ipAddress);
+                throw new BadRequestException("Too many failed login attempts. Please try again later.");
+            }
+            case ACCOUNT_LOCKED -> {
+                log.warn("Login attempt on locked account: {}", request.getEmail());
+                auditLogService.logAuthenticationAttempt(request.getEmail(), false, ipAddress, userAgent);
+                throw new BadRequestException("Account is temporarily locked. Please try again later.");
+            }
+            case ACCOUNT_LOCKED_NOW -> {
+                log.warn("Suspicious login activity detected for: {} from IP: {}", request.getEmail(), ipAddress);
+                auditLogService.logSecurityEvent("SUSPICIOUS_LOGIN",
+                        "Account locked due to suspicious activity", ipAddress);
+                throw new BadRequestException("Too many failed login attempts. Account locked for 30 minutes.");
+            }
+            default -> {
+                // ALLOW
+            }
         }
 
         // Find user
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> {
+                    recordFailedLogin(request.getEmail(), ipAddress);
                     auditLogService.logAuthenticationAttempt(request.getEmail(), false, ipAddress, userAgent);
                     return new UnauthorizedException("Invalid email or password");
                 });
 
-        // Check if account is locked
-        if (securityUtils.isAccountLocked(request.getEmail())) {
-            log.warn("Login attempt on locked account: {}", request.getEmail());
-            auditLogService.logAuthenticationAttempt(request.getEmail(), false, ipAddress, userAgent);
-            throw new BadRequestException("Account is temporarily locked. Please try again later.");
-        }
-
         // Check if email is verified
         if (!user.isEmailVerified()) {
             log.warn("Login attempt with unverified email: {}", request.getEmail());
@@ -191,15 +213,6 @@ public class AuthServiceImpl implements AuthService {
             throw new BadRequestException("Account is disabled. Please contact support.");
         }
 
-        // Check login attempts
-        if (securityUtils.isSuspiciousActivity(ipAddress, request.getEmail())) {
-            log.warn("Suspicious login activity detected for: {} from IP: {}", request.getEmail(), ipAddress);
-            securityUtils.lockAccount(request.getEmail());
-            auditLogService.logSecurityEvent("SUSPICIOUS_LOGIN",
-                    "Account locked due to suspicious activity", ipAddress);
-            throw new BadRequestException("Too many failed login attempts. Account locked for 30 minutes.");
-        }
-
         try {
             // Authenticate user
             Authentication authentication = authenticationManager.authenticate(
@@ -215,8 +228,8 @@ public class AuthServiceImpl implements AuthService {
 
             UserResponse userResponse = userMapper.toResponse(user);
 
-            // Reset login attempts on successful login
-            securityUtils.resetLoginAttempts(request.getEmail(), ipAddress);
+            // Reset the account's failure window on successful login
+            loginSignalEngine.recordSuccess(request.getEmail(), ipAddress);
 
             // Log successful login
             log.info("User logged in successfully: {}", request.getEmail());
@@ -229,7 +242,7 @@ public class AuthServiceImpl implements AuthService {
 
         } catch (AuthenticationException e) {
             // Record failed login attempt
-            securityUtils.recordLoginAttempt(request.getEmail(), ipAddress);
+            recordFailedLogin(request.getEmail(), ipAddress);
 
             log.warn("Login failed for: {} from IP: {}", request.getEmail(), ipAddress);
             auditLogService.logAuthenticationAttempt(request.getEmail(), false, ipAddress, userAgent);
@@ -405,6 +418,21 @@ public class AuthServiceImpl implements AuthService {
         log.info("Password reset successfully for user: {}", user.getEmail());
     }
 
+    /**
+     * Record a failed login in the brute-force windows
+     */
+    private void recordFailedLogin(String email, String ipAddress) {
+        LoginSignalEngine.FailureSignal signal = loginSignalEngine.recordFailure(email, ipAddress);
+        if (signal.heavyHitter()) {
+            auditHeavyHitter(signal.heavyHitterEstimate(), ipAddress);
+        }
+    }
+
+    private void auditHeavyHitter(long estimate, String ipAddress) {
+        auditLogService.logSecurityEvent("LOGIN_HEAVY_HITTER",
+                "IP blacklisted after ~" + estimate + " failed or throttled logins seen by this node", ipAddress);
+    }
+
     /**
      * Validate that email is a Gmail address
      */
@@ -1,5 +1,6 @@
 package com.peterscode.ecommerce_management_system.service.impl;
 
+import com.peterscode.ecommerce_management_system.constant.IdGenerators;
 import com.peterscode.ecommerce_management_system.exception.BadRequestException;
 import com.peterscode.ecommerce_management_system.exception.InsufficientStockException;
 import com.peterscode.ecommerce_management_system.exception.ResourceNotFoundException;
@@ -13,14 +14,22 @@ import com.peterscode.ecommerce_management_system.service.InventoryService; // <
 import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "jpa", matchIfMissing = true)
 public class CartServiceImpl implements CartService {
 
     private final CartRepository cartRepository;
@@ -28,6 +37,9 @@ public class CartServiceImpl implements CartService {
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final InventoryService inventoryService; // <--- Inject InventoryService
+    private final ProductSnapshotCache productSnapshotCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcIdAllocator idAllocator;
     private final CartMapper cartMapper;
 
     @Override
@@ -83,9 +95,8 @@ public class CartServiceImpl implements CartService {
             throw new BadRequestException("Cart item does not belong to this cart");
         }
 
-        // --- UPDATED: Check stock via InventoryService ---
-        // inventoryService.getStock() returns the AVAILABLE stock (Total - Reserved)
-        Integer availableStock = inventoryService.getStock(cartItem.getProduct().getId());
+        // Available stock (Total - Reserved) from the snapshot, confirmed with InventoryService before rejecting
+        Integer availableStock = availableStock(productSnapshotCache.require(cartItem.getProduct().getId()), quantity);
 
         if (availableStock < quantity) {
             throw new InsufficientStockException("Insufficient stock. Available: " + availableStock);
@@ -165,67 +176,72 @@ public class CartServiceImpl implements CartService {
     @Override
     @Transactional
     public void mergeGuestCartWithUserCart(String sessionId, Long userId) {
-        Optional<Cart> guestCartOpt = cartRepository.findBySessionIdWithItems(sessionId);
+        Optional<Cart> guestCartOpt = cartRepository.findBySessionId(sessionId);
         if (guestCartOpt.isEmpty()) {
             return;
         }
 
-        Cart guestCart = guestCartOpt.get();
-        if (guestCart.getItems().isEmpty()) {
-            cartRepository.delete(guestCart);
+        // Lines are read and written with plain JDBC so the query count does not grow with the cart size
+        Long guestCartId = guestCartOpt.get().getId();
+        List<MergeLine> guestLines = loadLines(guestCartId);
+        if (guestLines.isEmpty()) {
+            deleteCartRows(guestCartId);
             return;
         }
 
-        Cart userCart = cartRepository.findByUserIdWithItems(userId)
-                .orElseGet(() -> createCartForUser(userId));
+        Long userCartId = cartRepository.findByUserId(userId)
+                .orElseGet(() -> createCartForUser(userId))
+                .getId();
 
-        for (CartItem guestItem : guestCart.getItems()) {
-            Optional<CartItem> existingItem = userCart.getItems().stream()
-                    .filter(item -> item.getProduct().getId().equals(guestItem.getProduct().getId()))
-                    .findFirst();
-
-            // Check stock using InventoryService
-            Integer availableStock = inventoryService.getStock(guestItem.getProduct().getId());
-
-            if (existingItem.isPresent()) {
-                CartItem item = existingItem.get();
-                int newQty = item.getQuantity() + guestItem.getQuantity();
-
-                // Validate combined stock
-                if (availableStock >= newQty) {
-                    item.setQuantity(newQty);
-                    item.calculateTotalPrice();
-                } else {
-                    // Max out at available stock
-                    item.setQuantity(availableStock);
-                    item.calculateTotalPrice();
-                }
+        Map<Long, MergeLine> userLines = new HashMap<>();
+        for (MergeLine line : loadLines(userCartId)) {
+            userLines.put(line.productId(), line);
+        }
+
+        Map<Long, Integer> availableStock = inventoryService.getStock(
+                guestLines.stream().map(MergeLine::productId).collect(Collectors.toSet()));
+
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (MergeLine guestLine : guestLines) {
+            int stock = availableStock.getOrDefault(guestLine.productId(), 0);
+            MergeLine existing = userLines.get(guestLine.productId());
+
+            if (existing != null) {
+                // Combined quantity, maxed out at available stock
+                int quantity = Math.min(existing.quantity() + guestLine.quantity(), stock);
+                updates.add(new Object[]{quantity, existing.unitPrice().multiply(BigDecimal.valueOf(quantity)), existing.id()});
             } else {
-                // Clone item to user cart
-                CartItem newItem = CartItem.builder()
-                        .cart(userCart)
-                        .product(guestItem.getProduct())
-                        .quantity(guestItem.getQuantity())
-                        .unitPrice(guestItem.getUnitPrice())
-                        .build();
-
-                // Stock check for new item
-                if (availableStock < newItem.getQuantity()){
-                    newItem.setQuantity(availableStock);
+                int quantity = Math.min(guestLine.quantity(), stock);
+                if (quantity > 0) {
+                    inserts.add(new Object[]{null, userCartId, guestLine.productId(), quantity, guestLine.unitPrice(),
+                            guestLine.unitPrice().multiply(BigDecimal.valueOf(quantity))});
                 }
+            }
+        }
 
-                if (newItem.getQuantity() > 0) {
-                    newItem.calculateTotalPrice();
-                    userCart.addItem(newItem);
-                }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE cart_items SET quantity = ?, total_price = ?, updated_at = NOW(6) WHERE id = ?",
+                    updates);
+        }
+        if (!inserts.isEmpty()) {
+            long[] ids = idAllocator.allocate(IdGenerators.CART_ITEMS, inserts.size());
+            for (int row = 0; row < inserts.size(); row++) {
+                inserts.get(row)[0] = ids[row];
             }
+            jdbcTemplate.batchUpdate("INSERT INTO cart_items (id, cart_id, product_id, quantity, unit_price, total_price, " +
+                    "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, NOW(6), NOW(6))", inserts);
         }
 
-        userCart.recalculateTotals();
-        cartRepository.save(userCart);
+        // MySQL evaluates single-table SET assignments left to right, so total_amount sees the new subtotal
+        jdbcTemplate.update("UPDATE carts c SET " +
+                "total_items = (SELECT COALESCE(SUM(ci.quantity), 0) FROM cart_items ci WHERE ci.cart_id = c.id), " +
+                "subtotal = (SELECT COALESCE(SUM(ci.total_price), 0) FROM cart_items ci WHERE ci.cart_id = c.id), " +
+                "total_amount = subtotal - COALESCE(discount_amount, 0) + COALESCE(tax_amount, 0), " +
+                "updated_at = NOW(6) WHERE c.id = ?", userCartId);
 
         // Delete guest cart after merge
-        cartRepository.delete(guestCart);
+        deleteCartRows(guestCartId);
         log.info("Merged guest cart {} into user cart {}", sessionId, userId);
     }
 
@@ -243,32 +259,49 @@ public class CartServiceImpl implements CartService {
         return cartRepository.save(Cart.builder().user(user).build());
     }
 
+    private List<MergeLine> loadLines(Long cartId) {
+        return jdbcTemplate.query("SELECT id, product_id, quantity, unit_price FROM cart_items WHERE cart_id = ?",
+                (rs, rowNum) -> new MergeLine(
+                        rs.getLong("id"),
+                        rs.getLong("product_id"),
+                        rs.getInt("quantity"),
+                        rs.getBigDecimal("unit_price")),
+                cartId);
+    }
+
+    private void deleteCartRows(Long cartId) {
+        jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id = ?", cartId);
+        jdbcTemplate.update("DELETE FROM carts WHERE id = ?", cartId);
+    }
+
+    private record MergeLine(Long id, Long productId, int quantity, BigDecimal unitPrice) {
+    }
+
     private Cart createCartForGuest(String sessionId) {
         return cartRepository.save(Cart.builder().sessionId(sessionId).build());
     }
 
     private void addOrUpdateCartItem(Cart cart, CartItemRequest request) {
-        Product product = productRepository.findById(request.getProductId())
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+        // Price, status and stock come from the snapshot instead of the Product and Inventory rows
+        ProductSnapshotCache.Snapshot product = productSnapshotCache.require(request.getProductId());
 
-        if (!Boolean.TRUE.equals(product.getIsActive())) {
+        if (!product.active()) {
             throw new BadRequestException("Product is not available");
         }
 
-        // --- UPDATED: Check available stock via InventoryService ---
-        Integer availableStock = inventoryService.getStock(product.getId());
+        Optional<CartItem> existingItem = cart.getItems().stream()
+                .filter(item -> item.getProduct().getId().equals(product.productId()))
+                .findFirst();
+
+        int newQuantity = request.getQuantity() + existingItem.map(CartItem::getQuantity).orElse(0);
+        Integer availableStock = availableStock(product, newQuantity);
 
         if (availableStock < request.getQuantity()) {
             throw new InsufficientStockException("Insufficient stock. Available: " + availableStock);
         }
 
-        Optional<CartItem> existingItem = cart.getItems().stream()
-                .filter(item -> item.getProduct().getId().equals(product.getId()))
-                .findFirst();
-
         if (existingItem.isPresent()) {
             CartItem item = existingItem.get();
-            int newQuantity = item.getQuantity() + request.getQuantity();
 
             if (availableStock < newQuantity) {
                 throw new InsufficientStockException("Cannot add more. Max available: " + availableStock);
@@ -277,16 +310,11 @@ public class CartServiceImpl implements CartService {
             item.setQuantity(newQuantity);
             item.calculateTotalPrice();
         } else {
-            BigDecimal priceToUse = (product.getDiscountPrice() != null
-                    && product.getDiscountPrice().compareTo(BigDecimal.ZERO) > 0)
-                    ? product.getDiscountPrice()
-                    : product.getActualPrice(); // Assuming Product has getActualPrice helper
-
             CartItem newItem = CartItem.builder()
                     .cart(cart)
-                    .product(product)
+                    .product(productRepository.getReferenceById(product.productId()))
                     .quantity(request.getQuantity())
-                    .unitPrice(priceToUse)
+                    .unitPrice(product.actualPrice())
                     .build();
 
             newItem.calculateTotalPrice();
@@ -295,4 +323,15 @@ public class CartServiceImpl implements CartService {
 
         cart.recalculateTotals();
     }
+
+    /**
+     * The snapshot can lag writes made on other instances, so a shortfall is confirmed
+     * with InventoryService before it is reported
+     */
+    private int availableStock(ProductSnapshotCache.Snapshot product, int requiredQuantity) {
+        if (product.availableStock() >= requiredQuantity) {
+            return product.availableStock();
+        }
+        return inventoryService.getStock(product.productId());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Batches changes to categories.product_count.
+ * <p>
+ * Product writes record a delta per category once their transaction commits; a flush
+ * folds all pending deltas into one batched UPDATE per category, in id order, so bulk
+ * imports no longer serialize on the category row. Subtree rollups are derived from these
+ * counts in the {@link CategoryTree} snapshot, which reloads only the counts a flush changed. A nightly pass recounts from products to
+ * repair any deltas lost to a crash.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryCountAggregator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final String APPLY_SQL =
+            "UPDATE categories SET product_count = GREATEST(product_count + ?, 0) WHERE id = ?";
+
+    private static final String RECONCILE_SQL = "UPDATE categories c " +
+            "LEFT JOIN (SELECT category_id, COUNT(*) AS cnt FROM products GROUP BY category_id) p " +
+            "ON p.category_id = c.id " +
+            "SET c.product_count = COALESCE(p.cnt, 0) " +
+            "WHERE c.product_count <> COALESCE(p.cnt, 0)";
+
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Record a change in a category's product count, applied after the current transaction commits
+     */
+    public void add(Long categoryId, long delta) {
+        if (categoryId == null || delta == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accumulate(categoryId, delta);
+                }
+            });
+        } else {
+            accumulate(categoryId, delta);
+        }
+    }
+
+    private void accumulate(Long categoryId, long delta) {
+        pending.merge(categoryId, delta, Long::sum);
+    }
+
+    @Scheduled(fixedDelayString = "${app.category-tree.count-flush-interval-ms:2000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Sorted so concurrent flushers lock category rows in the same order. remove() takes the
+        // value atomically, so a delta merged after it starts a new entry for the next flush
+        Map<Long, Long> deltas = new TreeMap<>();
+        for (Long categoryId : pending.keySet()) {
+            Long delta = pending.remove(categoryId);
+            if (delta != null && delta != 0) {
+                deltas.put(categoryId, delta);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Long> categoryIds = new ArrayList<>(deltas.keySet());
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((categoryId, delta) -> args.add(new Object[]{delta, categoryId}));
+        int[] updated;
+        try {
+            updated = jdbcTemplate.batchUpdate(APPLY_SQL, args);
+        } catch (Exception e) {
+            log.warn("Failed to apply product count deltas, keeping them for the next flush: {}", e.getMessage());
+            deltas.forEach(this::accumulate);
+            return;
+        }
+
+        // A deleted category matches no row; everything else changed the snapshot
+        Set<Long> applied = new HashSet<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] != 0) {
+                applied.add(categoryIds.get(i));
+            }
+        }
+        if (!applied.isEmpty()) {
+            log.debug("Applied product count deltas to {} categories", applied.size());
+            eventPublisher.publishEvent(new CategoryTreeManager.CategoryCountsChanged(applied));
+        }
+    }
+
+    /**
+     * Recount every category from the products table
+     */
+    @Scheduled(cron = "${app.category-tree.count-reconcile-cron:0 50 3 * * ?}")
+    public void reconcile() {
+        flush();
+        int fixed = jdbcTemplate.update(RECONCILE_SQL);
+        if (fixed > 0) {
+            log.info("Reconciled product counts of {} categories", fixed);
+            eventPublisher.publishEvent(new CategoryTreeManager.CategoryTreeChanged(null));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
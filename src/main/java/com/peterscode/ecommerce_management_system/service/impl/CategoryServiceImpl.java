@@ -11,15 +11,23 @@ import com.peterscode.ecommerce_management_system.repository.CategoryRepository;
 import com.peterscode.ecommerce_management_system.service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
 import java.util.List;
-
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Category writes go to MySQL (and the closure table); every read is served from the
+ * in-memory {@link CategoryTree} snapshot held by {@link CategoryTreeManager}.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -27,10 +35,21 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final CategoryTreeManager categoryTreeManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final Map<String, Comparator<CategoryResponse>> SORTABLE = Map.of(
+            "id", Comparator.comparing(CategoryResponse::getId),
+            "name", Comparator.comparing(CategoryResponse::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)),
+            "slug", Comparator.comparing(CategoryResponse::getSlug, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)),
+            "displayOrder", Comparator.comparing(CategoryResponse::getDisplayOrder, Comparator.nullsFirst(Comparator.naturalOrder())),
+            "productCount", Comparator.comparing(CategoryResponse::getProductCount, Comparator.nullsFirst(Comparator.naturalOrder())),
+            "totalProductCount", Comparator.comparing(CategoryResponse::getTotalProductCount),
+            "createdAt", Comparator.comparing(CategoryResponse::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())),
+            "updatedAt", Comparator.comparing(CategoryResponse::getUpdatedAt, Comparator.nullsFirst(Comparator.naturalOrder())));
 
     @Override
     @Transactional
-    @CacheEvict(value = "categories", allEntries = true)
     public CategoryResponse createCategory(CategoryRequest request) {
         log.debug("Creating new category: {}", request.getName());
 
@@ -63,6 +82,8 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         Category savedCategory = categoryRepository.save(category);
+        categoryTreeManager.addNode(savedCategory.getId(), request.getParentId());
+        eventPublisher.publishEvent(new CategoryTreeManager.CategoryTreeChanged(savedCategory.getId()));
 
         log.info("Category created successfully: {} with ID: {}", savedCategory.getName(), savedCategory.getId());
         return categoryMapper.toResponse(savedCategory);
@@ -70,26 +91,26 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "categories", key = "#categoryId")
     public CategoryResponse getCategoryById(Long categoryId) {
         log.debug("Fetching category by ID: {}", categoryId);
 
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + categoryId));
-
-        return categoryMapper.toResponse(category);
+        CategoryResponse category = categoryTreeManager.tree().get(categoryId);
+        if (category == null) {
+            throw new ResourceNotFoundException("Category not found with id: " + categoryId);
+        }
+        return category;
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "categories", key = "#slug")
     public CategoryResponse getCategoryBySlug(String slug) {
         log.debug("Fetching category by slug: {}", slug);
 
-        Category category = categoryRepository.findBySlug(slug)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with slug: " + slug));
-
-        return categoryMapper.toResponse(category);
+        CategoryResponse category = categoryTreeManager.tree().getBySlug(slug);
+        if (category == null) {
+            throw new ResourceNotFoundException("Category not found with slug: " + slug);
+        }
+        return category;
     }
 
     @Override
@@ -97,96 +118,91 @@ public class CategoryServiceImpl implements CategoryService {
     public PageResponse<CategoryResponse> getAllCategories(Pageable pageable) {
         log.debug("Fetching all categories with pagination: {}", pageable);
 
-        Page<Category> categoryPage = categoryRepository.findAll(pageable);
-        List<CategoryResponse> categories = categoryMapper.toResponseList(categoryPage.getContent());
+        Comparator<CategoryResponse> comparator = comparatorFor(pageable.getSort());
+        if (comparator == null) {
+            // Sort property the snapshot does not know; let the database sort it
+            Page<Category> categoryPage = categoryRepository.findAll(pageable);
+            return PageResponse.of(
+                    categoryMapper.toResponseList(categoryPage.getContent()),
+                    categoryPage.getNumber(),
+                    categoryPage.getSize(),
+                    categoryPage.getTotalElements(),
+                    categoryPage.getTotalPages()
+            );
+        }
 
-        return PageResponse.of(
-                categories,
-                categoryPage.getNumber(),
-                categoryPage.getSize(),
-                categoryPage.getTotalElements(),
-                categoryPage.getTotalPages()
-        );
+        List<CategoryResponse> sorted = categoryTreeManager.tree().ordered().stream()
+                .sorted(comparator)
+                .toList();
+        return page(sorted, pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "categories", key = "'active'")
     public List<CategoryResponse> getActiveCategories() {
         log.debug("Fetching active categories");
 
-        List<Category> categories = categoryRepository.findActiveOrderedByDisplayOrder();
-        return categoryMapper.toResponseList(categories);
+        return active(categoryTreeManager.tree().ordered());
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "categories", key = "'parent'")
     public List<CategoryResponse> getParentCategories() {
         log.debug("Fetching parent categories");
 
-        List<Category> categories = categoryRepository.findParentCategories();
-        return categoryMapper.toResponseList(categories);
+        return categoryTreeManager.tree().roots();
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "categories", key = "'active-parent'")
     public List<CategoryResponse> getActiveParentCategories() {
         log.debug("Fetching active parent categories");
 
-        List<Category> categories = categoryRepository.findActiveParentCategories();
-        return categoryMapper.toResponseList(categories);
+        return active(categoryTreeManager.tree().roots());
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "categories", key = "'sub-' + #parentId")
     public List<CategoryResponse> getSubcategoriesByParentId(Long parentId) {
         log.debug("Fetching subcategories for parent: {}", parentId);
 
+        CategoryTree tree = categoryTreeManager.tree();
         // Verify parent exists
-        if (!categoryRepository.existsById(parentId)) {
+        if (tree.get(parentId) == null) {
             throw new ResourceNotFoundException("Parent category not found with id: " + parentId);
         }
 
-        List<Category> categories = categoryRepository.findSubcategoriesByParentId(parentId);
-        return categoryMapper.toResponseList(categories);
+        return tree.children(parentId);
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "categories", key = "'active-sub-' + #parentId")
     public List<CategoryResponse> getActiveSubcategoriesByParentId(Long parentId) {
         log.debug("Fetching active subcategories for parent: {}", parentId);
 
+        CategoryTree tree = categoryTreeManager.tree();
         // Verify parent exists
-        if (!categoryRepository.existsById(parentId)) {
+        if (tree.get(parentId) == null) {
             throw new ResourceNotFoundException("Parent category not found with id: " + parentId);
         }
 
-        List<Category> categories = categoryRepository.findActiveSubcategoriesByParentId(parentId);
-        return categoryMapper.toResponseList(categories);
+        return active(tree.children(parentId));
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "categories", key = "'ordered'")
     public List<CategoryResponse> getCategoriesOrdered() {
         log.debug("Fetching categories ordered by display order");
 
-        List<Category> categories = categoryRepository.findAllOrderedByDisplayOrder();
-        return categoryMapper.toResponseList(categories);
+        return categoryTreeManager.tree().ordered();
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "categories", key = "'active-ordered'")
     public List<CategoryResponse> getActiveCategoriesOrdered() {
         log.debug("Fetching active categories ordered by display order");
 
-        List<Category> categories = categoryRepository.findActiveOrderedByDisplayOrder();
-        return categoryMapper.toResponseList(categories);
+        return active(categoryTreeManager.tree().ordered());
     }
 
     @Override
@@ -194,16 +210,13 @@ public class CategoryServiceImpl implements CategoryService {
     public PageResponse<CategoryResponse> searchCategories(String keyword, Pageable pageable) {
         log.debug("Searching categories with keyword: {}", keyword);
 
-        Page<Category> categoryPage = categoryRepository.searchCategories(keyword, pageable);
-        List<CategoryResponse> categories = categoryMapper.toResponseList(categoryPage.getContent());
+        String needle = keyword.toLowerCase(Locale.ROOT);
+        Predicate<String> matches = value -> value != null && value.toLowerCase(Locale.ROOT).contains(needle);
 
-        return PageResponse.of(
-                categories,
-                categoryPage.getNumber(),
-                categoryPage.getSize(),
-                categoryPage.getTotalElements(),
-                categoryPage.getTotalPages()
-        );
+        List<CategoryResponse> results = categoryTreeManager.tree().ordered().stream()
+                .filter(category -> matches.test(category.getName()) || matches.test(category.getDescription()))
+                .toList();
+        return page(results, pageable);
     }
 
     @Override
@@ -211,21 +224,15 @@ public class CategoryServiceImpl implements CategoryService {
     public PageResponse<CategoryResponse> getCategoriesWithProducts(Pageable pageable) {
         log.debug("Fetching categories with products");
 
-        Page<Category> categoryPage = categoryRepository.findCategoriesWithProducts(pageable);
-        List<CategoryResponse> categories = categoryMapper.toResponseList(categoryPage.getContent());
-
-        return PageResponse.of(
-                categories,
-                categoryPage.getNumber(),
-                categoryPage.getSize(),
-                categoryPage.getTotalElements(),
-                categoryPage.getTotalPages()
-        );
+        List<CategoryResponse> results = categoryTreeManager.tree().ordered().stream()
+                .filter(category -> category.getProductCount() != null && category.getProductCount() > 0)
+                .sorted(Comparator.comparing(CategoryResponse::getProductCount).reversed())
+                .toList();
+        return page(results, pageable);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "categories", allEntries = true)
     public CategoryResponse updateCategory(Long categoryId, CategoryRequest request) {
         log.debug("Updating category: {}", categoryId);
 
@@ -240,11 +247,16 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         // Update parent if changed
-        if (request.getParentId() != null) {
+        Long currentParentId = category.getParent() != null ? category.getParent().getId() : null;
+        boolean parentChanged = request.getParentId() != null && !request.getParentId().equals(currentParentId);
+        if (parentChanged) {
             // Prevent circular reference
             if (request.getParentId().equals(categoryId)) {
                 throw new BadRequestException("Category cannot be its own parent");
             }
+            if (categoryTreeManager.isInSubtree(request.getParentId(), categoryId)) {
+                throw new BadRequestException("Category cannot be moved under its own subcategory");
+            }
 
             Category parent = categoryRepository.findById(request.getParentId())
                     .orElseThrow(() -> new ResourceNotFoundException("Parent category not found"));
@@ -253,6 +265,10 @@ public class CategoryServiceImpl implements CategoryService {
 
         categoryMapper.updateEntityFromRequest(request, category);
         Category updatedCategory = categoryRepository.save(category);
+        if (parentChanged) {
+            categoryTreeManager.moveSubtree(categoryId, request.getParentId());
+        }
+        eventPublisher.publishEvent(new CategoryTreeManager.CategoryTreeChanged(categoryId));
 
         log.info("Category updated successfully: {}", categoryId);
         return categoryMapper.toResponse(updatedCategory);
@@ -260,7 +276,6 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     @Transactional
-    @CacheEvict(value = "categories", allEntries = true)
     public void toggleCategoryStatus(Long categoryId, boolean isActive) {
         log.debug("Toggling category status: {} to {}", categoryId, isActive);
 
@@ -269,13 +284,13 @@ public class CategoryServiceImpl implements CategoryService {
 
         category.setIsActive(isActive);
         categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryTreeManager.CategoryTreeChanged(categoryId));
 
         log.info("Category status toggled: {} - active: {}", categoryId, isActive);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "categories", allEntries = true)
     public void deleteCategory(Long categoryId) {
         log.debug("Deleting category: {}", categoryId);
 
@@ -292,26 +307,28 @@ public class CategoryServiceImpl implements CategoryService {
             throw new BadRequestException("Cannot delete category with subcategories. Please delete subcategories first.");
         }
 
+        categoryTreeManager.removeNode(categoryId);
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(new CategoryTreeManager.CategoryTreeChanged(categoryId));
         log.info("Category deleted: {}", categoryId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public long getTotalCategoriesCount() {
-        return categoryRepository.count();
+        return categoryTreeManager.tree().size();
     }
 
     @Override
     @Transactional(readOnly = true)
     public long getActiveCategoriesCount() {
-        return categoryRepository.countByIsActiveTrue();
+        return active(categoryTreeManager.tree().ordered()).size();
     }
 
     @Override
     @Transactional(readOnly = true)
     public long getParentCategoriesCount() {
-        return categoryRepository.countByParentIsNull();
+        return categoryTreeManager.tree().roots().size();
     }
 
     @Override
@@ -325,4 +342,46 @@ public class CategoryServiceImpl implements CategoryService {
     public boolean nameExists(String name) {
         return categoryRepository.existsByName(name);
     }
-}
\ No newline at end of file
+
+    private static List<CategoryResponse> active(List<CategoryResponse> categories) {
+        return categories.stream()
+                .filter(category -> Boolean.TRUE.equals(category.getIsActive()))
+                .toList();
+    }
+
+    /**
+     * Comparator for the requested sort, or null if a property is not held in the snapshot
+     */
+    /**
+     * The order the database used before the snapshot: the requested columns (case-insensitive
+     * like the table collation, nulls first), then primary key; primary key when unsorted
+     */
+    private static Comparator<CategoryResponse> comparatorFor(Sort sort) {
+        Comparator<CategoryResponse> byId = SORTABLE.get("id");
+        if (sort.isUnsorted()) {
+            return byId;
+        }
+        Comparator<CategoryResponse> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<CategoryResponse> next = SORTABLE.get(order.getProperty());
+            if (next == null) {
+                return null;
+            }
+            next = order.isDescending() ? next.reversed() : next;
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator.thenComparing(byId);
+    }
+
+    private static PageResponse<CategoryResponse> page(List<CategoryResponse> categories, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return PageResponse.of(categories, 0, categories.size(), categories.size(), 1);
+        }
+        int size = pageable.getPageSize();
+        int from = (int) Math.min(pageable.getOffset(), categories.size());
+        int to = Math.min(from + size, categories.size());
+        int totalPages = (categories.size() + size - 1) / size;
+        return PageResponse.of(categories.subList(from, to), pageable.getPageNumber(), size,
+                categories.size(), totalPages);
+    }
+}
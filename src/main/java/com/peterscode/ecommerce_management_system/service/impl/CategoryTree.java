@@ -0,0 +1,286 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import com.peterscode.ecommerce_management_system.model.dto.response.CategoryResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the whole category tree.
+ * <p>
+ * Nodes are laid out in pre-order, so the subtree of a category is the contiguous range
+ * {@code [enter, exit)} of {@link #descendantIds}. Responses are built once per snapshot and
+ * shared between readers; a change produces a new snapshot rather than mutating this one.
+ */
+@Slf4j
+public final class CategoryTree {
+
+    static final Comparator<CategoryResponse> DISPLAY_ORDER = Comparator
+            .comparing((CategoryResponse c) -> c.getDisplayOrder() != null ? c.getDisplayOrder() : 0)
+            .thenComparing(CategoryResponse::getName, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final Map<Long, CategoryResponse> byId;
+    private final Map<String, CategoryResponse> bySlug;
+    private final Map<Long, List<CategoryResponse>> childrenByParent;
+    private final List<CategoryResponse> roots;
+    private final List<CategoryResponse> ordered;
+    private final long[] preorder;
+    private final Map<Long, int[]> ranges;
+    private final long version;
+    private final List<Row> rows;
+
+    /**
+     * Flat category row as loaded from the categories table
+     */
+    record Row(Long id, String name, String slug, String description, Long parentId, String imageUrl,
+               String icon, Integer displayOrder, Boolean isActive, Long productCount, String metaTitle,
+               String metaDescription, String metaKeywords, LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+        Row detached() {
+            return new Row(id, name, slug, description, null, imageUrl, icon, displayOrder, isActive, productCount,
+                    metaTitle, metaDescription, metaKeywords, createdAt, updatedAt);
+        }
+
+        Row withProductCount(Long count) {
+            return new Row(id, name, slug, description, parentId, imageUrl, icon, displayOrder, isActive, count,
+                    metaTitle, metaDescription, metaKeywords, createdAt, updatedAt);
+        }
+    }
+
+    private CategoryTree(Map<Long, CategoryResponse> byId, Map<String, CategoryResponse> bySlug,
+                         Map<Long, List<CategoryResponse>> childrenByParent, List<CategoryResponse> roots,
+                         List<CategoryResponse> ordered, long[] preorder, Map<Long, int[]> ranges, long version,
+                         List<Row> rows) {
+        this.byId = byId;
+        this.bySlug = bySlug;
+        this.childrenByParent = childrenByParent;
+        this.roots = roots;
+        this.ordered = ordered;
+        this.preorder = preorder;
+        this.ranges = ranges;
+        this.version = version;
+        this.rows = rows;
+    }
+
+    static CategoryTree build(List<Row> rows, long version) {
+        Map<Long, Row> rowsById = new HashMap<>(rows.size() * 2);
+        Map<Long, List<Row>> rowsByParent = new HashMap<>();
+        for (Row row : rows) {
+            rowsById.put(row.id(), row);
+            if (row.parentId() != null) {
+                rowsByParent.computeIfAbsent(row.parentId(), key -> new ArrayList<>()).add(row);
+            }
+        }
+
+        // Children first, so every response can hold its finished subcategory list
+        Map<Long, CategoryResponse> byId = new HashMap<>(rows.size() * 2);
+        List<Row> rootRows = new ArrayList<>();
+        for (Row row : rows) {
+            if (row.parentId() == null || !rowsById.containsKey(row.parentId())) {
+                rootRows.add(row);
+            }
+        }
+
+        List<Long> preorderIds = new ArrayList<>(rows.size());
+        Map<Long, int[]> ranges = new HashMap<>(rows.size() * 2);
+        for (Row root : rootRows) {
+            layout(root, rowsById, rowsByParent, byId, preorderIds, ranges);
+        }
+
+        // Whatever no root reached sits on a parent_id cycle: break each cycle at its lowest id
+        // and show that category as a root, so no category disappears from the snapshot
+        List<Row> unreached = rows.stream()
+                .filter(row -> !ranges.containsKey(row.id()))
+                .sorted(Comparator.comparing(Row::id))
+                .toList();
+        if (!unreached.isEmpty()) {
+            log.warn("Categories {} form a parent_id cycle; showing them under new roots",
+                    unreached.stream().map(Row::id).toList());
+        }
+        for (Row row : unreached) {
+            if (!ranges.containsKey(row.id())) {
+                Row root = row.detached();
+                rootRows.add(root);
+                layout(root, rowsById, rowsByParent, byId, preorderIds, ranges);
+            }
+        }
+
+        Map<String, CategoryResponse> bySlug = new HashMap<>(rows.size() * 2);
+        Map<Long, List<CategoryResponse>> childrenByParent = new HashMap<>();
+        for (CategoryResponse response : byId.values()) {
+            bySlug.put(response.getSlug(), response);
+            if (response.getSubcategories() != null && !response.getSubcategories().isEmpty()) {
+                childrenByParent.put(response.getId(), response.getSubcategories());
+            }
+        }
+
+        List<CategoryResponse> roots = new ArrayList<>();
+        for (Row root : rootRows) {
+            roots.add(byId.get(root.id()));
+        }
+        roots.sort(DISPLAY_ORDER);
+
+        List<CategoryResponse> ordered = new ArrayList<>(byId.values());
+        ordered.sort(DISPLAY_ORDER);
+
+        long[] preorder = new long[preorderIds.size()];
+        for (int i = 0; i < preorder.length; i++) {
+            preorder[i] = preorderIds.get(i);
+        }
+
+        return new CategoryTree(Collections.unmodifiableMap(byId), Collections.unmodifiableMap(bySlug),
+                Collections.unmodifiableMap(childrenByParent), Collections.unmodifiableList(roots),
+                Collections.unmodifiableList(ordered), preorder, ranges, version, List.copyOf(rows));
+    }
+
+    /**
+     * Same tree with new own product counts for some categories and the rollups redone, built
+     * from the rows this snapshot was loaded from rather than a fresh query
+     */
+    CategoryTree withProductCounts(Map<Long, Long> counts, long version) {
+        List<Row> updated = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Long count = counts.get(row.id());
+            updated.add(count != null ? row.withProductCount(count) : row);
+        }
+        return build(updated, version);
+    }
+
+    /**
+     * Iterative depth-first walk that assigns pre-order ranges and builds responses bottom-up
+     */
+    private static void layout(Row root, Map<Long, Row> rowsById, Map<Long, List<Row>> rowsByParent,
+                               Map<Long, CategoryResponse> byId, List<Long> preorderIds, Map<Long, int[]> ranges) {
+        record Frame(Row row, boolean exiting) {
+        }
+
+        List<Frame> stack = new ArrayList<>();
+        stack.add(new Frame(root, false));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.remove(stack.size() - 1);
+            Row row = frame.row();
+
+            if (!frame.exiting()) {
+                if (ranges.containsKey(row.id())) {
+                    continue; // the root that broke a parent_id cycle; visit each category once
+                }
+                ranges.put(row.id(), new int[]{preorderIds.size(), -1});
+                preorderIds.add(row.id());
+                stack.add(new Frame(row, true));
+                for (Row child : rowsByParent.getOrDefault(row.id(), List.of())) {
+                    stack.add(new Frame(child, false));
+                }
+                continue;
+            }
+
+            ranges.get(row.id())[1] = preorderIds.size();
+            List<CategoryResponse> children = new ArrayList<>();
+            for (Row child : rowsByParent.getOrDefault(row.id(), List.of())) {
+                CategoryResponse childResponse = byId.get(child.id());
+                if (childResponse != null) {
+                    children.add(childResponse);
+                }
+            }
+            children.sort(DISPLAY_ORDER);
+
+            // Rollup: own products plus every descendant's, children are already finished
+            long totalProductCount = row.productCount() != null ? row.productCount() : 0;
+            for (CategoryResponse child : children) {
+                totalProductCount += child.getTotalProductCount();
+            }
+
+            Row parent = row.parentId() != null ? rowsById.get(row.parentId()) : null;
+            byId.put(row.id(), CategoryResponse.builder()
+                    .id(row.id())
+                    .name(row.name())
+                    .slug(row.slug())
+                    .description(row.description())
+                    .parent(parent != null
+                            ? new CategoryResponse.ParentCategoryInfo(parent.id(), parent.name(), parent.slug())
+                            : null)
+                    .subcategories(Collections.unmodifiableList(children))
+                    .imageUrl(row.imageUrl())
+                    .icon(row.icon())
+                    .displayOrder(row.displayOrder())
+                    .isActive(row.isActive())
+                    .productCount(row.productCount())
+                    .totalProductCount(totalProductCount)
+                    .metaTitle(row.metaTitle())
+                    .metaDescription(row.metaDescription())
+                    .metaKeywords(row.metaKeywords())
+                    .createdAt(row.createdAt())
+                    .updatedAt(row.updatedAt())
+                    .build());
+        }
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public CategoryResponse get(Long id) {
+        return byId.get(id);
+    }
+
+    public CategoryResponse getBySlug(String slug) {
+        return bySlug.get(slug);
+    }
+
+    /**
+     * Every category, ordered by display order then name
+     */
+    public List<CategoryResponse> ordered() {
+        return ordered;
+    }
+
+    public List<CategoryResponse> roots() {
+        return roots;
+    }
+
+    public List<CategoryResponse> children(Long parentId) {
+        return childrenByParent.getOrDefault(parentId, List.of());
+    }
+
+    /**
+     * Products in the category and all of its descendants
+     */
+    public long subtreeProductCount(Long id) {
+        CategoryResponse category = byId.get(id);
+        return category != null ? category.getTotalProductCount() : 0;
+    }
+
+    /**
+     * The category and all of its descendants; empty if the category does not exist
+     */
+    public List<Long> descendantIds(Long id) {
+        int[] range = ranges.get(id);
+        if (range == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(range[1] - range[0]);
+        for (int i = range[0]; i < range[1]; i++) {
+            ids.add(preorder[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * True if {@code candidate} is {@code ancestor} itself or lies in its subtree
+     */
+    public boolean isInSubtree(Long candidate, Long ancestor) {
+        int[] ancestorRange = ranges.get(ancestor);
+        int[] candidateRange = ranges.get(candidate);
+        return ancestorRange != null && candidateRange != null
+                && candidateRange[0] >= ancestorRange[0] && candidateRange[0] < ancestorRange[1];
+    }
+}
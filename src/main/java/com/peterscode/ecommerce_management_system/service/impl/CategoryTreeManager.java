@@ -0,0 +1,227 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Owns the category_closure table (see V15 migration) and the in-memory {@link CategoryTree}.
+ * <p>
+ * Category writes update the closure rows in the same transaction and publish
+ * {@link CategoryTreeChanged}; after commit the snapshot is rebuilt from one query and swapped
+ * in atomically. Other instances notice changes through a cheap fingerprint query polled
+ * on a fixed delay. Reads are served from the snapshot; the closure table answers the one
+ * question that must not trust a possibly stale snapshot, whether a move would create a cycle.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryTreeManager {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private static final String SELECT_SQL = "SELECT id, name, slug, description, parent_id, image_url, icon, " +
+            "display_order, is_active, product_count, meta_title, meta_description, meta_keywords, created_at, updated_at " +
+            "FROM categories";
+
+    private static final String FINGERPRINT_SQL = "SELECT COUNT(*), COALESCE(SUM(product_count), 0), " +
+            "COALESCE(UNIX_TIMESTAMP(MAX(updated_at)) * 1000000, 0) FROM categories";
+
+    private final AtomicReference<CategoryTree> snapshot = new AtomicReference<>();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile String fingerprint = "";
+
+    /**
+     * Published by category writes; the snapshot is rebuilt after commit
+     */
+    public record CategoryTreeChanged(Long categoryId) {
+    }
+
+    /**
+     * Published when product_count deltas were applied; only those counts are reloaded
+     */
+    public record CategoryCountsChanged(Set<Long> categoryIds) {
+    }
+
+    /**
+     * Current snapshot, built on first use if the startup build has not run yet
+     */
+    public CategoryTree tree() {
+        CategoryTree tree = snapshot.get();
+        return tree != null ? tree : rebuild();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Gauge.builder("category.tree.size", snapshot, ref -> ref.get() != null ? ref.get().size() : 0)
+                .register(meterRegistry);
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryTreeChanged(CategoryTreeChanged event) {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryCountsChanged(CategoryCountsChanged event) {
+        refreshCounts(event.categoryIds());
+    }
+
+    @Scheduled(fixedDelayString = "${app.category-tree.poll-interval-ms:10000}",
+            initialDelayString = "${app.category-tree.poll-interval-ms:10000}")
+    public void pollForChanges() {
+        try {
+            if (!currentFingerprint().equals(fingerprint)) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.warn("Category tree change check failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Load every category and swap in a new snapshot
+     */
+    public CategoryTree rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.currentTimeMillis();
+            String newFingerprint = currentFingerprint();
+            List<CategoryTree.Row> rows = jdbcTemplate.query(SELECT_SQL, this::mapRow);
+            CategoryTree tree = CategoryTree.build(rows, start);
+            snapshot.set(tree);
+            fingerprint = newFingerprint;
+            log.debug("Category tree rebuilt with {} categories in {}ms", tree.size(), System.currentTimeMillis() - start);
+            return tree;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Reload the product counts of the given categories into a new snapshot, without reloading
+     * the rest of the tree
+     */
+    public void refreshCounts(Set<Long> categoryIds) {
+        rebuildLock.lock();
+        try {
+            CategoryTree tree = snapshot.get();
+            if (tree == null) {
+                return; // the first build reads the counts anyway
+            }
+            long start = System.currentTimeMillis();
+            String newFingerprint = currentFingerprint();
+            Map<Long, Long> counts = new HashMap<>(categoryIds.size() * 2);
+            namedParameterJdbcTemplate.query("SELECT id, product_count FROM categories WHERE id IN (:ids)",
+                    Map.of("ids", categoryIds),
+                    (RowCallbackHandler) rs -> counts.put(rs.getLong("id"), rs.getLong("product_count")));
+            snapshot.set(tree.withProductCounts(counts, start));
+            fingerprint = newFingerprint;
+            log.debug("Category tree counts refreshed for {} categories", counts.size());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // --- Closure reads and maintenance, called inside the category write transaction ---
+
+    /**
+     * True if {@code candidateId} is {@code ancestorId} itself or lies in its subtree. A locking
+     * read: it holds the path row, or the gap where it would go, so two concurrent moves cannot
+     * each pass the check and together form a cycle (one of them deadlocks and rolls back).
+     */
+    public boolean isInSubtree(Long candidateId, Long ancestorId) {
+        Integer paths = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM category_closure " +
+                "WHERE ancestor_id = ? AND descendant_id = ? FOR UPDATE", Integer.class, ancestorId, candidateId);
+        return paths != null && paths > 0;
+    }
+
+    /**
+     * Self path plus one path from each ancestor of the parent
+     */
+    public void addNode(Long categoryId, Long parentId) {
+        jdbcTemplate.update("INSERT INTO category_closure (ancestor_id, descendant_id, depth) VALUES (?, ?, 0)",
+                categoryId, categoryId);
+        if (parentId != null) {
+            jdbcTemplate.update("INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                    "SELECT ancestor_id, ?, depth + 1 FROM category_closure WHERE descendant_id = ?", categoryId, parentId);
+        }
+    }
+
+    /**
+     * Detach the subtree from its old ancestors and attach it below the new parent (null for a root)
+     */
+    public void moveSubtree(Long categoryId, Long newParentId) {
+        jdbcTemplate.update("DELETE a FROM category_closure a " +
+                "JOIN category_closure d ON d.descendant_id = a.descendant_id " +
+                "LEFT JOIN category_closure x ON x.ancestor_id = d.ancestor_id AND x.descendant_id = a.ancestor_id " +
+                "WHERE d.ancestor_id = ? AND x.ancestor_id IS NULL", categoryId);
+        if (newParentId != null) {
+            jdbcTemplate.update("INSERT INTO category_closure (ancestor_id, descendant_id, depth) " +
+                    "SELECT up.ancestor_id, down.descendant_id, up.depth + down.depth + 1 " +
+                    "FROM category_closure up JOIN category_closure down " +
+                    "WHERE up.descendant_id = ? AND down.ancestor_id = ?", newParentId, categoryId);
+        }
+    }
+
+    /**
+     * Remove a leaf category's paths
+     */
+    public void removeNode(Long categoryId) {
+        jdbcTemplate.update("DELETE FROM category_closure WHERE descendant_id = ?", categoryId);
+    }
+
+    private String currentFingerprint() {
+        return jdbcTemplate.queryForObject(FINGERPRINT_SQL,
+                (rs, rowNum) -> rs.getLong(1) + ":" + rs.getLong(2) + ":" + rs.getLong(3));
+    }
+
+    private CategoryTree.Row mapRow(ResultSet rs, int rowNum) throws SQLException {
+        long parentId = rs.getLong("parent_id");
+        boolean rootCategory = rs.wasNull();
+        long productCount = rs.getLong("product_count");
+        return new CategoryTree.Row(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("slug"),
+                rs.getString("description"),
+                rootCategory ? null : parentId,
+                rs.getString("image_url"),
+                rs.getString("icon"),
+                rs.getInt("display_order"),
+                rs.getBoolean("is_active"),
+                productCount,
+                rs.getString("meta_title"),
+                rs.getString("meta_description"),
+                rs.getString("meta_keywords"),
+                toDateTime(rs.getTimestamp("created_at")),
+                toDateTime(rs.getTimestamp("updated_at")));
+    }
+
+    private static LocalDateTime toDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,162 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs TTL cleanups in small transactions, one node at a time.
+ * <p>
+ * A {@link Job} selects the ids of the next chunk (named parameters {@code :cutoff} and
+ * {@code :limit}) oldest first off an expiry index, without locking, and lists the deletes to
+ * run for them in order (parameters {@code :ids} and {@code :cutoff}), e.g. child rows first.
+ * The deletes check the predicate again, and deleted rows leave the index, so each chunk starts
+ * from the oldest row left; a chunk that deletes nothing ends the run. Each chunk is its own
+ * transaction, followed by a pause. A {@link ClusterLeases} lease per job ({@code cleanup:{job}})
+ * elects the node that runs it and is renewed after every chunk. Progress is kept in the
+ * {@code cleanup:progress:{job}} hash, and {@code cleanup.rows}, {@code cleanup.duration}
+ * and {@code cleanup.runs} are published per job.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChunkedCleanupRunner {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ClusterLeases clusterLeases;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    private static final String LEASE_NAME = "cleanup:";
+    private static final String PROGRESS_KEY = "cleanup:progress:";
+
+    @Value("${app.cleanup.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.cleanup.pause-ms:100}")
+    private long pauseMs;
+
+    @Value("${app.cleanup.lease-ms:300000}")
+    private long leaseMs;
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * A cleanup: the select returns the ids of the next chunk, the deletes run for those ids in order
+     */
+    public record Job(String name, String selectSql, List<String> deleteSqls) {
+    }
+
+    public record Result(String job, boolean ran, long rows, long chunks) {
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Delete everything the job selects for the given cutoff, unless another node holds the job's lease
+     */
+    public Result run(Job job, LocalDateTime cutoff) {
+        Optional<ClusterLeases.Lease> acquired = clusterLeases.tryAcquire(LEASE_NAME + job.name(), leaseMs);
+        if (acquired.isEmpty()) {
+            log.debug("Cleanup '{}' is running on another node, skipping", job.name());
+            meterRegistry.counter("cleanup.runs", "job", job.name(), "outcome", "skipped").increment();
+            return new Result(job.name(), false, 0, 0);
+        }
+        ClusterLeases.Lease lease = acquired.get();
+
+        long start = System.nanoTime();
+        String progressKey = PROGRESS_KEY + job.name();
+        Timestamp cutoffTimestamp = Timestamp.valueOf(cutoff);
+        long rows = 0;
+        long chunks = 0;
+        String outcome = "completed";
+
+        stringRedisTemplate.opsForHash().putAll(progressKey, Map.of(
+                "status", "running",
+                "node", clusterLeases.getNodeName(),
+                "startedAt", String.valueOf(System.currentTimeMillis()),
+                "cutoff", cutoff.toString(),
+                "chunks", "0",
+                "rows", "0"));
+
+        try {
+            while (true) {
+                Long deleted = deleteChunk(job, cutoffTimestamp);
+                if (deleted == null) {
+                    break;
+                }
+                rows += deleted;
+                chunks++;
+                meterRegistry.counter("cleanup.rows", "job", job.name()).increment(deleted);
+                stringRedisTemplate.opsForHash().putAll(progressKey, Map.of(
+                        "chunks", String.valueOf(chunks),
+                        "rows", String.valueOf(rows)));
+
+                if (!clusterLeases.renew(lease)) {
+                    log.warn("Cleanup '{}' lost its lease after {} rows, stopping", job.name(), rows);
+                    outcome = "lease_lost";
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(pauseMs);
+            }
+            log.info("Cleanup '{}' removed {} rows in {} chunks (cutoff {})", job.name(), rows, chunks, cutoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "interrupted";
+        } catch (Exception e) {
+            log.error("Cleanup '{}' failed after {} rows: {}", job.name(), rows, e.getMessage(), e);
+            outcome = "failed";
+        } finally {
+            meterRegistry.timer("cleanup.duration", "job", job.name())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            meterRegistry.counter("cleanup.runs", "job", job.name(), "outcome", outcome).increment();
+            stringRedisTemplate.opsForHash().putAll(progressKey, Map.of(
+                    "status", outcome,
+                    "finishedAt", String.valueOf(System.currentTimeMillis())));
+            clusterLeases.release(lease);
+        }
+
+        return new Result(job.name(), true, rows, chunks);
+    }
+
+    /**
+     * One chunk in its own transaction; the rows deleted, or null when there is nothing left to delete
+     */
+    private Long deleteChunk(Job job, Timestamp cutoff) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = namedParameterJdbcTemplate.queryForList(job.selectSql(), new MapSqlParameterSource()
+                    .addValue("cutoff", cutoff)
+                    .addValue("limit", chunkSize), Long.class);
+            if (ids.isEmpty()) {
+                return null;
+            }
+
+            MapSqlParameterSource idParams = new MapSqlParameterSource("ids", ids).addValue("cutoff", cutoff);
+            long deleted = 0;
+            for (String deleteSql : job.deleteSqls()) {
+                deleted += namedParameterJdbcTemplate.update(deleteSql, idParams);
+            }
+            // Every selected row changed before its delete: stop instead of selecting them again
+            return deleted > 0 ? deleted : null;
+        });
+    }
+}
@@ -0,0 +1,119 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Redis leases that elect one node for a cluster-wide job (cleanups, rollups) or hand a node an
+ * exclusive slot (order number node ids).
+ * <p>
+ * A lease is a {@code lease:{name}} key set with NX and a TTL, holding a value unique to the
+ * holder; renew and release only act while the key still holds that value. With
+ * {@link #tryAcquire} and {@link #renew}, an unreachable Redis grants no lease, so the job is
+ * skipped rather than run on every node; {@link #acquire} and {@link #extend} throw instead, for
+ * holders that keep using a lease until its TTL runs out.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClusterLeases {
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private static final String LEASE_KEY = "lease:";
+
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  return redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  return redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    private String nodeName;
+
+    public record Lease(String name, String key, String owner, long ttlMs) {
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            nodeName = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            nodeName = "unknown";
+        }
+    }
+
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    /**
+     * Take the named lease for {@code ttlMs}; empty when another node holds it or Redis is unavailable
+     */
+    public Optional<Lease> tryAcquire(String name, long ttlMs) {
+        try {
+            return acquire(name, ttlMs);
+        } catch (Exception e) {
+            log.warn("Could not acquire lease '{}': {}", name, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Take the named lease for {@code ttlMs}; empty when another node holds it, throws when Redis is unavailable
+     */
+    public Optional<Lease> acquire(String name, long ttlMs) {
+        Lease lease = new Lease(name, LEASE_KEY + name, nodeName + ":" + UUID.randomUUID(), ttlMs);
+        Boolean acquired = stringRedisTemplate.opsForValue()
+                .setIfAbsent(lease.key(), lease.owner(), Duration.ofMillis(ttlMs));
+        return Boolean.TRUE.equals(acquired) ? Optional.of(lease) : Optional.empty();
+    }
+
+    /**
+     * Extend the lease by its TTL; false when it has expired, passed to another node or Redis is unavailable
+     */
+    public boolean renew(Lease lease) {
+        try {
+            return extend(lease);
+        } catch (Exception e) {
+            log.warn("Could not renew lease '{}': {}", lease.name(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Extend the lease by its TTL; false when it has expired or passed to another node, throws when Redis
+     * is unavailable
+     */
+    public boolean extend(Lease lease) {
+        Long renewed = stringRedisTemplate.execute(RENEW_SCRIPT, List.of(lease.key()),
+                lease.owner(), String.valueOf(lease.ttlMs()));
+        return renewed != null && renewed == 1;
+    }
+
+    public void release(Lease lease) {
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(lease.key()), lease.owner());
+        } catch (Exception e) {
+            // The lease expires on its own
+            log.warn("Could not release lease '{}': {}", lease.name(), e.getMessage());
+        }
+    }
+}
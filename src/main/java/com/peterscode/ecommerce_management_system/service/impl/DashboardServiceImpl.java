@@ -0,0 +1,60 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import com.peterscode.ecommerce_management_system.exception.BadRequestException;
+import com.peterscode.ecommerce_management_system.model.dto.response.DashboardResponse;
+import com.peterscode.ecommerce_management_system.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+@Service
+@RequiredArgsConstructor
+public class DashboardServiceImpl implements DashboardService {
+
+    private final DashboardSnapshot dashboardSnapshot;
+
+    @Value("${app.dashboard.max-days:366}")
+    private int maxDays;
+
+    @Override
+    public DashboardResponse getDashboard(int days) {
+        if (days < 0 || days > maxDays) {
+            throw new BadRequestException("Days must be between 0 and " + maxDays);
+        }
+        DashboardResponse.ProductTiles products = getProductTiles();
+        DashboardSnapshot.UserCounts users = dashboardSnapshot.userCounts();
+        DashboardSnapshot.OrderCounts orders = dashboardSnapshot.orderCounts(days);
+
+        return DashboardResponse.builder()
+                .snapshotAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(dashboardSnapshot.refreshedAt()),
+                        ZoneId.systemDefault()))
+                .products(products)
+                .users(DashboardResponse.UserTiles.builder()
+                        .total(users.total())
+                        .enabled(users.enabled())
+                        .byRole(users.byRole())
+                        .build())
+                .orders(DashboardResponse.OrderTiles.builder()
+                        .total(orders.total())
+                        .byStatus(orders.byStatus())
+                        .perDay(orders.perDay())
+                        .build())
+                .build();
+    }
+
+    @Override
+    public DashboardResponse.ProductTiles getProductTiles() {
+        DashboardSnapshot.ProductCounts products = dashboardSnapshot.productCounts();
+        return DashboardResponse.ProductTiles.builder()
+                .total(products.total())
+                .active(products.active())
+                .lowStock(products.lowStock())
+                .outOfStock(products.outOfStock())
+                .byCategory(products.byCategory())
+                .build();
+    }
+}
@@ -0,0 +1,423 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import com.peterscode.ecommerce_management_system.exception.ServiceUnavailableException;
+import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
+import com.peterscode.ecommerce_management_system.model.enums.Role;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Columnar in-memory copy of the columns admin dashboards count over: product status, category
+ * and stock level, user role and enabled flag, and order status and creation day.
+ * <p>
+ * Each table is a pair of primitive arrays indexed by row id (a flag byte and an int value), so
+ * every dashboard count is one branch-free pass over an array rather than a COUNT against the
+ * live table. Stock levels are classified when a row is loaded, so low and out-of-stock counts
+ * are flag masks too. Rows changed since the last pass ({@code updated_at} watermark, re-read
+ * with an overlap for late commits) are applied on a short fixed delay, products reported by
+ * {@link ProductSnapshotCache.ProductChanged} are reloaded on the same pass, and every table is
+ * rebuilt on a longer delay to drop deleted rows. Counts may trail writes by one refresh.
+ * <p>
+ * All maintenance runs on the scheduler, one pass at a time. A rebuild loads fresh tables
+ * while scans keep reading the current ones, then swaps them in through a single volatile
+ * reference. Until the first build completes (started at startup and retried on every
+ * refresh) scans fail with 503 rather than loading on a request thread.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardSnapshot {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private static final String PRODUCT_SQL = "SELECT id, is_active, category_id, stock_quantity, " +
+            "COALESCE(low_stock_threshold, 10) AS low_stock_threshold, updated_at FROM products";
+
+    private static final String USER_SQL = "SELECT id, role, is_enabled, updated_at FROM users";
+
+    private static final String ORDER_SQL = "SELECT id, status, created_at, updated_at FROM orders";
+
+    private static final String CHANGED_SINCE = " WHERE updated_at >= ?";
+
+    private static final String PRODUCTS_BY_ID = PRODUCT_SQL + " WHERE id IN (:ids)";
+
+    // Changed products reloaded per IN query
+    private static final int RELOAD_CHUNK_SIZE = 500;
+
+    // Flag bits; orders store their status code (ordinal + 1) in the flag byte instead
+    private static final int PRESENT = 1;
+    private static final int ACTIVE = 2;
+    private static final int ENABLED = 2;
+    private static final int LOW_STOCK = 4;
+    private static final int OUT_OF_STOCK = 8;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final Role[] ROLES = Role.values();
+
+    @Value("${app.dashboard.max-product-id:4000000}")
+    private int maxProductId;
+
+    @Value("${app.dashboard.max-user-id:20000000}")
+    private int maxUserId;
+
+    @Value("${app.dashboard.max-order-id:50000000}")
+    private int maxOrderId;
+
+    @Value("${app.dashboard.change-overlap-seconds:30}")
+    private long overlapSeconds;
+
+    private final Set<Long> changedProducts = ConcurrentHashMap.newKeySet();
+
+    private volatile Tables tables;
+
+    // Held by the maintenance pass in progress; never taken by scans
+    private final ReentrantLock maintenance = new ReentrantLock();
+
+    // Written after every batch of in-place updates; scans read it first so they see the batch
+    private volatile long refreshedAt;
+
+    private JdbcTemplate streamingTemplate;
+
+    public record ProductCounts(long total, long active, long lowStock, long outOfStock, Map<Long, Long> byCategory) {
+    }
+
+    public record UserCounts(long total, long enabled, Map<Role, Long> byRole) {
+    }
+
+    public record OrderCounts(long total, Map<OrderStatus, Long> byStatus, Map<LocalDate, Long> perDay) {
+    }
+
+    private record Tables(Store products, Store users, Store orders) {
+    }
+
+    @PostConstruct
+    void init() {
+        // Full rebuilds stream rows instead of materialising whole tables in the driver
+        streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    // --- Scans ---
+
+    public ProductCounts productCounts() {
+        Columns columns = ready().products().columns;
+        byte[] flags = columns.flags();
+        int[] categories = columns.values();
+
+        int maxCategory = 0;
+        for (int i = 0; i < flags.length; i++) {
+            maxCategory = Math.max(maxCategory, categories[i]);
+        }
+        long[] perCategory = new long[maxCategory + 1];
+        for (int i = 0; i < flags.length; i++) {
+            perCategory[categories[i]] += flags[i] & PRESENT;
+        }
+        Map<Long, Long> byCategory = new LinkedHashMap<>();
+        for (int category = 1; category < perCategory.length; category++) {
+            if (perCategory[category] > 0) {
+                byCategory.put((long) category, perCategory[category]);
+            }
+        }
+
+        return new ProductCounts(
+                countMatching(flags, PRESENT),
+                countMatching(flags, PRESENT | ACTIVE),
+                countMatching(flags, PRESENT | ACTIVE | LOW_STOCK),
+                countMatching(flags, PRESENT | ACTIVE | OUT_OF_STOCK),
+                byCategory);
+    }
+
+    public UserCounts userCounts() {
+        Columns columns = ready().users().columns;
+        byte[] flags = columns.flags();
+        int[] roles = columns.values();
+
+        long[] perRole = new long[ROLES.length];
+        for (int i = 0; i < flags.length; i++) {
+            perRole[roles[i]] += flags[i] & PRESENT;
+        }
+        Map<Role, Long> byRole = new LinkedHashMap<>();
+        for (Role role : ROLES) {
+            byRole.put(role, perRole[role.ordinal()]);
+        }
+        return new UserCounts(countMatching(flags, PRESENT), countMatching(flags, PRESENT | ENABLED), byRole);
+    }
+
+    /**
+     * Order counts per status, and per creation day for the {@code days} days ending today
+     */
+    public OrderCounts orderCounts(int days) {
+        Columns columns = ready().orders().columns;
+        byte[] statuses = columns.flags();
+        int[] createdDays = columns.values();
+
+        long[] perStatus = new long[STATUSES.length + 1];
+        for (byte status : statuses) {
+            perStatus[status]++;
+        }
+
+        LocalDate firstDay = LocalDate.now().minusDays(Math.max(days - 1, 0));
+        int first = (int) firstDay.toEpochDay();
+        long[] perDay = new long[Math.max(days, 0)];
+        if (days > 0) {
+            for (int i = 0; i < statuses.length; i++) {
+                int day = createdDays[i] - first;
+                if (statuses[i] != 0 && Integer.compareUnsigned(day, days) < 0) {
+                    perDay[day]++;
+                }
+            }
+        }
+
+        Map<OrderStatus, Long> byStatus = new LinkedHashMap<>();
+        long total = 0;
+        for (OrderStatus status : STATUSES) {
+            long count = perStatus[status.ordinal() + 1];
+            byStatus.put(status, count);
+            total += count;
+        }
+        Map<LocalDate, Long> byDay = new LinkedHashMap<>();
+        for (int day = 0; day < perDay.length; day++) {
+            byDay.put(firstDay.plusDays(day), perDay[day]);
+        }
+        return new OrderCounts(total, byStatus, byDay);
+    }
+
+    public long refreshedAt() {
+        return refreshedAt;
+    }
+
+    private static long countMatching(byte[] flags, int mask) {
+        long count = 0;
+        for (byte flag : flags) {
+            count += (flag & mask) == mask ? 1 : 0;
+        }
+        return count;
+    }
+
+    private Tables ready() {
+        Tables current = tables;
+        if (current == null) {
+            throw new ServiceUnavailableException("Dashboard snapshot is still loading, please retry shortly");
+        }
+        return current;
+    }
+
+    // --- Maintenance ---
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductSnapshotCache.ProductChanged event) {
+        if (event.productId() != null) {
+            changedProducts.add(event.productId());
+        }
+    }
+
+    /**
+     * Apply rows changed since the last pass, or build the snapshot if no build has succeeded yet.
+     * Skipped while a rebuild is running.
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.refresh-interval-ms:5000}")
+    public void refreshChanged() {
+        if (!maintenance.tryLock()) {
+            return;
+        }
+        try {
+            Tables current = tables;
+            if (current == null) {
+                rebuild();
+                return;
+            }
+            applyChanges(current.products(), PRODUCT_SQL, this::loadProduct);
+            applyChanges(current.users(), USER_SQL, this::loadUser);
+            applyChanges(current.orders(), ORDER_SQL, this::loadOrder);
+            reloadChangedProducts(current.products());
+            refreshedAt = System.currentTimeMillis();
+        } catch (RuntimeException e) {
+            log.warn("Dashboard snapshot refresh failed: {}", e.getMessage());
+        } finally {
+            maintenance.unlock();
+        }
+    }
+
+    /**
+     * Reload every table and swap them in; also drops rows that were deleted. Scans keep
+     * reading the previous tables until the swap.
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.full-refresh-interval-ms:600000}")
+    public void rebuild() {
+        maintenance.lock();
+        long start = System.currentTimeMillis();
+        try {
+            Tables fresh = new Tables(
+                    load(new Store("products", maxProductId), PRODUCT_SQL, this::loadProduct),
+                    load(new Store("users", maxUserId), USER_SQL, this::loadUser),
+                    load(new Store("orders", maxOrderId), ORDER_SQL, this::loadOrder));
+            tables = fresh;
+            refreshedAt = System.currentTimeMillis();
+            log.debug("Dashboard snapshot rebuilt: {} products, {} users, {} orders in {}ms",
+                    fresh.products().size, fresh.users().size, fresh.orders().size,
+                    System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("Dashboard snapshot rebuild failed: {}", e.getMessage());
+        } finally {
+            maintenance.unlock();
+        }
+    }
+
+    private interface RowLoader {
+        void load(Store store, ResultSet rs) throws SQLException;
+    }
+
+    private Store load(Store store, String sql, RowLoader loader) {
+        streamingTemplate.query(sql, (RowCallbackHandler) rs -> {
+            loader.load(store, rs);
+            store.advanceWatermark(rs.getTimestamp("updated_at"));
+        });
+        return store;
+    }
+
+    private void applyChanges(Store store, String sql, RowLoader loader) {
+        Timestamp since = store.watermark != null
+                ? new Timestamp(store.watermark.getTime() - overlapSeconds * 1000)
+                : new Timestamp(0);
+        jdbcTemplate.query(sql + CHANGED_SINCE, (RowCallbackHandler) rs -> {
+            loader.load(store, rs);
+            store.advanceWatermark(rs.getTimestamp("updated_at"));
+        }, since);
+    }
+
+    private void reloadChangedProducts(Store products) {
+        List<Long> chunk = new ArrayList<>(RELOAD_CHUNK_SIZE);
+        for (Long productId : changedProducts) {
+            // Removed before the reload, so a change reported meanwhile is reloaded on the next pass
+            changedProducts.remove(productId);
+            chunk.add(productId);
+            if (chunk.size() == RELOAD_CHUNK_SIZE) {
+                reloadProducts(products, chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            reloadProducts(products, chunk);
+        }
+    }
+
+    /**
+     * Reload the given products in one query; ids that no longer exist are cleared
+     */
+    private void reloadProducts(Store products, List<Long> productIds) {
+        Set<Long> missing = new HashSet<>(productIds);
+        namedParameterJdbcTemplate.query(PRODUCTS_BY_ID, Map.of("ids", productIds), (RowCallbackHandler) rs -> {
+            loadProduct(products, rs);
+            missing.remove(rs.getLong("id"));
+        });
+        missing.forEach(products::clear);
+    }
+
+    private void loadProduct(Store store, ResultSet rs) throws SQLException {
+        boolean active = rs.getBoolean("is_active");
+        int stock = rs.getInt("stock_quantity");
+        int flags = PRESENT
+                | (active ? ACTIVE : 0)
+                | (stock == 0 ? OUT_OF_STOCK : 0)
+                | (stock > 0 && stock <= rs.getInt("low_stock_threshold") ? LOW_STOCK : 0);
+        store.put(rs.getLong("id"), flags, (int) rs.getLong("category_id"));
+    }
+
+    private void loadUser(Store store, ResultSet rs) throws SQLException {
+        Role role = Role.valueOf(rs.getString("role"));
+        store.put(rs.getLong("id"), PRESENT | (rs.getBoolean("is_enabled") ? ENABLED : 0), role.ordinal());
+    }
+
+    private void loadOrder(Store store, ResultSet rs) throws SQLException {
+        OrderStatus status = OrderStatus.valueOf(rs.getString("status"));
+        int createdDay = (int) rs.getTimestamp("created_at").toLocalDateTime().toLocalDate().toEpochDay();
+        store.put(rs.getLong("id"), status.ordinal() + 1, createdDay);
+    }
+
+    /**
+     * One table's columns, indexed by row id and grown to the next power of two above the highest
+     * id; mutated only under the maintenance lock
+     */
+    private static final class Store {
+        private final String table;
+        private final int maxId;
+        private volatile Columns columns = new Columns(INITIAL_CAPACITY);
+        private Timestamp watermark;
+        private int size;
+        private boolean overflowLogged;
+
+        private Store(String table, int maxId) {
+            this.table = table;
+            this.maxId = maxId;
+        }
+
+        private void put(long id, int flags, int value) {
+            if (id < 0 || id > maxId) {
+                if (!overflowLogged) {
+                    log.warn("Dashboard snapshot skips {} ids above {}; raise app.dashboard.max-*-id", table, maxId);
+                    overflowLogged = true;
+                }
+                return;
+            }
+            int slot = (int) id;
+            Columns current = columns;
+            if (slot >= current.flags().length) {
+                int capacity = Math.min(Math.max(Integer.highestOneBit(slot) << 1, INITIAL_CAPACITY), maxId + 1);
+                current = new Columns(Arrays.copyOf(current.flags(), capacity), Arrays.copyOf(current.values(), capacity));
+                columns = current;
+            }
+            if (current.flags()[slot] == 0) {
+                size++;
+            }
+            current.values()[slot] = value;
+            current.flags()[slot] = (byte) flags;
+        }
+
+        private void clear(long id) {
+            Columns current = columns;
+            if (id < 0 || id >= current.flags().length || current.flags()[(int) id] == 0) {
+                return;
+            }
+            current.flags()[(int) id] = 0;
+            current.values()[(int) id] = 0;
+            size--;
+        }
+
+        private void advanceWatermark(Timestamp updatedAt) {
+            if (updatedAt != null && (watermark == null || updatedAt.after(watermark))) {
+                watermark = updatedAt;
+            }
+        }
+    }
+
+    private record Columns(byte[] flags, int[] values) {
+
+        private Columns(int capacity) {
+            this(new byte[capacity], new int[capacity]);
+        }
+    }
+}
@@ -1,35 +1,83 @@
 package com.peterscode.ecommerce_management_system.service.impl;
 
 import com.peterscode.ecommerce_management_system.service.EmailService;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailServiceImpl implements EmailService {
 
-    private final JavaMailSender mailSender;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final MailDispatcher mailDispatcher;
 
     @Value("${app.frontend.url:http://localhost:8080}")
     private String frontendUrl;
 
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm:ss");
 
-    @Async
+    private static final String LOGIN_ALERT = "LOGIN_ALERT";
+
+    // Templates are parsed once; rendering only fills the placeholders
+    private static final EmailTemplate ACTION_TEMPLATE = EmailTemplate.compile(
+            "<!DOCTYPE html>" +
+            "<html><head><meta charset='UTF-8'></head>" +
+            "<body style='font-family: Arial, sans-serif; margin: 0; padding: 0; background-color: #f4f4f4;'>" +
+            "<div style='max-width: 600px; margin: 20px auto; background: white; border-radius: 8px; overflow: hidden; box-shadow: 0 2px 4px rgba(0,0,0,0.1);'>" +
+            "<div style='background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); padding: 30px; text-align: center;'>" +
+            "<h1 style='color: white; margin: 0; font-size: 28px;'>E-commerce Platform</h1>" +
+            "</div>" +
+            "<div style='padding: 40px 30px;'>" +
+            "<h2 style='color: #333; margin-top: 0;'>Hello {{username}},</h2>" +
+            "<h3 style='color: #555; font-weight: normal;'>{{title}}</h3>" +
+            "<p style='color: #666; line-height: 1.6; font-size: 16px;'>{{subtitle}}</p>" +
+            "<p style='color: #666; line-height: 1.6; font-size: 16px;'>{{message}}</p>" +
+            "<div style='text-align: center; margin: 30px 0;'>" +
+            "<a href='{{actionUrl}}' style='display: inline-block; padding: 14px 40px; background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); color: white; text-decoration: none; border-radius: 6px; font-weight: bold; font-size: 16px;'>{{actionText}}</a>" +
+            "</div>" +
+            "<p style='color: #999; font-size: 14px; margin-top: 30px;'>If the button doesn't work, copy and paste this link into your browser:</p>" +
+            "<p style='color: #667eea; font-size: 14px; word-break: break-all;'>{{actionUrl}}</p>" +
+            "</div>" +
+            "<div style='background: #f8f8f8; padding: 20px; text-align: center; border-top: 1px solid #eee;'>" +
+            "<p style='color: #999; font-size: 12px; margin: 0;'>© 2026 E-commerce Platform. All rights reserved.</p>" +
+            "<p style='color: #999; font-size: 12px; margin: 10px 0 0 0;'>This is an automated message, please do not reply.</p>" +
+            "</div>" +
+            "</div>" +
+            "</body></html>");
+
+    private static final EmailTemplate NOTIFICATION_TEMPLATE = EmailTemplate.compile(
+            "<!DOCTYPE html>" +
+            "<html><head><meta charset='UTF-8'></head>" +
+            "<body style='font-family: Arial, sans-serif; margin: 0; padding: 0; background-color: #f4f4f4;'>" +
+            "<div style='max-width: 600px; margin: 20px auto; background: white; border-radius: 8px; overflow: hidden; box-shadow: 0 2px 4px rgba(0,0,0,0.1);'>" +
+            "<div style='background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); padding: 30px; text-align: center;'>" +
+            "<h1 style='color: white; margin: 0; font-size: 28px;'>E-commerce Platform</h1>" +
+            "</div>" +
+            "<div style='padding: 40px 30px;'>" +
+            "<h2 style='color: #333; margin-top: 0;'>Hello {{username}},</h2>" +
+            "<h3 style='color: #555; font-weight: normal;'>{{title}}</h3>" +
+            "<p style='color: #666; line-height: 1.6; font-size: 16px;'>{{subtitle}}</p>" +
+            "<div style='background: #f8f8f8; padding: 20px; border-radius: 6px; margin: 20px 0;'>" +
+            "<h4 style='margin-top: 0; color: #333;'>{{detailsTitle}}</h4>" +
+            "<p style='color: #666; line-height: 1.6; margin: 0;'>{{details}}</p>" +
+            "</div>" +
+            "<p style='color: #666; line-height: 1.6; font-size: 14px; margin-top: 20px;'>{{footer}}</p>" +
+            "</div>" +
+            "<div style='background: #f8f8f8; padding: 20px; text-align: center; border-top: 1px solid #eee;'>" +
+            "<p style='color: #999; font-size: 12px; margin: 0;'>© 2026 E-commerce Platform. All rights reserved.</p>" +
+            "</div>" +
+            "</div>" +
+            "</body></html>");
+
     @Override
     public void sendVerificationEmail(String to, String username, String token) {
         try {
@@ -46,15 +94,14 @@ public class EmailServiceImpl implements EmailService {
                     "Verify Email Address"
             );
 
-            sendHtmlEmail(to, subject, body);
-            log.info("Verification email sent to: {}", to);
+            mailDispatcher.send("verify:" + token, to, subject, body);
+            log.info("Verification email queued for: {}", to);
 
         } catch (Exception e) {
             log.error("Failed to send verification email to: {}", to, e);
         }
     }
 
-    @Async
     @Override
     public void sendPasswordResetEmail(String to, String username, String token) {
         try {
@@ -70,15 +117,14 @@ public class EmailServiceImpl implements EmailService {
                     "Reset Password"
             );
 
-            sendHtmlEmail(to, subject, body);
-            log.info("Password reset email sent to: {}", to);
+            mailDispatcher.send("reset:" + token, to, subject, body);
+            log.info("Password reset email queued for: {}", to);
 
         } catch (Exception e) {
             log.error("Failed to send password reset email to: {}", to, e);
         }
     }
 
-    @Async
     @Override
     public void sendWelcomeEmail(String to, String username) {
         try {
@@ -92,19 +138,36 @@ public class EmailServiceImpl implements EmailService {
                     "Start Shopping"
             );
 
-            sendHtmlEmail(to, subject, body);
-            log.info("Welcome email sent to: {}", to);
+            mailDispatcher.send("welcome:" + to, to, subject, body);
+            log.info("Welcome email queued for: {}", to);
 
         } catch (Exception e) {
             log.error("Failed to send welcome email to: {}", to, e);
         }
     }
 
-    @Async
+    @PostConstruct
+    public void registerDigests() {
+        mailDispatcher.registerDigest(LOGIN_ALERT, (to, entries) -> new MailDispatcher.RenderedEmail(
+                entries.size() + " More Login(s) to Your Account - E-commerce Platform",
+                buildNotificationTemplate(
+                        entries.get(entries.size() - 1).recipientName(),
+                        "Multiple Logins Detected",
+                        "We detected " + entries.size() + " more login(s) to your account since our last alert.",
+                        "Login Details:",
+                        entries.stream()
+                                .map(MailDispatcher.DigestEntry::detail)
+                                .collect(Collectors.joining("<br><br>")),
+                        "If you don't recognize this activity, please reset your password immediately."
+                )));
+    }
+
     @Override
     public void sendLoginNotification(String to, String username, String ipAddress) {
         try {
             String loginTime = LocalDateTime.now().format(formatter);
+            String details = "Time: " + loginTime + "<br>" +
+                    "IP Address: " + ipAddress; // Removed undefined 'location'
 
             String subject = "New Login to Your Account - E-commerce Platform";
             String body = buildNotificationTemplate(
@@ -112,20 +175,20 @@ public class EmailServiceImpl implements EmailService {
                     "New Login Detected",
                     "We detected a new login to your account. If this was you, you can safely ignore this email.",
                     "Login Details:",
-                    "Time: " + loginTime + "<br>" +
-                            "IP Address: " + ipAddress, // Removed undefined 'location'
+                    details,
                     "If you don't recognize this activity, please reset your password immediately."
             );
 
-            sendHtmlEmail(to, subject, body);
-            log.info("Login notification sent to: {}", to);
+            // Bursts of logins for the same recipient are folded into one digest
+            mailDispatcher.sendCoalesced(LOGIN_ALERT, to, subject, body,
+                    new MailDispatcher.DigestEntry(username, details));
+            log.info("Login notification queued for: {}", to);
 
         } catch (Exception e) {
             log.error("Failed to send login notification to: {}", to, e);
         }
     }
 
-    @Async
     @Override
     public void sendPasswordChangeNotification(String to, String username) {
         try {
@@ -141,15 +204,14 @@ public class EmailServiceImpl implements EmailService {
                     "If you didn't make this change, please contact our support team immediately."
             );
 
-            sendHtmlEmail(to, subject, body);
-            log.info("Password change notification sent to: {}", to);
+            mailDispatcher.send(to, subject, body);
+            log.info("Password change notification queued for: {}", to);
 
         } catch (Exception e) {
             log.error("Failed to send password change notification to: {}", to, e);
         }
     }
 
-    @Async
     @Override
     public void sendAccountLockedNotification(String to, String username, String reason) {
         try {
@@ -166,15 +228,14 @@ public class EmailServiceImpl implements EmailService {
                     "Your account will be automatically unlocked in 30 minutes. If you need immediate assistance, please contact support."
             );
 
-            sendHtmlEmail(to, subject, body);
-            log.info("Account locked notification sent to: {}", to);
+            mailDispatcher.send(to, subject, body);
+            log.info("Account locked notification queued for: {}", to);
 
         } catch (Exception e) {
             log.error("Failed to send account locked notification to: {}", to, e);
         }
     }
 
-    @Async
     @Override
     public void sendTwoFactorCode(String to, String code, String username) {
         try {
@@ -188,8 +249,8 @@ public class EmailServiceImpl implements EmailService {
                     "This code will expire in 10 minutes. If you didn't request this code, please contact support immediately."
             );
 
-            sendHtmlEmail(to, subject, body);
-            log.info("Two-factor code sent to: {}", to);
+            mailDispatcher.send(to, subject, body);
+            log.info("Two-factor code queued for: {}", to);
 
         } catch (Exception e) {
             log.error("Failed to send two-factor code to: {}", to, e);
@@ -221,71 +282,33 @@ public class EmailServiceImpl implements EmailService {
         return isValid;
     }
 
-    private void sendHtmlEmail(String to, String subject, String htmlBody) throws MessagingException {
-        MimeMessage message = mailSender.createMimeMessage();
-        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-        helper.setFrom(fromEmail);
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(htmlBody, true);
-
-        mailSender.send(message);
-    }
-
     private String buildEmailTemplate(String username, String title, String subtitle,
                                       String message, String actionUrl, String actionText) {
-        return "<!DOCTYPE html>" +
-                "<html><head><meta charset='UTF-8'></head>" +
-                "<body style='font-family: Arial, sans-serif; margin: 0; padding: 0; background-color: #f4f4f4;'>" +
-                "<div style='max-width: 600px; margin: 20px auto; background: white; border-radius: 8px; overflow: hidden; box-shadow: 0 2px 4px rgba(0,0,0,0.1);'>" +
-                "<div style='background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); padding: 30px; text-align: center;'>" +
-                "<h1 style='color: white; margin: 0; font-size: 28px;'>E-commerce Platform</h1>" +
-                "</div>" +
-                "<div style='padding: 40px 30px;'>" +
-                "<h2 style='color: #333; margin-top: 0;'>Hello " + username + ",</h2>" +
-                "<h3 style='color: #555; font-weight: normal;'>" + title + "</h3>" +
-                "<p style='color: #666; line-height: 1.6; font-size: 16px;'>" + subtitle + "</p>" +
-                "<p style='color: #666; line-height: 1.6; font-size: 16px;'>" + message + "</p>" +
-                "<div style='text-align: center; margin: 30px 0;'>" +
-                "<a href='" + actionUrl + "' style='display: inline-block; padding: 14px 40px; background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); color: white; text-decoration: none; border-radius: 6px; font-weight: bold; font-size: 16px;'>" +
-                actionText +
-                "</a>" +
-                "</div>" +
-                "<p style='color: #999; font-size: 14px; margin-top: 30px;'>If the button doesn't work, copy and paste this link into your browser:</p>" +
-                "<p style='color: #667eea; font-size: 14px; word-break: break-all;'>" + actionUrl + "</p>" +
-                "</div>" +
-                "<div style='background: #f8f8f8; padding: 20px; text-align: center; border-top: 1px solid #eee;'>" +
-                "<p style='color: #999; font-size: 12px; margin: 0;'>© 2026 E-commerce Platform. All rights reserved.</p>" +
-                "<p style='color: #999; font-size: 12px; margin: 10px 0 0 0;'>This is an automated message, please do not reply.</p>" +
-                "</div>" +
-                "</div>" +
-                "</body></html>";
+        return ACTION_TEMPLATE.render(values(
+                "username", username,
+                "title", title,
+                "subtitle", subtitle,
+                "message", message,
+                "actionUrl", actionUrl,
+                "actionText", actionText));
     }
 
     private String buildNotificationTemplate(String username, String title, String subtitle,
                                              String detailsTitle, String details, String footer) {
-        return "<!DOCTYPE html>" +
-                "<html><head><meta charset='UTF-8'></head>" +
-                "<body style='font-family: Arial, sans-serif; margin: 0; padding: 0; background-color: #f4f4f4;'>" +
-                "<div style='max-width: 600px; margin: 20px auto; background: white; border-radius: 8px; overflow: hidden; box-shadow: 0 2px 4px rgba(0,0,0,0.1);'>" +
-                "<div style='background: linear-gradient(135deg, #667eea 0%, #764ba2 100%); padding: 30px; text-align: center;'>" +
-                "<h1 style='color: white; margin: 0; font-size: 28px;'>E-commerce Platform</h1>" +
-                "</div>" +
-                "<div style='padding: 40px 30px;'>" +
-                "<h2 style='color: #333; margin-top: 0;'>Hello " + username + ",</h2>" +
-                "<h3 style='color: #555; font-weight: normal;'>" + title + "</h3>" +
-                "<p style='color: #666; line-height: 1.6; font-size: 16px;'>" + subtitle + "</p>" +
-                "<div style='background: #f8f8f8; padding: 20px; border-radius: 6px; margin: 20px 0;'>" +
-                "<h4 style='margin-top: 0; color: #333;'>" + detailsTitle + "</h4>" +
-                "<p style='color: #666; line-height: 1.6; margin: 0;'>" + details + "</p>" +
-                "</div>" +
-                "<p style='color: #666; line-height: 1.6; font-size: 14px; margin-top: 20px;'>" + footer + "</p>" +
-                "</div>" +
-                "<div style='background: #f8f8f8; padding: 20px; text-align: center; border-top: 1px solid #eee;'>" +
-                "<p style='color: #999; font-size: 12px; margin: 0;'>© 2026 E-commerce Platform. All rights reserved.</p>" +
-                "</div>" +
-                "</div>" +
-                "</body></html>";
+        return NOTIFICATION_TEMPLATE.render(values(
+                "username", username,
+                "title", title,
+                "subtitle", subtitle,
+                "detailsTitle", detailsTitle,
+                "details", details,
+                "footer", footer));
+    }
+
+    private static Map<String, String> values(String... keysAndValues) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            values.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return values;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTML template split once into literal segments and {@code {{placeholder}}} slots.
+ * Rendering is a single pass over the segments into a pre-sized buffer.
+ */
+final class EmailTemplate {
+
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int literalLength;
+
+    private EmailTemplate(String[] literals, String[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    static EmailTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf("}}", open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at index " + open);
+            }
+            literals.add(source.substring(position, open));
+            placeholders.add(source.substring(open + 2, close).trim());
+            position = close + 2;
+        }
+        literals.add(source.substring(position));
+
+        return new EmailTemplate(literals.toArray(String[]::new), placeholders.toArray(String[]::new));
+    }
+
+    /**
+     * Render with the given values; missing placeholders render as empty strings
+     */
+    String render(Map<String, String> values) {
+        StringBuilder html = new StringBuilder(literalLength + 64 * placeholders.length);
+        for (int i = 0; i < placeholders.length; i++) {
+            html.append(literals[i]);
+            String value = values.get(placeholders[i]);
+            if (value != null) {
+                html.append(value);
+            }
+        }
+        html.append(literals[literals.length - 1]);
+        return html.toString();
+    }
+}
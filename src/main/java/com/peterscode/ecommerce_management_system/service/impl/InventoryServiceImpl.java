@@ -8,17 +8,24 @@ import com.peterscode.ecommerce_management_system.model.dto.response.InventoryRe
 import com.peterscode.ecommerce_management_system.model.dto.response.PageResponse;
 import com.peterscode.ecommerce_management_system.model.entity.Inventory;
 import com.peterscode.ecommerce_management_system.model.entity.Product;
+import com.peterscode.ecommerce_management_system.model.enums.InventoryEffect;
 import com.peterscode.ecommerce_management_system.repository.InventoryRepository;
 import com.peterscode.ecommerce_management_system.repository.ProductRepository;
 import com.peterscode.ecommerce_management_system.service.InventoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +36,20 @@ public class InventoryServiceImpl implements InventoryService {
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
     private final InventoryMapper inventoryMapper;
+    private final ProductSnapshotCache productSnapshotCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final String CONFIRM_RESERVED_SQL = "UPDATE inventory SET " +
+            "quantity = GREATEST(quantity - ?, 0), reserved_quantity = GREATEST(reserved_quantity - ?, 0), " +
+            "version = version + 1, last_updated = NOW(6) WHERE product_id = ?";
+
+    private static final String RELEASE_RESERVED_SQL = "UPDATE inventory SET " +
+            "reserved_quantity = GREATEST(reserved_quantity - ?, 0), " +
+            "version = version + 1, last_updated = NOW(6) WHERE product_id = ?";
+
+    private static final String RESTOCK_SQL = "UPDATE inventory SET " +
+            "quantity = quantity + ?, version = version + 1, last_updated = NOW(6) WHERE product_id = ?";
 
     @Override
     @Transactional(readOnly = true)
@@ -46,6 +67,7 @@ public class InventoryServiceImpl implements InventoryService {
 
         inventory.setQuantity(inventory.getQuantity() + quantity);
         inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(new ProductSnapshotCache.ProductChanged(productId));
         log.info("Restocked product {}. New Total Quantity: {}", productId, inventory.getQuantity());
     }
 
@@ -56,7 +78,9 @@ public class InventoryServiceImpl implements InventoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
 
         inventory.setQuantity(request.getQuantity()); // Sets absolute quantity
-        return inventoryMapper.toResponse(inventoryRepository.save(inventory));
+        Inventory saved = inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(new ProductSnapshotCache.ProductChanged(productId));
+        return inventoryMapper.toResponse(saved);
     }
 
     @Override
@@ -65,12 +89,16 @@ public class InventoryServiceImpl implements InventoryService {
         Inventory inventory = inventoryRepository.findByProductId(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found for product: " + productId));
 
+        // Cart validation read the snapshot; correct it if this row is newer
+        productSnapshotCache.recheck(productId, inventory.getAvailableStock(), inventory.getVersion());
+
         if (inventory.getAvailableStock() < quantity) {
             throw new InsufficientStockException("Not enough stock for product " + productId + ". Requested: " + quantity + ", Available: " + inventory.getAvailableStock());
         }
 
         inventory.setReservedQuantity(inventory.getReservedQuantity() + quantity);
         inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(new ProductSnapshotCache.ProductChanged(productId));
         log.debug("Reserved {} items for product {}", quantity, productId);
     }
 
@@ -85,6 +113,7 @@ public class InventoryServiceImpl implements InventoryService {
 
         inventory.setReservedQuantity(newReserved);
         inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(new ProductSnapshotCache.ProductChanged(productId));
         log.debug("Released {} reserved items for product {}", quantity, productId);
     }
 
@@ -103,9 +132,53 @@ public class InventoryServiceImpl implements InventoryService {
         if (inventory.getReservedQuantity() < 0) inventory.setReservedQuantity(0);
 
         inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(new ProductSnapshotCache.ProductChanged(productId));
         log.info("Stock reduced by {} for product {}", quantity, productId);
     }
 
+    @Override
+    @Transactional
+    public void applyInventoryEffect(InventoryEffect effect, Map<Long, Integer> quantities) {
+        if (effect == InventoryEffect.NONE || quantities.isEmpty()) {
+            return;
+        }
+
+        // Product id order, so concurrent batches lock inventory rows in the same order
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+        List<Long> productIds = new ArrayList<>(sorted.keySet());
+        List<Object[]> args = new ArrayList<>(sorted.size());
+        String sql = switch (effect) {
+            case CONFIRM_RESERVED -> {
+                sorted.forEach((productId, quantity) -> args.add(new Object[]{quantity, quantity, productId}));
+                yield CONFIRM_RESERVED_SQL;
+            }
+            case RELEASE_RESERVED -> {
+                sorted.forEach((productId, quantity) -> args.add(new Object[]{quantity, productId}));
+                yield RELEASE_RESERVED_SQL;
+            }
+            case RESTOCK -> {
+                sorted.forEach((productId, quantity) -> args.add(new Object[]{quantity, productId}));
+                yield RESTOCK_SQL;
+            }
+            case NONE -> throw new IllegalStateException("No statement for " + effect);
+        };
+
+        int[] counts = jdbcTemplate.batchUpdate(sql, args);
+        for (int i = 0; i < counts.length; i++) {
+            Long productId = productIds.get(i);
+            if (counts[i] == 0) {
+                if (effect == InventoryEffect.RESTOCK) {
+                    // Same as restock(): products without an inventory row get one
+                    restock(productId, sorted.get(productId));
+                    continue;
+                }
+                log.warn("No inventory row for product {} while applying {}", productId, effect);
+            }
+            eventPublisher.publishEvent(new ProductSnapshotCache.ProductChanged(productId));
+        }
+        log.info("Applied {} to {} products", effect, sorted.size());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Integer getStock(Long productId) {
@@ -114,6 +187,17 @@ public class InventoryServiceImpl implements InventoryService {
                 .orElse(0);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> getStock(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return inventoryRepository.findAvailableStockByProductIds(productIds).stream()
+                .collect(Collectors.toMap(InventoryRepository.AvailableStock::getProductId,
+                        InventoryRepository.AvailableStock::getAvailableStock));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PageResponse<InventoryResponse> getLowStockInventory(Pageable pageable) {
@@ -0,0 +1,222 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import com.peterscode.ecommerce_management_system.constant.IdGenerators;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out ids for the id_generators sequences from memory, so they never collide with each
+ * other whether the row is written by Hibernate ({@code @PooledId}) or plain JDBC
+ * (see {@link IdGenerators}).
+ * <p>
+ * Each sequence keeps a pool of reserved blocks of {@code block-size} consecutive ids. A single
+ * background thread reserves the next block by advancing {@code next_val} by the block size with
+ * one {@code UPDATE ... LAST_INSERT_ID(expr)} in its own short transaction, when the
+ * application starts and whenever a pool drops below its refill threshold, so a request never
+ * opens a second connection for ids while its transaction holds one. A caller that
+ * drains a pool waits for the refill up to {@code wait-ms} and then fails, rather than
+ * blocking on connections that the waiting requests themselves hold.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JdbcIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    private static final String ADVANCE_SQL = "UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN +
+            " = LAST_INSERT_ID(" + IdGenerators.VALUE_COLUMN + " + ?) WHERE " + IdGenerators.NAME_COLUMN + " = ?";
+
+    private static volatile JdbcIdAllocator instance;
+
+    @Value("${app.id-allocator.block-size:1000}")
+    private int blockSize;
+
+    @Value("${app.id-allocator.refill-threshold:0.5}")
+    private double refillThreshold;
+
+    @Value("${app.id-allocator.wait-ms:2000}")
+    private long waitMs;
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private final ThreadPoolTaskExecutor refillExecutor = buildRefillExecutor();
+
+    private TransactionTemplate transactionTemplate;
+
+    private static final class Pool {
+        private final String sequenceName;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition refilled = lock.newCondition();
+        // Reserved ranges as {next, end (exclusive)}, oldest first
+        private final Deque<long[]> ranges = new ArrayDeque<>();
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private long available;
+
+        private Pool(String sequenceName) {
+            this.sequenceName = sequenceName;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        instance = this;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        IdGenerators.SEQUENCES.forEach(sequenceName -> refillAsync(pool(sequenceName)));
+    }
+
+    /**
+     * Next id of the sequence, for {@code PooledIdGenerator}
+     */
+    public static long nextId(String sequenceName) {
+        JdbcIdAllocator allocator = instance;
+        if (allocator == null) {
+            throw new IllegalStateException("Id allocator is not initialized");
+        }
+        return allocator.allocate(sequenceName, 1)[0];
+    }
+
+    /**
+     * Take {@code count} ids from the sequence's pool. Ids are unique and increasing but not
+     * necessarily consecutive.
+     */
+    public long[] allocate(String sequenceName, int count) {
+        Pool pool = pool(sequenceName);
+        long[] ids = new long[count];
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+
+        pool.lock.lock();
+        try {
+            int taken = 0;
+            while (taken < count) {
+                if (pool.available == 0) {
+                    refillAsync(pool);
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        throw new IllegalStateException("No ids available for sequence '" + sequenceName +
+                                "' after " + waitMs + "ms");
+                    }
+                    pool.refilled.awaitNanos(left);
+                    continue;
+                }
+                long[] range = pool.ranges.peekFirst();
+                int take = (int) Math.min(count - taken, range[1] - range[0]);
+                for (int i = 0; i < take; i++) {
+                    ids[taken++] = range[0]++;
+                }
+                pool.available -= take;
+                if (range[0] == range[1]) {
+                    pool.ranges.pollFirst();
+                }
+            }
+            if (pool.available < refillMark()) {
+                refillAsync(pool);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for ids of sequence '" + sequenceName + "'", e);
+        } finally {
+            pool.lock.unlock();
+        }
+        return ids;
+    }
+
+    private Pool pool(String sequenceName) {
+        return pools.computeIfAbsent(sequenceName, Pool::new);
+    }
+
+    private long refillMark() {
+        return Math.round(blockSize * refillThreshold);
+    }
+
+    private void refillAsync(Pool pool) {
+        if (!pool.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refillExecutor.execute(() -> refill(pool));
+        } catch (RejectedExecutionException e) {
+            pool.refilling.set(false);
+            log.warn("Id refill for sequence '{}' rejected: {}", pool.sequenceName, e.getMessage());
+        }
+    }
+
+    private void refill(Pool pool) {
+        boolean low = false;
+        try {
+            long first = reserve(pool.sequenceName, blockSize);
+            pool.lock.lock();
+            try {
+                pool.ranges.addLast(new long[]{first, first + blockSize});
+                pool.available += blockSize;
+                low = pool.available < refillMark();
+                pool.refilled.signalAll();
+            } finally {
+                pool.lock.unlock();
+            }
+        } catch (Exception e) {
+            log.error("Failed to reserve ids for sequence '{}': {}", pool.sequenceName, e.getMessage());
+        } finally {
+            pool.refilling.set(false);
+        }
+        if (low) {
+            refillAsync(pool);
+        }
+    }
+
+    /**
+     * Reserve {@code count} consecutive ids and return the first one
+     */
+    private long reserve(String sequenceName, int count) {
+        Long advancedTo = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(ADVANCE_SQL, count, sequenceName) == 0) {
+                throw new IllegalStateException("Unknown id sequence: " + sequenceName);
+            }
+            // Same connection as the UPDATE, so this is the value it just wrote
+            return jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+        });
+
+        // next_val ran NEXT_VAL_OFFSET ahead of the first free id before the UPDATE
+        return advancedTo - count - IdGenerators.NEXT_VAL_OFFSET;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refillExecutor.shutdown();
+    }
+
+    private static ThreadPoolTaskExecutor buildRefillExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("IdAllocator-");
+        executor.setDaemon(true);
+        executor.initialize();
+        return executor;
+    }
+}
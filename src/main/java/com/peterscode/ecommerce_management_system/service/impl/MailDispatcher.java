@@ -0,0 +1,483 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Outgoing mail pipeline backed by the {@code email_outbox} table (see V13 migration).
+ * <p>
+ * Enqueueing inserts an outbox row, inside the caller's transaction when there is one, so
+ * an email exists exactly when the change that triggered it commits. Workers claim due
+ * rows in batches with {@code FOR UPDATE SKIP LOCKED} and a time-limited lease, send each
+ * batch over a single SMTP connection ({@link JavaMailSender#send(MimeMessage...)}), and
+ * mark rows sent or schedule a retry with exponential backoff. A worker that dies leaves
+ * its lease to expire and another claims the rows, so delivery is at-least-once; the
+ * idempotency key stops the same email being enqueued twice.
+ * <p>
+ * Coalesced kinds (e.g. login alerts) send the first message immediately and fold any
+ * further ones for the same recipient within the coalesce window into a single digest.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MailDispatcher {
+
+    private final JavaMailSender mailSender;
+    private final MeterRegistry meterRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Qualifier("emailExecutor")
+    private final Executor emailExecutor;
+
+    private static final String INSERT_SQL = "INSERT INTO email_outbox (idempotency_key, recipient, subject, body, " +
+            "status, attempts, next_attempt_at, created_at) VALUES (?, ?, ?, ?, 'PENDING', 0, NOW(6), NOW(6)) " +
+            "ON DUPLICATE KEY UPDATE id = id";
+
+    private static final String CLAIM_SQL = "SELECT id FROM email_outbox " +
+            "WHERE (status = 'PENDING' AND next_attempt_at <= NOW(6)) " +
+            "OR (status = 'SENDING' AND lease_expires_at < NOW(6)) " +
+            "ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${app.mail.dispatch.node-id:${HOSTNAME:local}}")
+    private String nodeName;
+
+    @Value("${app.mail.dispatch.batch-size:20}")
+    private int batchSize;
+
+    @Value("${app.mail.dispatch.max-connections:4}")
+    private int maxConnections;
+
+    @Value("${app.mail.dispatch.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${app.mail.dispatch.lease-seconds:120}")
+    private int leaseSeconds;
+
+    @Value("${app.mail.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.mail.dispatch.retry-backoff-ms:5000}")
+    private long retryBackoffMs;
+
+    @Value("${app.mail.dispatch.coalesce-window-ms:300000}")
+    private long coalesceWindowMs;
+
+    private final Map<String, DigestBucket> digests = new ConcurrentHashMap<>();
+    private final Map<String, BiFunction<String, List<DigestEntry>, RenderedEmail>> digestRenderers = new ConcurrentHashMap<>();
+    private final AtomicLong claimSequence = new AtomicLong();
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private volatile long backlogRefreshedAt;
+
+    // Host name plus a per-process id, so two processes never share lease owners
+    private String nodeId;
+    private Semaphore connections;
+    private ScheduledExecutorService ticker;
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate requiresNewTemplate;
+
+    private Counter sentCounter;
+    private Counter retriedCounter;
+    private Counter failedCounter;
+    private Counter coalescedCounter;
+    private Timer batchTimer;
+
+    public record RenderedEmail(String subject, String html) {
+    }
+
+    public record DigestEntry(String recipientName, String detail) {
+    }
+
+    private record OutboxEmail(long id, String idempotencyKey, String to, String subject, String html, int attempts) {
+    }
+
+    @PostConstruct
+    public void start() {
+        // lease_owner is VARCHAR(100): name, UUID and claim sequence must fit
+        String name = nodeName.length() > 40 ? nodeName.substring(0, 40) : nodeName;
+        nodeId = name + ":" + UUID.randomUUID();
+        connections = new Semaphore(maxConnections);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        requiresNewTemplate = new TransactionTemplate(transactionManager);
+        requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("email.outbox.backlog", backlog, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("email.digest.pending", digests, Map::size).register(meterRegistry);
+        sentCounter = meterRegistry.counter("email.messages", "outcome", "sent");
+        retriedCounter = meterRegistry.counter("email.messages", "outcome", "retried");
+        failedCounter = meterRegistry.counter("email.messages", "outcome", "failed");
+        coalescedCounter = meterRegistry.counter("email.messages", "outcome", "coalesced");
+        batchTimer = meterRegistry.timer("email.batch.send");
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mail-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Replay runs on the dispatcher thread so it never delays application readiness
+        ticker.execute(this::releaseOwnStaleLeases);
+        ticker.scheduleWithFixedDelay(this::tick, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue a message with a generated idempotency key
+     */
+    public void send(String to, String subject, String html) {
+        send(UUID.randomUUID().toString(), to, subject, html);
+    }
+
+    /**
+     * Queue a message; a second call with the same idempotency key is ignored
+     */
+    public void send(String idempotencyKey, String to, String subject, String html) {
+        boolean joinCaller = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+
+        if (joinCaller) {
+            jdbcTemplate.update(INSERT_SQL, idempotencyKey, to, subject, html);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        } else {
+            requiresNewTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.update(INSERT_SQL, idempotencyKey, to, subject, html));
+            wakeUp();
+        }
+    }
+
+    /**
+     * Send now if this is the first message of its kind for the recipient in the coalesce
+     * window, otherwise hold the entry for that window's digest
+     */
+    public void sendCoalesced(String kind, String to, String subject, String html, DigestEntry entry) {
+        boolean[] first = {false};
+        digests.compute(kind + ":" + to, (key, bucket) -> {
+            if (bucket == null) {
+                first[0] = true;
+                return new DigestBucket(kind, to, System.currentTimeMillis());
+            }
+            bucket.entries.add(entry);
+            return bucket;
+        });
+
+        if (first[0]) {
+            send(to, subject, html);
+        } else {
+            coalescedCounter.increment();
+        }
+    }
+
+    /**
+     * Register how a digest of held entries is rendered for a coalesced kind
+     */
+    public void registerDigest(String kind, BiFunction<String, List<DigestEntry>, RenderedEmail> renderer) {
+        digestRenderers.put(kind, renderer);
+    }
+
+    private void wakeUp() {
+        if (ticker != null && wakeupPending.compareAndSet(false, true)) {
+            try {
+                ticker.execute(() -> {
+                    wakeupPending.set(false);
+                    dispatchDueBatches();
+                });
+            } catch (RejectedExecutionException e) {
+                wakeupPending.set(false);
+            }
+        }
+    }
+
+    private void tick() {
+        try {
+            promoteDigests(false);
+            dispatchDueBatches();
+            refreshBacklog();
+        } catch (Exception e) {
+            log.error("Mail dispatcher tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rows left in SENDING by an earlier process on this host go back to PENDING once their
+     * lease has expired. A live lease is never touched, even when its owner shares the host
+     * name, since that process may still be sending.
+     */
+    private void releaseOwnStaleLeases() {
+        String hostPrefix = nodeId.substring(0, nodeId.lastIndexOf(':') + 1);
+        try {
+            int released = jdbcTemplate.update("UPDATE email_outbox SET status = 'PENDING', lease_owner = NULL, " +
+                    "lease_expires_at = NULL WHERE status = 'SENDING' AND lease_owner LIKE ? " +
+                    "AND lease_expires_at < NOW(6)", hostPrefix + "%");
+            if (released > 0) {
+                log.info("Released {} unfinished email(s) from a previous run for resend", released);
+            }
+        } catch (Exception e) {
+            log.error("Failed to release stale email leases: {}", e.getMessage());
+        }
+    }
+
+    private void promoteDigests(boolean force) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, DigestBucket> entry : digests.entrySet()) {
+            DigestBucket bucket = entry.getValue();
+            if (!force && now - bucket.windowStart < coalesceWindowMs) {
+                continue;
+            }
+            // Read the entries only after removal so no append can race with the render
+            if (!digests.remove(entry.getKey(), bucket) || bucket.entries.isEmpty()) {
+                continue;
+            }
+
+            BiFunction<String, List<DigestEntry>, RenderedEmail> renderer = digestRenderers.get(bucket.kind);
+            if (renderer == null) {
+                log.warn("No digest renderer registered for kind: {}", bucket.kind);
+                continue;
+            }
+            RenderedEmail digest = renderer.apply(bucket.to, Collections.unmodifiableList(bucket.entries));
+            send("digest:" + entry.getKey() + ":" + bucket.windowStart, bucket.to, digest.subject(), digest.html());
+        }
+    }
+
+    private void dispatchDueBatches() {
+        while (connections.tryAcquire()) {
+            String leaseOwner = nodeId + ":" + claimSequence.incrementAndGet();
+            List<OutboxEmail> batch;
+            try {
+                batch = claimBatch(leaseOwner);
+            } catch (Exception e) {
+                connections.release();
+                log.error("Failed to claim outbox emails: {}", e.getMessage());
+                return;
+            }
+
+            if (batch.isEmpty()) {
+                connections.release();
+                return;
+            }
+
+            try {
+                emailExecutor.execute(() -> {
+                    try {
+                        sendBatch(batch, leaseOwner);
+                    } finally {
+                        connections.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // The lease expires and the rows are claimed again
+                connections.release();
+                return;
+            }
+        }
+    }
+
+    private List<OutboxEmail> claimBatch(String leaseOwner) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(CLAIM_SQL, Long.class, batchSize);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+
+            String idList = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+            jdbcTemplate.update("UPDATE email_outbox SET status = 'SENDING', lease_owner = ?, " +
+                    "lease_expires_at = NOW(6) + INTERVAL ? SECOND, attempts = attempts + 1 " +
+                    "WHERE id IN (" + idList + ")", leaseOwner, leaseSeconds);
+
+            return jdbcTemplate.query("SELECT id, idempotency_key, recipient, subject, body, attempts " +
+                            "FROM email_outbox WHERE id IN (" + idList + ")",
+                    (rs, rowNum) -> new OutboxEmail(
+                            rs.getLong("id"),
+                            rs.getString("idempotency_key"),
+                            rs.getString("recipient"),
+                            rs.getString("subject"),
+                            rs.getString("body"),
+                            rs.getInt("attempts")));
+        });
+    }
+
+    /**
+     * Send a batch over one SMTP connection and record the outcome of every row
+     */
+    private void sendBatch(List<OutboxEmail> batch, String leaseOwner) {
+        List<OutboxEmail> prepared = new ArrayList<>(batch.size());
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        for (OutboxEmail email : batch) {
+            try {
+                messages.add(toMimeMessage(email));
+                prepared.add(email);
+            } catch (MessagingException e) {
+                log.error("Failed to build email to: {}", email.to(), e);
+                markFailed(email, leaseOwner, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        List<Long> sentIds = new ArrayList<>(prepared.size());
+        long start = System.nanoTime();
+        try {
+            mailSender.send(messages.toArray(MimeMessage[]::new));
+            prepared.forEach(email -> sentIds.add(email.id()));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            for (int i = 0; i < messages.size(); i++) {
+                if (failed.isEmpty() || failed.containsKey(messages.get(i))) {
+                    retryOrFail(prepared.get(i), leaseOwner, e);
+                } else {
+                    sentIds.add(prepared.get(i).id());
+                }
+            }
+        } catch (MailException e) {
+            prepared.forEach(email -> retryOrFail(email, leaseOwner, e));
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (!sentIds.isEmpty()) {
+            markSent(sentIds, leaseOwner);
+        }
+    }
+
+    private void markSent(List<Long> ids, String leaseOwner) {
+        String idList = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        try {
+            jdbcTemplate.update("UPDATE email_outbox SET status = 'SENT', sent_at = NOW(6), lease_owner = NULL, " +
+                    "lease_expires_at = NULL, last_error = NULL WHERE lease_owner = ? AND id IN (" + idList + ")", leaseOwner);
+            sentCounter.increment(ids.size());
+            log.debug("Sent batch of {} emails", ids.size());
+        } catch (Exception e) {
+            // Rows stay leased and will be resent after expiry: at-least-once
+            log.error("Failed to mark {} emails as sent: {}", ids.size(), e.getMessage());
+        }
+    }
+
+    private void retryOrFail(OutboxEmail email, String leaseOwner, Exception cause) {
+        if (email.attempts() >= maxAttempts) {
+            markFailed(email, leaseOwner, cause);
+            return;
+        }
+
+        long backoff = retryBackoffMs * (1L << Math.min(email.attempts() - 1, 10));
+        retriedCounter.increment();
+        log.warn("Email to: {} failed (attempt {}), retrying in {}ms: {}",
+                email.to(), email.attempts(), backoff, cause.getMessage());
+        jdbcTemplate.update("UPDATE email_outbox SET status = 'PENDING', next_attempt_at = ?, lease_owner = NULL, " +
+                        "lease_expires_at = NULL, last_error = ? WHERE id = ? AND lease_owner = ?",
+                new Timestamp(System.currentTimeMillis() + backoff), truncate(cause.getMessage()), email.id(), leaseOwner);
+    }
+
+    private void markFailed(OutboxEmail email, String leaseOwner, Exception cause) {
+        failedCounter.increment();
+        log.error("Giving up on email to: {} after {} attempts: {}", email.to(), email.attempts(), cause.getMessage());
+        jdbcTemplate.update("UPDATE email_outbox SET status = 'FAILED', lease_owner = NULL, lease_expires_at = NULL, " +
+                "last_error = ? WHERE id = ? AND lease_owner = ?", truncate(cause.getMessage()), email.id(), leaseOwner);
+    }
+
+    private void refreshBacklog() {
+        long now = System.currentTimeMillis();
+        if (now - backlogRefreshedAt < 15_000) {
+            return;
+        }
+        backlogRefreshedAt = now;
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM email_outbox WHERE status IN ('PENDING', 'SENDING')", Long.class);
+        backlog.set(count != null ? count : 0);
+    }
+
+    private MimeMessage toMimeMessage(OutboxEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setFrom(fromEmail);
+        helper.setTo(email.to());
+        helper.setSubject(email.subject());
+        helper.setText(email.html(), true);
+        message.setHeader("X-Idempotency-Key", email.idempotencyKey());
+
+        return message;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdown();
+        try {
+            ticker.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Held digests only live in memory; write them to the outbox before stopping
+        try {
+            promoteDigests(true);
+        } catch (Exception e) {
+            log.error("Failed to persist pending email digests: {}", e.getMessage());
+        }
+    }
+
+    private static final class DigestBucket {
+        private final String kind;
+        private final String to;
+        private final long windowStart;
+        private final List<DigestEntry> entries = new ArrayList<>();
+
+        private DigestBucket(String kind, String to, long windowStart) {
+            this.kind = kind;
+            this.to = to;
+            this.windowStart = windowStart;
+        }
+    }
+}
@@ -32,7 +32,7 @@ public class NotificationServiceImplementation implements NotificationService {
     // private final SimpMessagingTemplate messagingTemplate;
 
     @Override
-    @Async // Async creation to not block main transaction
+    @Async("notificationExecutor") // Async creation to not block main transaction
     public void create(Notification notification) {
         notificationRepository.save(notification);
         // Optional: Trigger WebSocket push here
@@ -0,0 +1,245 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import com.peterscode.ecommerce_management_system.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Generates order numbers without a uniqueness probe.
+ * <p>
+ * Each number packs 41 bits of milliseconds since 2024-01-01, a 10-bit node id and a 12-bit
+ * per-millisecond counter into a long, rendered as {@code ORD-} plus 13 Crockford base32
+ * characters. Numbers from one node are strictly increasing and sort by creation time, so the
+ * unique index on order_number only ever grows at its right edge. The counter never blocks:
+ * when it overflows, or the clock steps back, the timestamp part is advanced logically.
+ * <p>
+ * The node id is {@code app.order-number.node-id} when set; otherwise a free id is leased
+ * through {@link ClusterLeases} ({@code order-number:node:{id}}) when the application starts and
+ * renewed on a fixed delay, both in the background, so {@link #next} never calls Redis. Each
+ * renewal first records the node id's last timestamp ({@code order-number:last:{id}});
+ * whoever takes the id next, including this node after a restart, starts one lease TTL past
+ * it, which covers numbers issued after the last renewal and a clock that went back.
+ * Uniqueness across nodes assumes clock skew stays below the lease TTL.
+ * <p>
+ * A leased id expires one TTL after the last successful renewal, so during a longer Redis
+ * outage new orders fail with 503 until the lease is taken again. Deployments that must keep
+ * taking orders through Redis outages pin a distinct {@code app.order-number.node-id} per
+ * instance (e.g. from the StatefulSet ordinal); a pinned id needs Redis only to record and read
+ * its last timestamp, and two instances must never share one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderNumberGenerator {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ClusterLeases clusterLeases;
+
+    private static final String PREFIX = "ORD-";
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final long EPOCH_MS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MAX_NODES = 1 << NODE_BITS;
+    private static final String NODE_LEASE = "order-number:node:";
+    private static final String LAST_KEY = "order-number:last:";
+    // Node id key of earlier versions, held by nodes not yet upgraded during a rolling deploy
+    private static final String LEGACY_NODE_KEY = "order-number:node:";
+
+    /**
+     * Raises KEYS[1] to the timestamp ARGV[1] (never lowers it)
+     */
+    private static final DefaultRedisScript<Long> RECORD_LAST_SCRIPT = new DefaultRedisScript<>(
+            "if tonumber(ARGV[1]) > tonumber(redis.call('GET', KEYS[1]) or '0') then " +
+            "  redis.call('SET', KEYS[1], ARGV[1]) " +
+            "end " +
+            "return 1",
+            Long.class);
+
+    @Value("${app.order-number.node-id:-1}")
+    private int configuredNodeId;
+
+    @Value("${app.order-number.lease-ttl-ms:60000}")
+    private long leaseTtlMs;
+
+    /**
+     * (timestamp << SEQUENCE_BITS) | sequence of the last number handed out
+     */
+    private final AtomicLong lastState = new AtomicLong();
+
+    // Startup and the renewal task both maintain the lease; only one of them at a time
+    private final ReentrantLock leaseLock = new ReentrantLock();
+
+    private volatile int nodeId = -1;
+    private volatile ClusterLeases.Lease lease;
+    private volatile long leaseValidUntil;
+    private volatile boolean clockFloored;
+
+    public String next() {
+        int node = currentNodeId();
+        long now = System.currentTimeMillis() - EPOCH_MS;
+        long state;
+        while (true) {
+            long last = lastState.get();
+            // Past the last timestamp: start a new millisecond; otherwise count on (overflow carries into the timestamp)
+            state = now > (last >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : last + 1;
+            if (lastState.compareAndSet(last, state)) {
+                break;
+            }
+        }
+
+        long timestamp = state >>> SEQUENCE_BITS;
+        long sequence = state & ((1L << SEQUENCE_BITS) - 1);
+        return PREFIX + encode((timestamp << (NODE_BITS + SEQUENCE_BITS)) | ((long) node << SEQUENCE_BITS) | sequence);
+    }
+
+    /**
+     * Fixed-width base32; the alphabet is in ASCII order, so string order matches numeric order
+     */
+    private static String encode(long value) {
+        char[] chars = new char[13];
+        for (int i = chars.length - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private int currentNodeId() {
+        if (configuredNodeId >= 0) {
+            return configuredNodeId;
+        }
+        int node = nodeId;
+        if (node < 0 || System.currentTimeMillis() >= leaseValidUntil) {
+            throw new ServiceUnavailableException("Orders cannot be numbered right now, please retry shortly");
+        }
+        return node;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        maintainLease();
+    }
+
+    @Scheduled(fixedDelayString = "${app.order-number.renew-interval-ms:20000}")
+    public void renew() {
+        maintainLease();
+    }
+
+    private void maintainLease() {
+        if (!leaseLock.tryLock()) {
+            return;
+        }
+        try {
+            if (configuredNodeId >= 0) {
+                if (!clockFloored) {
+                    floorClock(configuredNodeId);
+                    clockFloored = true;
+                }
+                recordLast(configuredNodeId);
+                return;
+            }
+            if (nodeId >= 0) {
+                if (renewLease()) {
+                    return;
+                }
+                log.warn("Order number node id {} lease was lost, leasing a new id", nodeId);
+                nodeId = -1;
+            }
+            acquireNodeId();
+        } catch (Exception e) {
+            // A leased id stays usable until its local deadline; the next run retries
+            log.warn("Failed to maintain order number node id lease: {}", e.getMessage());
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    private void acquireNodeId() {
+        // Start at a random slot so instances booting together do not race for the same ids
+        int start = ThreadLocalRandom.current().nextInt(MAX_NODES);
+        for (int i = 0; i < MAX_NODES; i++) {
+            int candidate = (start + i) % MAX_NODES;
+            if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(LEGACY_NODE_KEY + candidate))) {
+                continue;
+            }
+            long acquiredAt = System.currentTimeMillis();
+            // Throws when Redis is unavailable, which ends the scan until the next run
+            Optional<ClusterLeases.Lease> acquired = clusterLeases.acquire(NODE_LEASE + candidate, leaseTtlMs);
+            if (acquired.isPresent()) {
+                floorClock(candidate);
+                lease = acquired.get();
+                leaseValidUntil = acquiredAt + leaseTtlMs;
+                nodeId = candidate;
+                log.info("Order number generator leased node id {}", candidate);
+                return;
+            }
+        }
+        log.error("No free order number node id; set app.order-number.node-id");
+    }
+
+    /**
+     * Start past every number the id's previous holder may have issued
+     */
+    private void floorClock(int node) {
+        String recorded = stringRedisTemplate.opsForValue().get(LAST_KEY + node);
+        if (recorded != null) {
+            long floor = Long.parseLong(recorded) + leaseTtlMs;
+            lastState.accumulateAndGet(floor << SEQUENCE_BITS, Math::max);
+        }
+    }
+
+    private long lastTimestamp() {
+        return lastState.get() >>> SEQUENCE_BITS;
+    }
+
+    private void recordLast(int node) {
+        stringRedisTemplate.execute(RECORD_LAST_SCRIPT, List.of(LAST_KEY + node), String.valueOf(lastTimestamp()));
+    }
+
+    /**
+     * Record the last timestamp, then extend the lease. Recording while no longer holding the id is
+     * harmless: it only raises the floor of whoever takes the id next.
+     */
+    private boolean renewLease() {
+        long renewedAt = System.currentTimeMillis();
+        recordLast(nodeId);
+        // Throws when Redis is unavailable, so the id stays usable until its local deadline
+        if (clusterLeases.extend(lease)) {
+            leaseValidUntil = renewedAt + leaseTtlMs;
+            return true;
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void release() {
+        try {
+            if (configuredNodeId >= 0) {
+                recordLast(configuredNodeId);
+            } else if (nodeId >= 0) {
+                // Recorded before the id is freed, so its next holder starts past our numbers
+                recordLast(nodeId);
+                clusterLeases.release(lease);
+            }
+        } catch (Exception e) {
+            log.debug("Failed to release order number node id: {}", e.getMessage());
+        }
+    }
+}
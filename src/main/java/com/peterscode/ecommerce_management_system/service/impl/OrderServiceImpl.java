@@ -3,24 +3,40 @@ package com.peterscode.ecommerce_management_system.service.impl;
 import com.peterscode.ecommerce_management_system.exception.*;
 import com.peterscode.ecommerce_management_system.mapper.OrderMapper;
 import com.peterscode.ecommerce_management_system.model.dto.request.OrderRequest;
+import com.peterscode.ecommerce_management_system.model.dto.response.BulkOrderStatusResponse;
 import com.peterscode.ecommerce_management_system.model.dto.response.OrderResponse;
+import com.peterscode.ecommerce_management_system.model.dto.response.UserOrderStatsResponse;
 import com.peterscode.ecommerce_management_system.model.entity.*;
+import com.peterscode.ecommerce_management_system.model.enums.InventoryEffect;
 import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
 import com.peterscode.ecommerce_management_system.repository.*;
 import com.peterscode.ecommerce_management_system.service.InventoryService;
 import com.peterscode.ecommerce_management_system.service.OrderService;
 import org.springframework.transaction.annotation.Transactional;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -33,8 +49,24 @@ public class OrderServiceImpl implements OrderService {
     private final ProductRepository productRepository;
     private final AddressRepository addressRepository;
     private final InventoryService inventoryService;
+    private final ProductSnapshotCache productSnapshotCache;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final UserOrderSummaryProjector userOrderSummaryProjector;
+    private final SalesRollupManager salesRollupManager;
+    private final OrderStateMachine orderStateMachine;
+    private final PlatformTransactionManager transactionManager;
     private final OrderMapper orderMapper;
 
+    @Value("${app.order-status.bulk-chunk-size:500}")
+    private int bulkChunkSize;
+
+    private TransactionTemplate bulkTransactionTemplate;
+
+    @PostConstruct
+    void init() {
+        bulkTransactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
     @Override
     @Transactional
     public OrderResponse createOrder(OrderRequest request, Long userId) {
@@ -54,7 +86,7 @@ public class OrderServiceImpl implements OrderService {
         }
 
         Order order = Order.builder()
-                .orderNumber(generateOrderNumber())
+                .orderNumber(orderNumberGenerator.next())
                 .user(user)
                 .status(OrderStatus.PENDING) // Initial status is PENDING
                 .shippingAddress(shippingAddress)
@@ -66,9 +98,16 @@ public class OrderServiceImpl implements OrderService {
                 .shippingCost(BigDecimal.ZERO)
                 .build();
 
+        // Reject inactive products before any stock row is touched
         for (OrderRequest.OrderItemRequest itemRequest : request.getItems()) {
+            if (!productSnapshotCache.require(itemRequest.getProductId()).active()) {
+                throw new BadRequestException("Product is not available: " + itemRequest.getProductId());
+            }
+        }
 
-            // 1. Reserve Stock (PENDING state)
+        for (OrderRequest.OrderItemRequest itemRequest : request.getItems()) {
+
+            // 1. Reserve Stock (PENDING state); rechecks the snapshot against the inventory row
             inventoryService.reserveStock(itemRequest.getProductId(), itemRequest.getQuantity());
 
             Product product = productRepository.findById(itemRequest.getProductId())
@@ -92,6 +131,8 @@ public class OrderServiceImpl implements OrderService {
 
         order.calculateTotals();
         Order savedOrder = orderRepository.save(order);
+        userOrderSummaryProjector.orderCreated(savedOrder);
+        salesRollupManager.orderChanged(savedOrder.getId());
         log.info("Order created: {}", savedOrder.getOrderNumber());
         return orderMapper.toResponse(savedOrder);
     }
@@ -113,13 +154,17 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<OrderResponse> getAllOrders(Pageable pageable) {
-        return orderRepository.findAll(pageable).map(orderMapper::toResponse);
+        return loadOrderPage(orderRepository.findPageIds(pageable));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<OrderResponse> getUserOrders(Long userId, Pageable pageable) {
-        return orderRepository.findByUserId(userId, pageable).map(orderMapper::toResponse);
+        // First pages (newest first) come from the user's order summary row
+        return loadOrderPage(userOrderSummaryProjector.recentOrderIdsPage(userId, pageable)
+                .orElseGet(() -> orderRepository.findPageIdsByUserId(userId, pageable)));
     }
 
     @Override
@@ -130,26 +175,39 @@ public class OrderServiceImpl implements OrderService {
 
         validateOwnership(order, requestingUserId);
 
-        if (order.getStatus() == OrderStatus.CANCELLED ||
-                order.getStatus() == OrderStatus.DELIVERED ||
-                order.getStatus() == OrderStatus.SHIPPED) {
-            throw new BadRequestException("Order cannot be cancelled in status: " + order.getStatus());
-        }
-
-        // Handle Inventory Logic before changing status
-        restoreInventoryForCancellation(order);
-
-        order.setStatus(OrderStatus.CANCELLED);
+        OrderStateMachine.Transition transition = orderStateMachine.transition(order, OrderStatus.CANCELLED);
+        applyInventoryEffect(transition.inventoryEffect(), List.of(order));
+        orderStateMachine.apply(order, transition);
         order.setCancellationReason(reason);
-        order.setCancelledAt(LocalDateTime.now());
+        userOrderSummaryProjector.statusChanged(order, transition.from());
+        salesRollupManager.orderChanged(orderId);
 
         log.info("Order {} cancelled by user {}", orderId, requestingUserId);
         return orderMapper.toResponse(orderRepository.save(order));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<OrderResponse> getOrdersByStatus(OrderStatus status, Pageable pageable) {
-        return orderRepository.findByStatus(status, pageable).map(orderMapper::toResponse);
+        return loadOrderPage(orderRepository.findPageIdsByStatus(status, pageable));
+    }
+
+    /**
+     * Second phase of a paged order read: one query for the page's orders with everything the
+     * mapper touches, returned in the id page's order. Orders deleted in between are skipped.
+     */
+    private Page<OrderResponse> loadOrderPage(Page<Long> idPage) {
+        if (idPage.isEmpty()) {
+            return new PageImpl<>(List.of(), idPage.getPageable(), idPage.getTotalElements());
+        }
+        Map<Long, Order> orders = orderRepository.findWithDetailsByIdIn(idPage.getContent()).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        List<OrderResponse> content = idPage.getContent().stream()
+                .map(orders::get)
+                .filter(Objects::nonNull)
+                .map(orderMapper::toResponse)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, idPage.getPageable(), idPage.getTotalElements());
     }
 
     @Override
@@ -158,30 +216,11 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findByIdWithItems(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
-        OrderStatus oldStatus = order.getStatus();
-
-        // 1. Handle transitions related to Inventory
-        if (oldStatus == OrderStatus.PENDING && newStatus == OrderStatus.CONFIRMED) {
-            // Payment success: Permanently reduce stock (move from 'Reserved' to 'Sold')
-            confirmOrderStock(order);
-        } else if (newStatus == OrderStatus.CANCELLED && oldStatus != OrderStatus.CANCELLED) {
-            // Admin cancels: Restore stock
-            restoreInventoryForCancellation(order);
-            order.setCancelledAt(LocalDateTime.now());
-        } else if (newStatus == OrderStatus.RETURNED && oldStatus != OrderStatus.RETURNED) {
-            // Customer returned item: Restock it
-            restockReturnedItems(order);
-        } else if (newStatus == OrderStatus.FAILED && oldStatus == OrderStatus.PENDING) {
-            // Payment failed: Release reservation
-            releaseOrderReservation(order);
-        }
-
-        // 2. Handle timestamps
-        if (newStatus == OrderStatus.DELIVERED) {
-            order.setDeliveredAt(LocalDateTime.now());
-        }
-
-        order.setStatus(newStatus);
+        OrderStateMachine.Transition transition = orderStateMachine.transition(order, newStatus);
+        applyInventoryEffect(transition.inventoryEffect(), List.of(order));
+        orderStateMachine.apply(order, transition);
+        userOrderSummaryProjector.statusChanged(order, transition.from());
+        salesRollupManager.orderChanged(orderId);
         return orderMapper.toResponse(orderRepository.save(order));
     }
 
@@ -192,7 +231,13 @@ public class OrderServiceImpl implements OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
         order.setTrackingNumber(trackingNumber);
         order.setCarrier(carrier);
-        order.setStatus(OrderStatus.SHIPPED);
+        // Tracking can be corrected after shipping without another transition
+        OrderStatus previousStatus = order.getStatus();
+        if (previousStatus != OrderStatus.SHIPPED && previousStatus != OrderStatus.OUT_FOR_DELIVERY) {
+            orderStateMachine.apply(order, orderStateMachine.transition(order, OrderStatus.SHIPPED));
+        }
+        userOrderSummaryProjector.statusChanged(order, previousStatus);
+        salesRollupManager.orderChanged(orderId);
         return orderMapper.toResponse(orderRepository.save(order));
     }
 
@@ -214,36 +259,98 @@ public class OrderServiceImpl implements OrderService {
             throw new BadRequestException("Only Cancelled or Failed orders can be deleted");
         }
         orderRepository.delete(order);
+        userOrderSummaryProjector.orderDeleted(order);
+        salesRollupManager.orderChanged(orderId);
     }
 
-    // --- Inventory Helper Methods ---
-
-    private void restoreInventoryForCancellation(Order order) {
-        if (order.getStatus() == OrderStatus.PENDING) {
-            // It was just reserved, so release the reservation
-            releaseOrderReservation(order);
-        } else if (order.getStatus() == OrderStatus.CONFIRMED || order.getStatus() == OrderStatus.PROCESSING) {
-            // It was already deducted from stock, so we need to add it back
-            restockReturnedItems(order);
+    @Override
+    public BulkOrderStatusResponse bulkUpdateOrderStatus(List<Long> orderIds, OrderStatus newStatus) {
+        long start = System.currentTimeMillis();
+        List<Long> ids = orderIds.stream().filter(Objects::nonNull).distinct().sorted().collect(Collectors.toList());
+
+        long updated = 0;
+        List<BulkOrderStatusResponse.SkippedOrder> skipped = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += bulkChunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + bulkChunkSize, ids.size()));
+            List<BulkOrderStatusResponse.SkippedOrder> chunkSkipped = new ArrayList<>();
+            try {
+                Integer count = bulkTransactionTemplate.execute(status -> transitionChunk(chunk, newStatus, chunkSkipped));
+                updated += count != null ? count : 0;
+                skipped.addAll(chunkSkipped);
+            } catch (Exception e) {
+                // The chunk rolled back as a whole; later chunks still run
+                log.error("Bulk status update to {} failed for orders {}..{}", newStatus,
+                        chunk.get(0), chunk.get(chunk.size() - 1), e);
+                for (Long orderId : chunk) {
+                    skipped.add(new BulkOrderStatusResponse.SkippedOrder(orderId, "Batch failed: " + e.getMessage()));
+                }
+            }
         }
-    }
 
-    private void confirmOrderStock(Order order) {
-        for (OrderItem item : order.getOrderItems()) {
-            inventoryService.confirmStockReduction(item.getProduct().getId(), item.getQuantity());
-        }
+        log.info("Bulk status update to {}: {} of {} orders updated", newStatus, updated, ids.size());
+        return BulkOrderStatusResponse.builder()
+                .status(newStatus)
+                .requested(ids.size())
+                .updated(updated)
+                .skipped(skipped.size())
+                .durationMs(System.currentTimeMillis() - start)
+                .skippedOrders(skipped)
+                .build();
     }
 
-    private void releaseOrderReservation(Order order) {
-        for (OrderItem item : order.getOrderItems()) {
-            inventoryService.releaseReservedStock(item.getProduct().getId(), item.getQuantity());
+    /**
+     * One chunk in one transaction: lock the orders, run their transitions, then apply the
+     * inventory effects of the whole chunk as one batched statement per effect
+     */
+    private int transitionChunk(List<Long> chunk, OrderStatus newStatus,
+                                List<BulkOrderStatusResponse.SkippedOrder> skipped) {
+        orderRepository.lockByIdIn(chunk);
+        Map<Long, Order> orders = orderRepository.findWithDetailsByIdIn(chunk).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        Map<InventoryEffect, List<Order>> byEffect = new EnumMap<>(InventoryEffect.class);
+        Set<Long> userIds = new HashSet<>();
+        List<Long> updatedIds = new ArrayList<>();
+        for (Long orderId : chunk) {
+            Order order = orders.get(orderId);
+            if (order == null) {
+                skipped.add(new BulkOrderStatusResponse.SkippedOrder(orderId, "Order not found"));
+                continue;
+            }
+            String rejection = orderStateMachine.rejection(order, newStatus);
+            if (rejection != null) {
+                skipped.add(new BulkOrderStatusResponse.SkippedOrder(orderId, rejection));
+                continue;
+            }
+            OrderStateMachine.Transition transition = orderStateMachine.transition(order, newStatus);
+            byEffect.computeIfAbsent(transition.inventoryEffect(), key -> new ArrayList<>()).add(order);
+            orderStateMachine.apply(order, transition);
+            userIds.add(order.getUser().getId());
+            updatedIds.add(orderId);
         }
+
+        byEffect.forEach(this::applyInventoryEffect);
+        userOrderSummaryProjector.invalidate(userIds);
+        salesRollupManager.ordersChanged(updatedIds);
+        return updatedIds.size();
     }
 
-    private void restockReturnedItems(Order order) {
-        for (OrderItem item : order.getOrderItems()) {
-            inventoryService.restock(item.getProduct().getId(), item.getQuantity());
+    // --- Inventory Helper Methods ---
+
+    /**
+     * Sum the orders' item quantities per product and apply the effect in one batched call
+     */
+    private void applyInventoryEffect(InventoryEffect effect, Collection<Order> orders) {
+        if (effect == InventoryEffect.NONE) {
+            return;
+        }
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (Order order : orders) {
+            for (OrderItem item : order.getOrderItems()) {
+                quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
         }
+        inventoryService.applyInventoryEffect(effect, quantities);
     }
 
     // --- Standard Helpers ---
@@ -256,16 +363,6 @@ public class OrderServiceImpl implements OrderService {
         }
     }
 
-    private String generateOrderNumber() {
-        String orderNumber;
-        do {
-            orderNumber = String.format("ORD-%d-%s",
-                    System.currentTimeMillis(),
-                    UUID.randomUUID().toString().substring(0, 8).toUpperCase());
-        } while (orderRepository.existsByOrderNumber(orderNumber));
-        return orderNumber;
-    }
-
     @Override
     public List<OrderResponse> getUserOrdersByDateRange(Long userId, LocalDateTime startDate, LocalDateTime endDate) {
         return orderRepository.findUserOrdersBetweenDates(userId, startDate, endDate)
@@ -274,12 +371,21 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public Double getUserTotalSpent(Long userId) {
-        Double total = orderRepository.getTotalSpentByUser(userId, OrderStatus.DELIVERED);
-        return total != null ? total : 0.0;
+        return userOrderSummaryProjector.find(userId).totalSpent().doubleValue();
     }
 
     @Override
     public Long getUserOrderCount(Long userId) {
-        return orderRepository.countByUserId(userId);
+        return userOrderSummaryProjector.find(userId).orderCount();
+    }
+
+    @Override
+    public UserOrderStatsResponse getUserOrderStats(Long userId) {
+        UserOrderSummaryProjector.Summary summary = userOrderSummaryProjector.find(userId);
+        return UserOrderStatsResponse.builder()
+                .totalSpent(summary.totalSpent())
+                .orderCount(summary.orderCount())
+                .statusCounts(summary.statusCounts())
+                .build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import com.peterscode.ecommerce_management_system.exception.BadRequestException;
+import com.peterscode.ecommerce_management_system.model.entity.Order;
+import com.peterscode.ecommerce_management_system.model.enums.InventoryEffect;
+import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static com.peterscode.ecommerce_management_system.model.enums.InventoryEffect.*;
+import static com.peterscode.ecommerce_management_system.model.enums.OrderStatus.*;
+
+/**
+ * Order status transitions as a table.
+ * <p>
+ * Each allowed {@code from -> to} edge names the inventory effect it has on the order's items
+ * (applied by the caller, batched across orders) and may carry a guard. Entering a state runs
+ * that state's hooks, e.g. stamping {@code cancelledAt}. Transitions missing from the table are
+ * rejected, including moves to the current status.
+ */
+@Component
+public class OrderStateMachine {
+
+    public record Transition(OrderStatus from, OrderStatus to, InventoryEffect inventoryEffect,
+                             Predicate<Order> guard, String guardMessage) {
+    }
+
+    private final Map<OrderStatus, Map<OrderStatus, Transition>> table = new EnumMap<>(OrderStatus.class);
+    private final Map<OrderStatus, List<Consumer<Order>>> entryHooks = new EnumMap<>(OrderStatus.class);
+
+    public OrderStateMachine(@Value("${app.order-status.return-window-days:30}") int returnWindowDays) {
+        allow(PENDING, CONFIRMED, CONFIRM_RESERVED);
+        allow(PENDING, CANCELLED, RELEASE_RESERVED);
+        allow(PENDING, FAILED, RELEASE_RESERVED);
+
+        allow(CONFIRMED, PROCESSING, NONE);
+        allow(CONFIRMED, SHIPPED, NONE);
+        allow(CONFIRMED, CANCELLED, RESTOCK);
+        allow(CONFIRMED, REFUNDED, RESTOCK);
+
+        allow(PROCESSING, SHIPPED, NONE);
+        allow(PROCESSING, CANCELLED, RESTOCK);
+        allow(PROCESSING, REFUNDED, RESTOCK);
+
+        allow(SHIPPED, OUT_FOR_DELIVERY, NONE);
+        allow(SHIPPED, DELIVERED, NONE);
+        allow(SHIPPED, RETURNED, RESTOCK);
+
+        allow(OUT_FOR_DELIVERY, DELIVERED, NONE);
+        allow(OUT_FOR_DELIVERY, RETURNED, RESTOCK);
+
+        guarded(DELIVERED, RETURNED, RESTOCK,
+                order -> returnWindowDays <= 0 || order.getDeliveredAt() == null
+                        || order.getDeliveredAt().plusDays(returnWindowDays).isAfter(LocalDateTime.now()),
+                "Return window of " + returnWindowDays + " days has passed");
+        allow(DELIVERED, REFUNDED, NONE);
+
+        allow(RETURNED, REFUNDED, NONE);
+        allow(CANCELLED, REFUNDED, NONE);
+
+        onEnter(CANCELLED, order -> order.setCancelledAt(LocalDateTime.now()));
+        onEnter(DELIVERED, order -> order.setDeliveredAt(LocalDateTime.now()));
+    }
+
+    private void allow(OrderStatus from, OrderStatus to, InventoryEffect effect) {
+        guarded(from, to, effect, order -> true, null);
+    }
+
+    private void guarded(OrderStatus from, OrderStatus to, InventoryEffect effect, Predicate<Order> guard,
+                         String guardMessage) {
+        table.computeIfAbsent(from, key -> new EnumMap<>(OrderStatus.class))
+                .put(to, new Transition(from, to, effect, guard, guardMessage));
+    }
+
+    private void onEnter(OrderStatus status, Consumer<Order> hook) {
+        entryHooks.computeIfAbsent(status, key -> new ArrayList<>()).add(hook);
+    }
+
+    /**
+     * Statuses an order in {@code from} may move to
+     */
+    public Set<OrderStatus> targets(OrderStatus from) {
+        Map<OrderStatus, Transition> edges = table.get(from);
+        return edges == null ? Set.of() : Collections.unmodifiableSet(edges.keySet());
+    }
+
+    /**
+     * The transition that moves this order to {@code to}, or the reason it may not
+     */
+    public Transition transition(Order order, OrderStatus to) {
+        String rejection = rejection(order, to);
+        if (rejection != null) {
+            throw new BadRequestException(rejection);
+        }
+        return table.get(order.getStatus()).get(to);
+    }
+
+    /**
+     * Why the order cannot move to {@code to}; null when it can
+     */
+    public String rejection(Order order, OrderStatus to) {
+        Map<OrderStatus, Transition> edges = table.get(order.getStatus());
+        Transition transition = edges != null ? edges.get(to) : null;
+        if (transition == null) {
+            return "Order cannot move from " + order.getStatus() + " to " + to;
+        }
+        if (!transition.guard().test(order)) {
+            return transition.guardMessage();
+        }
+        return null;
+    }
+
+    /**
+     * Set the new status and run its entry hooks; the inventory effect is left to the caller
+     */
+    public void apply(Order order, Transition transition) {
+        order.setStatus(transition.to());
+        for (Consumer<Order> hook : entryHooks.getOrDefault(transition.to(), List.of())) {
+            hook.accept(order);
+        }
+    }
+}
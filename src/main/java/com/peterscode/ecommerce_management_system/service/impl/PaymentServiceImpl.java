@@ -14,12 +14,13 @@ import com.peterscode.ecommerce_management_system.model.dto.response.PaymentResp
 import com.peterscode.ecommerce_management_system.model.entity.*;
 import com.peterscode.ecommerce_management_system.model.enums.*;
 import com.peterscode.ecommerce_management_system.repository.*;
-import com.peterscode.ecommerce_management_system.service.NotificationService;
 import com.peterscode.ecommerce_management_system.service.PaymentService;
 
 import com.peterscode.ecommerce_management_system.service.EmailService;
+import com.peterscode.ecommerce_management_system.service.InventoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
@@ -28,6 +29,8 @@ import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
@@ -42,6 +45,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -53,7 +57,7 @@ import java.util.stream.Collectors;
  * - Idempotency protection
  * - Amount validation
  * - User authorization checks
- * - Pessimistic locking for inventory
+ * - Order status changes through OrderStateMachine, inventory effects batched in product id order
  * - Transaction isolation
  */
 @Slf4j
@@ -63,11 +67,17 @@ public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
-    private final InventoryRepository inventoryRepository;
+    private final InventoryService inventoryService;
     private final ShippingRepository shippingRepository;
-    private final NotificationService notificationService;
+    private final NotificationRepository notificationRepository;
     private final EmailService emailService;
     private final PaymentMapper paymentMapper;
+    private final UserOrderSummaryProjector userOrderSummaryProjector;
+    private final SalesRollupManager salesRollupManager;
+    private final OrderStateMachine orderStateMachine;
+
+    @Qualifier("paymentExecutor")
+    private final Executor paymentExecutor;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
 
@@ -283,19 +293,20 @@ public class PaymentServiceImpl implements PaymentService {
                 return;
             }
 
+            Order order = payment.getOrder();
+            String rejection = orderStateMachine.rejection(order, OrderStatus.CANCELLED);
+            if (rejection != null) {
+                log.warn("Ignoring timeout for order {}: {}", order.getOrderNumber(), rejection);
+                return;
+            }
+
             // Mark payment as failed due to timeout
             payment.setStatus(PaymentStatus.FAILED);
             paymentRepository.save(payment);
 
-            // Cancel order
-            Order order = payment.getOrder();
-            order.setStatus(OrderStatus.CANCELLED);
+            // Cancel order and release its reservation
             order.setCancellationReason("Payment timeout - user did not respond");
-            order.setCancelledAt(LocalDateTime.now());
-            orderRepository.save(order);
-
-            // Release inventory
-            releaseInventoryForOrder(order);
+            transitionOrder(order, OrderStatus.CANCELLED);
 
             // Notify user
             notifyPaymentFailed(order, "Payment request timed out. Please try again.");
@@ -383,20 +394,16 @@ public class PaymentServiceImpl implements PaymentService {
             throw new BadRequestException("Refund amount cannot exceed payment amount");
         }
 
+        // Update order status; restocks unless the items were already returned or never shipped
+        Order order = payment.getOrder();
+        transitionOrder(order, OrderStatus.REFUNDED);
+
         // Update payment status
         payment.setStatus(PaymentStatus.REFUNDED);
         paymentRepository.save(payment);
 
-        // Update order status
-        Order order = payment.getOrder();
-        order.setStatus(OrderStatus.REFUNDED);
-        orderRepository.save(order);
-
-        // Restore inventory
-        restoreInventoryForOrder(order);
-
         // Notify user
-        notificationService.create(Notification.builder()
+        notifyAfterCommit(Notification.builder()
                 .user(order.getUser())
                 .type(NotificationType.PAYMENT_REFUNDED)
                 .title("Refund Processed")
@@ -602,13 +609,9 @@ public class PaymentServiceImpl implements PaymentService {
             payment.setCreatedAt(LocalDateTime.now());
             paymentRepository.save(payment);
 
-            // Update order
-            order.setStatus(OrderStatus.CONFIRMED);
+            // Confirm order and turn its reservation into a sale
             order.setCreatedAt(LocalDateTime.now());
-            orderRepository.save(order);
-
-            // Deduct inventory
-            deductInventoryForOrder(order);
+            transitionOrder(order, OrderStatus.CONFIRMED);
 
             // Create shipping
             createShippingForOrder(order);
@@ -633,12 +636,9 @@ public class PaymentServiceImpl implements PaymentService {
             payment.setStatus(PaymentStatus.FAILED);
             paymentRepository.save(payment);
 
-            order.setStatus(OrderStatus.CANCELLED);
             order.setCancellationReason("Payment failed: " + callback.getResultDesc());
-            order.setCancelledAt(LocalDateTime.now());
-            orderRepository.save(order);
+            transitionOrder(order, OrderStatus.CANCELLED);
 
-            releaseInventoryForOrder(order);
             notifyPaymentFailed(order, callback.getResultDesc());
 
         } catch (Exception e) {
@@ -648,97 +648,23 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     /**
-     * Deduct inventory after successful payment
-     * Uses pessimistic locking to prevent race conditions
-     */
-    private void deductInventoryForOrder(Order order) {
-        log.info("Deducting inventory for order: {}", order.getOrderNumber());
-
-        for (OrderItem item : order.getOrderItems()) {
-            try {
-                // Fetch inventory with pessimistic write lock
-                Inventory inventory = inventoryRepository.findByProductIdWithLock(item.getProduct().getId())
-                        .orElseThrow(() -> new ResourceNotFoundException(
-                                "Inventory not found for product: " + item.getProduct().getName()));
-
-                // Deduct the quantity (includes validation)
-                inventory.deductQuantity(item.getQuantity());
-
-                // Save the updated inventory
-                inventoryRepository.save(inventory);
-
-                log.info("Deducted {} units of '{}' from inventory. Remaining: {}",
-                        item.getQuantity(), item.getProduct().getName(), inventory.getAvailableStock());
-
-                // Check if low stock and notify
-                if (inventory.isLowStock()) {
-                    log.warn("Low stock alert for product: {}. Available: {}",
-                            item.getProduct().getName(), inventory.getAvailableStock());
-                    // TODO: Send low stock notification to admins
-                }
-
-            } catch (Exception e) {
-                log.error("CRITICAL: Failed to deduct inventory for product: {}",
-                        item.getProduct().getName(), e);
-                throw new RuntimeException("Inventory deduction failed", e);
-            }
-        }
-    }
-
-    /**
-     * Release inventory when payment fails or order is cancelled
+     * Move the order through the state machine, applying the transition's inventory effect to all
+     * of its items in one batched statement (which also refreshes the product snapshot)
      */
-    private void releaseInventoryForOrder(Order order) {
-        log.info("Releasing inventory for order: {}", order.getOrderNumber());
-
+    private void transitionOrder(Order order, OrderStatus to) {
+        OrderStateMachine.Transition transition = orderStateMachine.transition(order, to);
+        Map<Long, Integer> quantities = new HashMap<>();
         for (OrderItem item : order.getOrderItems()) {
-            try {
-                Inventory inventory = inventoryRepository.findByProductIdWithLock(item.getProduct().getId())
-                        .orElse(null);
-
-                if (inventory != null) {
-                    inventory.releaseReservedQuantity(item.getQuantity());
-                    inventoryRepository.save(inventory);
-
-                    log.info("Released {} units of '{}' from reserved inventory",
-                            item.getQuantity(), item.getProduct().getName());
-                } else {
-                    log.warn("Inventory not found for product: {} (may have been deleted)",
-                            item.getProduct().getName());
-                }
-
-            } catch (Exception e) {
-                log.error("Failed to release inventory for product: {}",
-                        item.getProduct().getName(), e);
-                // Don't throw - continue with other items
-            }
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
         }
-    }
+        inventoryService.applyInventoryEffect(transition.inventoryEffect(), quantities);
+        orderStateMachine.apply(order, transition);
 
-    /**
-     * Restore inventory after refund
-     */
-    private void restoreInventoryForOrder(Order order) {
-        log.info("Restoring inventory for refunded order: {}", order.getOrderNumber());
-
-        for (OrderItem item : order.getOrderItems()) {
-            try {
-                Inventory inventory = inventoryRepository.findByProductIdWithLock(item.getProduct().getId())
-                        .orElse(null);
-
-                if (inventory != null) {
-                    inventory.addQuantity(item.getQuantity());
-                    inventoryRepository.save(inventory);
-
-                    log.info("Restored {} units of '{}' to inventory",
-                            item.getQuantity(), item.getProduct().getName());
-                }
-
-            } catch (Exception e) {
-                log.error("Failed to restore inventory for product: {}",
-                        item.getProduct().getName(), e);
-            }
-        }
+        orderRepository.save(order);
+        userOrderSummaryProjector.statusChanged(order, transition.from());
+        salesRollupManager.orderChanged(order.getId());
+        log.info("Order {} moved {} -> {} ({})", order.getOrderNumber(), transition.from(), to,
+                transition.inventoryEffect());
     }
 
     private void createShippingForOrder(Order order) {
@@ -849,7 +775,7 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     private void notifyUserPaymentInitiated(Order order) {
-        notificationService.create(Notification.builder()
+        notifyAfterCommit(Notification.builder()
                 .user(order.getUser())
                 .type(NotificationType.ORDER_PLACED)
                 .title("Payment Requested")
@@ -861,7 +787,7 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     private void notifyPaymentSuccessful(Order order, Payment payment) {
-        notificationService.create(Notification.builder()
+        notifyAfterCommit(Notification.builder()
                 .user(order.getUser())
                 .type(NotificationType.PAYMENT_RECEIVED)
                 .title("Payment Successful")
@@ -873,7 +799,7 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     private void notifyPaymentFailed(Order order, String reason) {
-        notificationService.create(Notification.builder()
+        notifyAfterCommit(Notification.builder()
                 .user(order.getUser())
                 .type(NotificationType.PAYMENT_FAILED)
                 .title("Payment Failed")
@@ -884,18 +810,45 @@ public class PaymentServiceImpl implements PaymentService {
                 .build());
     }
 
+    /**
+     * Persist a payment notification on the payment executor once the transaction commits,
+     * so a rolled-back callback never notifies and notification load cannot delay payments
+     */
+    private void notifyAfterCommit(Notification notification) {
+        Runnable task = () -> {
+            try {
+                notificationRepository.save(notification);
+            } catch (Exception e) {
+                log.error("Failed to save payment notification for reference: {}", notification.getReferenceId(), e);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    paymentExecutor.execute(task);
+                }
+            });
+        } else {
+            paymentExecutor.execute(task);
+        }
+    }
+
     private void handlePaymentInitiationFailure(Long orderId, Exception e) {
         try {
             Order order = orderRepository.findById(orderId).orElse(null);
 
-            if (order != null) {
-                order.setStatus(OrderStatus.CANCELLED);
-                order.setCancellationReason("Payment initiation failed: " + e.getMessage());
-                order.setCancelledAt(LocalDateTime.now());
-                orderRepository.save(order);
-
-                releaseInventoryForOrder(order);
+            if (order == null) {
+                return;
+            }
+            String rejection = orderStateMachine.rejection(order, OrderStatus.CANCELLED);
+            if (rejection != null) {
+                log.warn("Not cancelling order {} after failed initiation: {}", order.getOrderNumber(), rejection);
+                return;
             }
+            order.setCancellationReason("Payment initiation failed: " + e.getMessage());
+            transitionOrder(order, OrderStatus.CANCELLED);
 
         } catch (Exception ex) {
             log.error("Failed to handle payment initiation failure", ex);
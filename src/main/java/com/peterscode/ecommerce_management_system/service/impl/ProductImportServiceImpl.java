@@ -0,0 +1,650 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.peterscode.ecommerce_management_system.constant.IdGenerators;
+import com.peterscode.ecommerce_management_system.exception.BadRequestException;
+import com.peterscode.ecommerce_management_system.exception.ResourceNotFoundException;
+import com.peterscode.ecommerce_management_system.model.dto.request.ProductRequest;
+import com.peterscode.ecommerce_management_system.model.dto.response.ProductImportResponse;
+import com.peterscode.ecommerce_management_system.model.entity.User;
+import com.peterscode.ecommerce_management_system.repository.UserRepository;
+import com.peterscode.ecommerce_management_system.security.SecurityUtils;
+import com.peterscode.ecommerce_management_system.service.ProductImportService;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import and export.
+ * <p>
+ * Imports read the body incrementally (CSV with a header row, or one JSON object per line).
+ * Fixed-size chunks are validated on the task executor while the next chunk is parsed, with
+ * categories resolved from the in-memory {@link CategoryTree}. Each chunk is written in its own
+ * transaction with one multi-row INSERT for products and one for inventory; category counts go
+ * through {@link CategoryCountAggregator}. Exports read a MySQL streaming result set and write
+ * each row to the response as it arrives.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final DataSource dataSource;
+    private final PlatformTransactionManager transactionManager;
+    private final UserRepository userRepository;
+    private final SecurityUtils securityUtils;
+    private final CategoryTreeManager categoryTreeManager;
+    private final CategoryCountAggregator categoryCountAggregator;
+    private final JdbcIdAllocator idAllocator;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Qualifier("taskExecutor")
+    private final Executor taskExecutor;
+
+    private static final String PRODUCT_INSERT_PREFIX = "INSERT INTO products (name, sku, description, " +
+            "short_description, price, discount_price, cost_price, category_id, seller_id, stock_quantity, " +
+            "low_stock_threshold, image_url, additional_images, brand, manufacturer, weight, dimensions, color, size, " +
+            "tags, is_active, is_featured, view_count, sold_count, average_rating, review_count, created_at, " +
+            "updated_at) VALUES ";
+    private static final String PRODUCT_ROW =
+            "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0.00, 0, NOW(), NOW())";
+    private static final int PRODUCT_PARAMS = 22;
+
+    private static final String INVENTORY_INSERT_PREFIX = "INSERT INTO inventory (id, product_id, quantity, " +
+            "reserved_quantity, low_stock_threshold, version, last_updated) VALUES ";
+    private static final String INVENTORY_ROW = "(?, ?, ?, 0, ?, 0, NOW(6))";
+    private static final int INVENTORY_PARAMS = 4;
+
+    private static final String EXPORT_SQL = "SELECT p.sku, p.name, p.description, p.short_description, p.price, " +
+            "p.discount_price, p.cost_price, p.category_id, p.stock_quantity, p.low_stock_threshold, p.image_url, " +
+            "p.additional_images, p.brand, p.manufacturer, p.weight, p.dimensions, p.color, p.size, p.tags, " +
+            "p.is_active, p.is_featured, COALESCE(i.quantity, p.stock_quantity) AS stock " +
+            "FROM products p LEFT JOIN inventory i ON i.product_id = p.id ORDER BY p.id";
+
+    /**
+     * CSV column: header name, how to set a non-blank value on a request, and how to read it back for export
+     */
+    private record Column(String name, BiConsumer<ProductRequest, String> reader,
+                          Function<ProductRequest, Object> writer) {
+    }
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("sku", ProductRequest::setSku, ProductRequest::getSku),
+            new Column("name", ProductRequest::setName, ProductRequest::getName),
+            new Column("description", ProductRequest::setDescription, ProductRequest::getDescription),
+            new Column("short_description", ProductRequest::setShortDescription, ProductRequest::getShortDescription),
+            new Column("price", (r, v) -> r.setPrice(new BigDecimal(v)), ProductRequest::getPrice),
+            new Column("discount_price", (r, v) -> r.setDiscountPrice(new BigDecimal(v)), ProductRequest::getDiscountPrice),
+            new Column("cost_price", (r, v) -> r.setCostPrice(new BigDecimal(v)), ProductRequest::getCostPrice),
+            new Column("category_id", (r, v) -> r.setCategoryId(Long.valueOf(v)), ProductRequest::getCategoryId),
+            new Column("stock", (r, v) -> r.setStock(Integer.valueOf(v)), ProductRequest::getStock),
+            new Column("low_stock_threshold", (r, v) -> r.setLowStockThreshold(Integer.valueOf(v)),
+                    ProductRequest::getLowStockThreshold),
+            new Column("image_url", ProductRequest::setImageUrl, ProductRequest::getImageUrl),
+            new Column("additional_images", ProductRequest::setAdditionalImages, ProductRequest::getAdditionalImages),
+            new Column("brand", ProductRequest::setBrand, ProductRequest::getBrand),
+            new Column("manufacturer", ProductRequest::setManufacturer, ProductRequest::getManufacturer),
+            new Column("weight", (r, v) -> r.setWeight(new BigDecimal(v)), ProductRequest::getWeight),
+            new Column("dimensions", ProductRequest::setDimensions, ProductRequest::getDimensions),
+            new Column("color", ProductRequest::setColor, ProductRequest::getColor),
+            new Column("size", ProductRequest::setSize, ProductRequest::getSize),
+            new Column("tags", ProductRequest::setTags, ProductRequest::getTags),
+            new Column("is_active", (r, v) -> r.setIsActive(parseBoolean(v)), ProductRequest::getIsActive),
+            new Column("is_featured", (r, v) -> r.setIsFeatured(parseBoolean(v)), ProductRequest::getIsFeatured));
+
+    private static final Map<String, Column> COLUMNS_BY_NAME = COLUMNS.stream()
+            .collect(Collectors.toMap(Column::name, Function.identity()));
+
+    @Value("${app.product-import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.product-import.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.product-import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate streamingJdbcTemplate;
+
+    private record ImportRow(long line, ProductRequest request, String error) {
+    }
+
+    private record ValidatedChunk(List<ImportRow> valid, List<ProductImportResponse.RowError> errors) {
+    }
+
+    private interface RowSource {
+        /**
+         * Next parsed row, or null at the end of the input
+         */
+        ImportRow next() throws IOException;
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // Connector/J streams rows one by one instead of buffering the whole result set
+        streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Override
+    @CacheEvict(value = "products", allEntries = true)
+    public ProductImportResponse importProducts(InputStream input, Format format) throws IOException {
+        long start = System.currentTimeMillis();
+
+        String currentUserEmail = securityUtils.getCurrentUsername()
+                .orElseThrow(() -> new BadRequestException("User must be authenticated"));
+        User seller = userRepository.findByEmail(currentUserEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        CategoryTree categories = categoryTreeManager.tree();
+
+        Progress progress = new Progress(maxReportedErrors);
+        Set<String> seenSkus = new HashSet<>();
+        Deque<CompletableFuture<ValidatedChunk>> inFlight = new ArrayDeque<>();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            RowSource source = format == Format.CSV
+                    ? new CsvRowSource(reader)
+                    : new NdjsonRowSource(reader, objectMapper.readerFor(ProductRequest.class)
+                            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+
+            ImportRow row;
+            while ((row = source.next()) != null) {
+                progress.total++;
+                if (row.error() != null) {
+                    progress.fail(row.line(), null, row.error());
+                    continue;
+                }
+
+                ProductRequest request = row.request();
+                if (request.getSku() != null && !seenSkus.add(request.getSku())) {
+                    progress.fail(row.line(), request.getSku(), "Duplicate SKU in file");
+                    continue;
+                }
+                // One stock figure is enough in a file; it feeds both the product and its inventory row
+                if (request.getStock() == null) {
+                    request.setStock(request.getStockQuantity());
+                }
+                if (request.getStockQuantity() == null) {
+                    request.setStockQuantity(request.getStock());
+                }
+
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    submit(chunk, categories, inFlight, seller.getId(), progress);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                submit(chunk, categories, inFlight, seller.getId(), progress);
+            }
+        } finally {
+            // Rows already validated are still written if parsing stopped on malformed input
+            while (!inFlight.isEmpty()) {
+                writeChunk(inFlight.poll().join(), seller.getId(), progress);
+            }
+        }
+
+        long durationMs = System.currentTimeMillis() - start;
+        log.info("Product import by {} finished: {} rows, {} imported, {} failed in {}ms",
+                currentUserEmail, progress.total, progress.imported, progress.failed, durationMs);
+
+        return ProductImportResponse.builder()
+                .totalRows(progress.total)
+                .imported(progress.imported)
+                .failed(progress.failed)
+                .durationMs(durationMs)
+                .errors(progress.errors)
+                .build();
+    }
+
+    /**
+     * Validate the chunk in the background; once enough chunks are in flight, write the oldest one
+     */
+    private void submit(List<ImportRow> rows, CategoryTree categories, Deque<CompletableFuture<ValidatedChunk>> inFlight,
+                        Long sellerId, Progress progress) {
+        inFlight.add(CompletableFuture.supplyAsync(() -> validate(rows, categories), taskExecutor));
+        if (inFlight.size() >= parallelism) {
+            writeChunk(inFlight.poll().join(), sellerId, progress);
+        }
+    }
+
+    private ValidatedChunk validate(List<ImportRow> rows, CategoryTree categories) {
+        List<ImportRow> valid = new ArrayList<>(rows.size());
+        List<ProductImportResponse.RowError> errors = new ArrayList<>();
+        for (ImportRow row : rows) {
+            String error = validationError(row.request(), categories);
+            if (error == null) {
+                valid.add(row);
+            } else {
+                errors.add(new ProductImportResponse.RowError(row.line(), row.request().getSku(), error));
+            }
+        }
+        return new ValidatedChunk(valid, errors);
+    }
+
+    private String validationError(ProductRequest request, CategoryTree categories) {
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (request.getDiscountPrice() != null && request.getDiscountPrice().compareTo(request.getPrice()) >= 0) {
+            return "Discount price must be less than the regular price";
+        }
+        if (categories.get(request.getCategoryId()) == null) {
+            return "Category not found with id: " + request.getCategoryId();
+        }
+        return null;
+    }
+
+    private void writeChunk(ValidatedChunk chunk, Long sellerId, Progress progress) {
+        chunk.errors().forEach(progress::fail);
+        if (chunk.valid().isEmpty()) {
+            return;
+        }
+
+        List<String> skus = chunk.valid().stream().map(row -> row.request().getSku()).toList();
+        Set<String> existing = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT sku FROM products WHERE sku IN (:skus)", new MapSqlParameterSource("skus", skus), String.class));
+
+        List<ImportRow> rows = new ArrayList<>(chunk.valid().size());
+        for (ImportRow row : chunk.valid()) {
+            if (existing.contains(row.request().getSku())) {
+                progress.fail(row.line(), row.request().getSku(),
+                        "Product with SKU '" + row.request().getSku() + "' already exists");
+            } else {
+                rows.add(row);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            long[] inventoryIds = idAllocator.allocate(IdGenerators.INVENTORY, rows.size());
+            transactionTemplate.executeWithoutResult(status -> insertChunk(rows, sellerId, inventoryIds));
+            progress.imported += rows.size();
+        } catch (DataAccessException e) {
+            // Typically a SKU created concurrently; the whole chunk rolls back and is reported
+            log.warn("Product import chunk of {} rows failed: {}", rows.size(), e.getMostSpecificCause().getMessage());
+            for (ImportRow row : rows) {
+                progress.fail(row.line(), row.request().getSku(),
+                        "Batch write failed: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private void insertChunk(List<ImportRow> rows, Long sellerId, long[] inventoryIds) {
+        Object[] productArgs = new Object[rows.size() * PRODUCT_PARAMS];
+        int i = 0;
+        for (ImportRow row : rows) {
+            ProductRequest request = row.request();
+            productArgs[i++] = request.getName();
+            productArgs[i++] = request.getSku();
+            productArgs[i++] = request.getDescription();
+            productArgs[i++] = request.getShortDescription();
+            productArgs[i++] = request.getPrice();
+            productArgs[i++] = request.getDiscountPrice();
+            productArgs[i++] = request.getCostPrice();
+            productArgs[i++] = request.getCategoryId();
+            productArgs[i++] = sellerId;
+            productArgs[i++] = request.getStockQuantity();
+            productArgs[i++] = request.getLowStockThreshold() != null ? request.getLowStockThreshold() : 10;
+            productArgs[i++] = request.getImageUrl();
+            productArgs[i++] = request.getAdditionalImages();
+            productArgs[i++] = request.getBrand();
+            productArgs[i++] = request.getManufacturer();
+            productArgs[i++] = request.getWeight() != null ? request.getWeight() : BigDecimal.ZERO;
+            productArgs[i++] = request.getDimensions();
+            productArgs[i++] = request.getColor();
+            productArgs[i++] = request.getSize();
+            productArgs[i++] = request.getTags();
+            productArgs[i++] = request.getIsActive() != null ? request.getIsActive() : Boolean.TRUE;
+            productArgs[i++] = request.getIsFeatured() != null ? request.getIsFeatured() : Boolean.FALSE;
+        }
+        jdbcTemplate.update(PRODUCT_INSERT_PREFIX + String.join(", ", Collections.nCopies(rows.size(), PRODUCT_ROW)),
+                productArgs);
+
+        // Generated keys of a multi-row insert are not guaranteed to be contiguous, so read them back by SKU
+        Map<String, Long> productIds = new HashMap<>(rows.size() * 2);
+        List<String> skus = rows.stream().map(row -> row.request().getSku()).toList();
+        namedParameterJdbcTemplate.query("SELECT id, sku FROM products WHERE sku IN (:skus)",
+                new MapSqlParameterSource("skus", skus),
+                (RowCallbackHandler) rs -> productIds.put(rs.getString("sku"), rs.getLong("id")));
+
+        Object[] inventoryArgs = new Object[rows.size() * INVENTORY_PARAMS];
+        Map<Long, Long> productsPerCategory = new HashMap<>();
+        i = 0;
+        int inventoryRow = 0;
+        for (ImportRow row : rows) {
+            ProductRequest request = row.request();
+            inventoryArgs[i++] = inventoryIds[inventoryRow++];
+            inventoryArgs[i++] = productIds.get(request.getSku());
+            inventoryArgs[i++] = request.getStock();
+            inventoryArgs[i++] = request.getLowStockThreshold() != null ? request.getLowStockThreshold() : 10;
+            productsPerCategory.merge(request.getCategoryId(), 1L, Long::sum);
+        }
+        jdbcTemplate.update(INVENTORY_INSERT_PREFIX + String.join(", ", Collections.nCopies(rows.size(), INVENTORY_ROW)),
+                inventoryArgs);
+
+        productsPerCategory.forEach(categoryCountAggregator::add);
+    }
+
+    @Override
+    public void exportProducts(OutputStream output, Format format) throws IOException {
+        long start = System.currentTimeMillis();
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+        ObjectWriter jsonWriter = objectMapper.writerFor(ProductRequest.class);
+        long[] rows = {0};
+
+        if (format == Format.CSV) {
+            writeCsvRecord(writer, COLUMNS.stream().map(Column::name).toList());
+        }
+        try {
+            streamingJdbcTemplate.query(EXPORT_SQL, (RowCallbackHandler) rs -> {
+                ProductRequest product = toRequest(rs);
+                try {
+                    if (format == Format.CSV) {
+                        writeCsvRecord(writer, COLUMNS.stream().map(column -> column.writer().apply(product)).toList());
+                    } else {
+                        writer.write(jsonWriter.writeValueAsString(product));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+
+        log.info("Exported {} products as {} in {}ms", rows[0], format, System.currentTimeMillis() - start);
+    }
+
+    private static ProductRequest toRequest(ResultSet rs) throws SQLException {
+        return ProductRequest.builder()
+                .sku(rs.getString("sku"))
+                .name(rs.getString("name"))
+                .description(rs.getString("description"))
+                .shortDescription(rs.getString("short_description"))
+                .price(rs.getBigDecimal("price"))
+                .discountPrice(rs.getBigDecimal("discount_price"))
+                .costPrice(rs.getBigDecimal("cost_price"))
+                .categoryId(rs.getLong("category_id"))
+                .stockQuantity(rs.getInt("stock_quantity"))
+                .stock(rs.getInt("stock"))
+                .lowStockThreshold(rs.getObject("low_stock_threshold", Integer.class))
+                .imageUrl(rs.getString("image_url"))
+                .additionalImages(rs.getString("additional_images"))
+                .brand(rs.getString("brand"))
+                .manufacturer(rs.getString("manufacturer"))
+                .weight(rs.getBigDecimal("weight"))
+                .dimensions(rs.getString("dimensions"))
+                .color(rs.getString("color"))
+                .size(rs.getString("size"))
+                .tags(rs.getString("tags"))
+                .isActive(rs.getBoolean("is_active"))
+                .isFeatured(rs.getBoolean("is_featured"))
+                .build();
+    }
+
+    private static void writeCsvRecord(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static Boolean parseBoolean(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes" -> Boolean.TRUE;
+            case "false", "0", "no" -> Boolean.FALSE;
+            default -> throw new IllegalArgumentException("Invalid boolean: " + value);
+        };
+    }
+
+    /**
+     * Running totals for one import; only touched by the request thread
+     */
+    private static final class Progress {
+        private final int maxReportedErrors;
+        private final List<ProductImportResponse.RowError> errors = new ArrayList<>();
+        private long total;
+        private long imported;
+        private long failed;
+
+        private Progress(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void fail(long line, String sku, String message) {
+            fail(new ProductImportResponse.RowError(line, sku, message));
+        }
+
+        private void fail(ProductImportResponse.RowError error) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(error);
+            }
+        }
+    }
+
+    /**
+     * One JSON object per line; blank lines are skipped
+     */
+    private static final class NdjsonRowSource implements RowSource {
+        private final BufferedReader reader;
+        private final ObjectReader objectReader;
+        private long line;
+
+        private NdjsonRowSource(BufferedReader reader, ObjectReader objectReader) {
+            this.reader = reader;
+            this.objectReader = objectReader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new ImportRow(line, objectReader.readValue(text), null);
+                } catch (JsonProcessingException e) {
+                    return new ImportRow(line, null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * CSV with a header row naming the columns in {@link #COLUMNS}; unknown columns are ignored
+     */
+    private static final class CsvRowSource implements RowSource {
+        private final CsvReader csv;
+        private final Column[] columns;
+
+        private CsvRowSource(BufferedReader reader) throws IOException {
+            csv = new CsvReader(reader);
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                throw new BadRequestException("CSV input is empty");
+            }
+
+            columns = new Column[header.size()];
+            boolean hasSku = false;
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+                columns[i] = COLUMNS_BY_NAME.get(name);
+                hasSku |= "sku".equals(name);
+            }
+            if (!hasSku) {
+                throw new BadRequestException("CSV header must include a sku column");
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            List<String> values;
+            do {
+                values = csv.readRecord();
+            } while (values != null && values.size() == 1 && values.get(0).isBlank());
+            if (values == null) {
+                return null;
+            }
+
+            long line = csv.recordLine();
+            ProductRequest request = new ProductRequest();
+            for (int i = 0; i < values.size() && i < columns.length; i++) {
+                String value = values.get(i);
+                if (columns[i] == null || value.isBlank()) {
+                    continue;
+                }
+                try {
+                    columns[i].reader().accept(request, value.trim());
+                } catch (IllegalArgumentException e) {
+                    return new ImportRow(line, null, "Invalid value for " + columns[i].name() + ": " + value);
+                }
+            }
+            return new ImportRow(line, request, null);
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 reader: quoted fields may contain commas, doubled quotes and line breaks
+     */
+    private static final class CsvReader {
+        private final BufferedReader reader;
+        private long line = 1;
+        private long recordLine;
+
+        private CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private long recordLine() {
+            return recordLine;
+        }
+
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+
+            recordLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new BadRequestException("Unterminated quoted field starting on line " + recordLine);
+                    }
+                    if (c == '"') {
+                        int next = reader.read();
+                        if (next != '"') {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                        field.append('"');
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+    }
+}
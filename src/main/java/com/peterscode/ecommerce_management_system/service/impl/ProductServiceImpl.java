@@ -5,6 +5,7 @@ import com.peterscode.ecommerce_management_system.exception.ResourceNotFoundExce
 import com.peterscode.ecommerce_management_system.mapper.ProductMapper;
 import com.peterscode.ecommerce_management_system.model.dto.response.PageResponse;
 import com.peterscode.ecommerce_management_system.model.dto.response.ProductResponse;
+import com.peterscode.ecommerce_management_system.model.dto.response.ProductSummaryResponse;
 import com.peterscode.ecommerce_management_system.model.dto.request.ProductRequest;
 import com.peterscode.ecommerce_management_system.model.entity.Category;
 import com.peterscode.ecommerce_management_system.model.entity.Product;
@@ -19,6 +20,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -38,6 +40,9 @@ public class ProductServiceImpl implements ProductService {
     private final ProductMapper productMapper;
     private final SecurityUtils securityUtils;
     private final InventoryService inventoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CategoryTreeManager categoryTreeManager;
+    private final CategoryCountAggregator categoryCountAggregator;
 
     @Override
     @Transactional
@@ -85,8 +90,8 @@ public class ProductServiceImpl implements ProductService {
 
         Product savedProduct = productRepository.save(product);
 
-        // Increment category product count
-        categoryRepository.incrementProductCount(category.getId());
+        // Category product count is applied in batches after commit
+        categoryCountAggregator.add(category.getId(), 1);
 
         // --- NEW: Initialize Inventory ---
         // We use the separate InventoryService to handle the stock logic
@@ -160,15 +165,20 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional(readOnly = true)
-    public PageResponse<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable) {
-        log.debug("Fetching products by category: {}", categoryId);
+    public PageResponse<ProductResponse> getProductsByCategory(Long categoryId, boolean includeDescendants,
+                                                               Pageable pageable) {
+        log.debug("Fetching products by category: {} (descendants: {})", categoryId, includeDescendants);
 
         // Verify category exists
-        if (!categoryRepository.existsById(categoryId)) {
+        CategoryTree tree = categoryTreeManager.tree();
+        if (tree.get(categoryId) == null) {
             throw new ResourceNotFoundException("Category not found with id: " + categoryId);
         }
 
-        Page<Product> productPage = productRepository.findByCategoryIdAndIsActiveTrue(categoryId, pageable);
+        // Subtree ids come from the snapshot; the IN list is served by idx_product_category_active
+        Page<Product> productPage = includeDescendants
+                ? productRepository.findByCategoryIdInAndIsActiveTrue(tree.descendantIds(categoryId), pageable)
+                : productRepository.findByCategoryIdAndIsActiveTrue(categoryId, pageable);
         List<ProductResponse> products = productMapper.toResponseList(productPage.getContent());
 
         return PageResponse.of(
@@ -180,6 +190,34 @@ public class ProductServiceImpl implements ProductService {
         );
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<ProductSummaryResponse> getProductSummaries(Long categoryId, boolean includeDescendants,
+                                                                    Pageable pageable) {
+        log.debug("Fetching product summaries (category: {}, descendants: {})", categoryId, includeDescendants);
+
+        // Constructor projection: one select with the category join, no entities or seller rows
+        Page<ProductSummaryResponse> summaryPage;
+        if (categoryId == null) {
+            summaryPage = productRepository.findActiveSummaries(pageable);
+        } else {
+            CategoryTree tree = categoryTreeManager.tree();
+            if (tree.get(categoryId) == null) {
+                throw new ResourceNotFoundException("Category not found with id: " + categoryId);
+            }
+            summaryPage = productRepository.findActiveSummariesByCategoryIds(
+                    includeDescendants ? tree.descendantIds(categoryId) : List.of(categoryId), pageable);
+        }
+
+        return PageResponse.of(
+                summaryPage.getContent(),
+                summaryPage.getNumber(),
+                summaryPage.getSize(),
+                summaryPage.getTotalElements(),
+                summaryPage.getTotalPages()
+        );
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PageResponse<ProductResponse> getProductsBySeller(Long sellerId, Pageable pageable) {
@@ -378,13 +416,14 @@ public class ProductServiceImpl implements ProductService {
             Category newCategory = categoryRepository.findById(request.getCategoryId())
                     .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
 
-            categoryRepository.decrementProductCount(oldCategory.getId());
-            categoryRepository.incrementProductCount(newCategory.getId());
+            categoryCountAggregator.add(oldCategory.getId(), -1);
+            categoryCountAggregator.add(newCategory.getId(), 1);
             product.setCategory(newCategory);
         }
 
         productMapper.updateEntityFromRequest(request, product);
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductSnapshotCache.ProductChanged(productId));
 
         log.info("Product updated successfully: {}", productId);
         return productMapper.toResponse(updatedProduct);
@@ -425,6 +464,7 @@ public class ProductServiceImpl implements ProductService {
 
         product.setIsActive(isActive);
         productRepository.save(product);
+        eventPublisher.publishEvent(new ProductSnapshotCache.ProductChanged(productId));
 
         log.info("Product status toggled: {} - active: {}", productId, isActive);
     }
@@ -438,10 +478,11 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
 
-        // Decrement category product count
-        categoryRepository.decrementProductCount(product.getCategory().getId());
+        // Category product count is applied in batches after commit
+        categoryCountAggregator.add(product.getCategory().getId(), -1);
 
         productRepository.delete(product);
+        eventPublisher.publishEvent(new ProductSnapshotCache.ProductChanged(productId));
         log.info("Product deleted: {}", productId);
     }
 
@@ -0,0 +1,336 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import com.peterscode.ecommerce_management_system.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-mostly table of productId → (active, actual price, available stock, inventory version)
+ * used by cart and checkout validation instead of loading the Product and Inventory rows.
+ * <p>
+ * Entries live in primitive arrays indexed by product id and are read without locks under a
+ * per-slot sequence number (odd while a write is in progress). Writes are serialized and only
+ * applied when they are newer than what is stored: stock by the inventory {@code @Version},
+ * price and status by {@code products.updated_at}. Entries are reloaded after every commit
+ * that publishes {@link ProductChanged}, and the whole table is refreshed on a fixed delay so
+ * changes made on other instances are picked up. Reservation rechecks the version against the
+ * locked inventory row (see {@link #recheck}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSnapshotCache {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private static final String SELECT_SQL = "SELECT p.id, p.is_active, p.price, p.discount_price, p.updated_at, " +
+            "i.quantity, i.reserved_quantity, i.version FROM products p LEFT JOIN inventory i ON i.product_id = p.id";
+
+    private static final byte PRESENT = 1;
+    private static final byte ACTIVE = 2;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    @Value("${app.product-snapshot.max-product-id:4000000}")
+    private int maxProductId;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+
+    private Counter hits;
+    private Counter misses;
+
+    /**
+     * Published by product and inventory writes; the entry is reloaded after commit
+     */
+    public record ProductChanged(Long productId) {
+    }
+
+    public record Snapshot(long productId, boolean active, long priceCents, int availableStock, long version) {
+
+        public BigDecimal actualPrice() {
+            return BigDecimal.valueOf(priceCents, 2);
+        }
+    }
+
+    private record Row(long id, boolean active, long priceCents, long productStamp, int availableStock,
+                       long inventoryVersion) {
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("product.snapshot.size", size, AtomicInteger::get).register(meterRegistry);
+        hits = meterRegistry.counter("product.snapshot.lookups", "result", "hit");
+        misses = meterRegistry.counter("product.snapshot.lookups", "result", "miss");
+    }
+
+    /**
+     * Cached entry, or null if the product is not in the table
+     */
+    public Snapshot get(Long productId) {
+        Table current = table;
+        if (productId == null || productId < 0 || productId >= current.flags.length) {
+            return null;
+        }
+        int slot = productId.intValue();
+
+        while (true) {
+            long stamp = current.sequence.get(slot);
+            if ((stamp & 1) == 0) {
+                byte flags = current.flags[slot];
+                long price = current.prices[slot];
+                int stock = current.stocks[slot];
+                long version = current.versions[slot];
+                VarHandle.acquireFence();
+                if (current.sequence.get(slot) == stamp) {
+                    return (flags & PRESENT) == 0
+                            ? null
+                            : new Snapshot(slot, (flags & ACTIVE) != 0, price, stock, version);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Cached entry, loading the product on a miss
+     *
+     * @throws ResourceNotFoundException if the product does not exist
+     */
+    public Snapshot require(Long productId) {
+        Snapshot snapshot = get(productId);
+        if (snapshot != null) {
+            hits.increment();
+            return snapshot;
+        }
+
+        misses.increment();
+        List<Row> rows = jdbcTemplate.query(SELECT_SQL + " WHERE p.id = ?", this::mapRow, productId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Product not found");
+        }
+        Row row = rows.get(0);
+        apply(row);
+        return new Snapshot(row.id(), row.active(), row.priceCents(), row.availableStock(), row.inventoryVersion());
+    }
+
+    /**
+     * Compare the cached stock with the inventory row being reserved against and correct it if stale
+     */
+    public void recheck(Long productId, int availableStock, Long inventoryVersion) {
+        long version = inventoryVersion != null ? inventoryVersion : 0L;
+        Snapshot snapshot = get(productId);
+        if (snapshot == null || snapshot.version() >= version) {
+            return;
+        }
+
+        log.debug("Stale snapshot for product {} (version {} < {}), correcting", productId, snapshot.version(), version);
+        writeLock.lock();
+        try {
+            Table current = table;
+            int slot = productId.intValue();
+            if (current.versions[slot] < version) {
+                current.sequence.incrementAndGet(slot);
+                current.stocks[slot] = availableStock;
+                current.versions[slot] = version;
+                current.sequence.incrementAndGet(slot);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChanged event) {
+        try {
+            List<Row> rows = jdbcTemplate.query(SELECT_SQL + " WHERE p.id = ?", this::mapRow, event.productId());
+            if (rows.isEmpty()) {
+                remove(event.productId());
+            } else {
+                apply(rows.get(0));
+            }
+        } catch (Exception e) {
+            // The periodic refresh will pick the change up
+            log.warn("Failed to refresh snapshot for product {}: {}", event.productId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Full reload; also drops entries for products that no longer exist
+     */
+    @Scheduled(fixedDelayString = "${app.product-snapshot.refresh-interval-ms:60000}")
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        BitSet seen = new BitSet();
+        try {
+            jdbcTemplate.query(SELECT_SQL, rs -> {
+                Row row = mapRow(rs, 0);
+                apply(row);
+                if (row.id() <= maxProductId) {
+                    seen.set((int) row.id());
+                }
+            });
+        } catch (Exception e) {
+            log.error("Product snapshot refresh failed: {}", e.getMessage());
+            return;
+        }
+
+        Table current = table;
+        for (int slot = 0; slot < current.flags.length; slot++) {
+            if ((current.flags[slot] & PRESENT) != 0 && !seen.get(slot)) {
+                remove((long) slot);
+            }
+        }
+        log.debug("Product snapshot refreshed: {} products in {}ms", size.get(), System.currentTimeMillis() - start);
+    }
+
+    private void apply(Row row) {
+        if (row.id() < 0 || row.id() > maxProductId) {
+            return;
+        }
+        int slot = (int) row.id();
+
+        writeLock.lock();
+        try {
+            Table current = ensureCapacity(slot);
+            boolean present = (current.flags[slot] & PRESENT) != 0;
+            boolean productNewer = !present || row.productStamp() >= current.productStamps[slot];
+            boolean stockNewer = !present || row.inventoryVersion() >= current.versions[slot];
+            if (!productNewer && !stockNewer) {
+                return;
+            }
+
+            current.sequence.incrementAndGet(slot);
+            if (productNewer) {
+                current.flags[slot] = (byte) (PRESENT | (row.active() ? ACTIVE : 0));
+                current.prices[slot] = row.priceCents();
+                current.productStamps[slot] = row.productStamp();
+            }
+            if (stockNewer) {
+                current.stocks[slot] = row.availableStock();
+                current.versions[slot] = row.inventoryVersion();
+            }
+            current.sequence.incrementAndGet(slot);
+
+            if (!present) {
+                size.incrementAndGet();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void remove(Long productId) {
+        if (productId == null || productId < 0 || productId > maxProductId) {
+            return;
+        }
+        int slot = productId.intValue();
+
+        writeLock.lock();
+        try {
+            Table current = table;
+            if (slot >= current.flags.length || (current.flags[slot] & PRESENT) == 0) {
+                return;
+            }
+            current.sequence.incrementAndGet(slot);
+            current.flags[slot] = 0;
+            current.productStamps[slot] = 0;
+            current.versions[slot] = 0;
+            current.sequence.incrementAndGet(slot);
+            size.decrementAndGet();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Grow to the next power of two above the slot; called with the write lock held
+     */
+    private Table ensureCapacity(int slot) {
+        Table current = table;
+        if (slot < current.flags.length) {
+            return current;
+        }
+        int capacity = Math.max(Integer.highestOneBit(slot) << 1, INITIAL_CAPACITY);
+        Table grown = current.copy(Math.min(capacity, maxProductId + 1));
+        table = grown;
+        return grown;
+    }
+
+    private Row mapRow(ResultSet rs, int rowNum) throws SQLException {
+        BigDecimal price = rs.getBigDecimal("price");
+        BigDecimal discountPrice = rs.getBigDecimal("discount_price");
+        BigDecimal actualPrice = discountPrice != null && discountPrice.compareTo(BigDecimal.ZERO) > 0
+                ? discountPrice
+                : (price != null ? price : BigDecimal.ZERO);
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+
+        return new Row(
+                rs.getLong("id"),
+                rs.getBoolean("is_active"),
+                actualPrice.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact(),
+                updatedAt != null ? updatedAt.getTime() * 1000 + (updatedAt.getNanos() / 1000) % 1000 : 0L,
+                Math.max(rs.getInt("quantity") - rs.getInt("reserved_quantity"), 0),
+                rs.getLong("version"));
+    }
+
+    private static final class Table {
+        private final AtomicLongArray sequence;
+        private final byte[] flags;
+        private final long[] prices;
+        private final long[] productStamps;
+        private final int[] stocks;
+        private final long[] versions;
+
+        private Table(int capacity) {
+            this(new AtomicLongArray(capacity), new byte[capacity], new long[capacity], new long[capacity],
+                    new int[capacity], new long[capacity]);
+        }
+
+        private Table(AtomicLongArray sequence, byte[] flags, long[] prices, long[] productStamps,
+                      int[] stocks, long[] versions) {
+            this.sequence = sequence;
+            this.flags = flags;
+            this.prices = prices;
+            this.productStamps = productStamps;
+            this.stocks = stocks;
+            this.versions = versions;
+        }
+
+        private Table copy(int capacity) {
+            AtomicLongArray grownSequence = new AtomicLongArray(capacity);
+            for (int i = 0; i < sequence.length(); i++) {
+                grownSequence.set(i, sequence.get(i));
+            }
+            return new Table(grownSequence,
+                    Arrays.copyOf(flags, capacity),
+                    Arrays.copyOf(prices, capacity),
+                    Arrays.copyOf(productStamps, capacity),
+                    Arrays.copyOf(stocks, capacity),
+                    Arrays.copyOf(versions, capacity));
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import com.peterscode.ecommerce_management_system.exception.BadRequestException;
+import com.peterscode.ecommerce_management_system.exception.InsufficientStockException;
+import com.peterscode.ecommerce_management_system.exception.ResourceNotFoundException;
+import com.peterscode.ecommerce_management_system.model.dto.common.CartItemDTO;
+import com.peterscode.ecommerce_management_system.model.dto.request.CartItemRequest;
+import com.peterscode.ecommerce_management_system.model.dto.response.CartResponse;
+import com.peterscode.ecommerce_management_system.model.entity.Product;
+import com.peterscode.ecommerce_management_system.repository.CartRepository;
+import com.peterscode.ecommerce_management_system.repository.ProductRepository;
+import com.peterscode.ecommerce_management_system.service.CartService;
+import com.peterscode.ecommerce_management_system.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart store backed by one Redis hash per cart ({@code cart:user:{id}} or {@code cart:guest:{session}}).
+ * <p>
+ * Each line is a {@code p:{productId}} field holding {@code quantity:unitPriceCents} plus a
+ * {@code m:{productId}} field with the display data captured when it was added. Item count
+ * and subtotal live in {@code _items} and {@code _subtotal} and are adjusted by the same Lua
+ * script that changes a line, so a mutation is one round trip and never rewrites the cart.
+ * Guest carts expire after {@code guest-ttl-hours} of inactivity. Carts in this mode never
+ * reach the carts/cart_items tables; checkout builds the order from the request.
+ * <p>
+ * Cart item ids in this mode are product ids.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "redis")
+public class RedisCartServiceImpl implements CartService {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CartRepository cartRepository;
+    private final ProductRepository productRepository;
+    private final InventoryService inventoryService;
+    private final ProductSnapshotCache productSnapshotCache;
+
+    private static final String USER_CART_KEY = "cart:user:";
+    private static final String GUEST_CART_KEY = "cart:guest:";
+    private static final String LINE_PREFIX = "p:";
+    private static final String META_PREFIX = "m:";
+    private static final String META_SEPARATOR = "\u001f";
+    private static final String ITEMS_FIELD = "_items";
+    private static final String SUBTOTAL_FIELD = "_subtotal";
+    private static final String COUPON_FIELD = "_coupon";
+    private static final String CREATED_FIELD = "_created";
+    private static final String UPDATED_FIELD = "_updated";
+
+    private static final long NOT_IN_CART = -2;
+    private static final long OVER_LIMIT = -1;
+
+    /**
+     * Changes one line and the running totals. Modes: add (existing + quantity), cap (add but
+     * clamp to the limit) and set (replace; 0 removes). The unit price stays the one captured
+     * when the line was first added. Returns the new quantity, -1 over limit, -2 not in cart.
+     */
+    private static final DefaultRedisScript<Long> LINE_SCRIPT = new DefaultRedisScript<>(
+            "local field = 'p:' .. ARGV[1] " +
+            "local line = redis.call('HGET', KEYS[1], field) " +
+            "local mode = ARGV[5] " +
+            "if not line and mode == 'set' then return -2 end " +
+            "local oldQty, price = 0, tonumber(ARGV[3]) " +
+            "if line then " +
+            "  local sep = string.find(line, ':', 1, true) " +
+            "  oldQty = tonumber(string.sub(line, 1, sep - 1)) " +
+            "  price = tonumber(string.sub(line, sep + 1)) " +
+            "end " +
+            "local limit = tonumber(ARGV[4]) " +
+            "local newQty = tonumber(ARGV[2]) " +
+            "if mode ~= 'set' then newQty = oldQty + newQty end " +
+            "if newQty > limit then " +
+            "  if mode ~= 'cap' then return -1 end " +
+            "  newQty = limit " +
+            "end " +
+            "if newQty <= 0 then " +
+            "  newQty = 0 " +
+            "  redis.call('HDEL', KEYS[1], field, 'm:' .. ARGV[1]) " +
+            "else " +
+            "  redis.call('HSET', KEYS[1], field, newQty .. ':' .. price) " +
+            "  if not line then redis.call('HSET', KEYS[1], 'm:' .. ARGV[1], ARGV[8]) end " +
+            "end " +
+            "redis.call('HINCRBY', KEYS[1], '_items', newQty - oldQty) " +
+            "redis.call('HINCRBY', KEYS[1], '_subtotal', (newQty - oldQty) * price) " +
+            "redis.call('HSETNX', KEYS[1], '_created', ARGV[7]) " +
+            "redis.call('HSET', KEYS[1], '_updated', ARGV[7]) " +
+            "if tonumber(ARGV[6]) > 0 then redis.call('PEXPIRE', KEYS[1], ARGV[6]) end " +
+            "return newQty",
+            Long.class);
+
+    /**
+     * Drops every line but keeps the coupon and creation time.
+     */
+    private static final DefaultRedisScript<Long> CLEAR_SCRIPT = new DefaultRedisScript<>(
+            "local coupon = redis.call('HGET', KEYS[1], '_coupon') " +
+            "local created = redis.call('HGET', KEYS[1], '_created') " +
+            "redis.call('DEL', KEYS[1]) " +
+            "redis.call('HSET', KEYS[1], '_items', 0, '_subtotal', 0, '_created', created or ARGV[1], '_updated', ARGV[1]) " +
+            "if coupon then redis.call('HSET', KEYS[1], '_coupon', coupon) end " +
+            "if tonumber(ARGV[2]) > 0 then redis.call('PEXPIRE', KEYS[1], ARGV[2]) end " +
+            "return 1",
+            Long.class);
+
+    @Value("${app.cart.redis.guest-ttl-hours:72}")
+    private long guestTtlHours;
+
+    @Override
+    public CartResponse getCart(Long userId) {
+        return toResponse(userKey(userId), userId, null);
+    }
+
+    @Override
+    public CartResponse getCartBySessionId(String sessionId) {
+        return toResponse(guestKey(sessionId), null, sessionId);
+    }
+
+    @Override
+    public CartResponse addItemToCart(Long userId, CartItemRequest request) {
+        addItem(userKey(userId), 0, request);
+        log.info("Item added to cart for user: {}", userId);
+        return getCart(userId);
+    }
+
+    @Override
+    public CartResponse addItemToGuestCart(String sessionId, CartItemRequest request) {
+        addItem(guestKey(sessionId), guestTtlMillis(), request);
+        log.info("Item added to guest cart: {}", sessionId);
+        return getCartBySessionId(sessionId);
+    }
+
+    @Override
+    public CartResponse updateCartItem(Long userId, Long cartItemId, Integer quantity) {
+        Integer availableStock = availableStock(productSnapshotCache.require(cartItemId), quantity);
+        if (availableStock < quantity) {
+            throw new InsufficientStockException("Insufficient stock. Available: " + availableStock);
+        }
+
+        Long result = changeLine(userKey(userId), 0, cartItemId, quantity, 0, availableStock, "set", "");
+        if (result == NOT_IN_CART) {
+            throw new ResourceNotFoundException("Cart item not found: " + cartItemId);
+        }
+
+        log.info("Cart item {} updated to quantity: {}", cartItemId, quantity);
+        return getCart(userId);
+    }
+
+    @Override
+    public CartResponse removeItemFromCart(Long userId, Long cartItemId) {
+        Long result = changeLine(userKey(userId), 0, cartItemId, 0, 0, 0, "set", "");
+        if (result == NOT_IN_CART) {
+            throw new ResourceNotFoundException("Cart item not found: " + cartItemId);
+        }
+        return getCart(userId);
+    }
+
+    @Override
+    public CartResponse clearCart(Long userId) {
+        stringRedisTemplate.execute(CLEAR_SCRIPT, List.of(userKey(userId)),
+                String.valueOf(System.currentTimeMillis()), "0");
+        log.info("Cart cleared for user: {}", userId);
+        return getCart(userId);
+    }
+
+    @Override
+    public CartResponse applyCoupon(Long userId, String couponCode) {
+        stringRedisTemplate.opsForHash().put(userKey(userId), COUPON_FIELD, couponCode);
+        return getCart(userId);
+    }
+
+    @Override
+    public CartResponse removeCoupon(Long userId) {
+        stringRedisTemplate.opsForHash().delete(userKey(userId), COUPON_FIELD);
+        return getCart(userId);
+    }
+
+    @Override
+    public void mergeGuestCartWithUserCart(String sessionId, Long userId) {
+        String guestKey = guestKey(sessionId);
+        Map<Object, Object> guestCart = stringRedisTemplate.opsForHash().entries(guestKey);
+
+        String userKey = userKey(userId);
+        for (Map.Entry<Object, Object> entry : guestCart.entrySet()) {
+            String field = (String) entry.getKey();
+            if (!field.startsWith(LINE_PREFIX)) {
+                continue;
+            }
+            Long productId = Long.valueOf(field.substring(LINE_PREFIX.length()));
+            long[] line = parseLine((String) entry.getValue());
+            String meta = (String) guestCart.getOrDefault(META_PREFIX + productId, "");
+
+            // Combined quantity is clamped to the available stock rather than rejected
+            int limit = availableStock(productSnapshotCache.require(productId), (int) line[0]);
+            changeLine(userKey, 0, productId, (int) line[0], line[1], limit, "cap", meta);
+        }
+
+        stringRedisTemplate.delete(guestKey);
+        log.info("Merged guest cart {} into user cart {}", sessionId, userId);
+    }
+
+    @Override
+    @Transactional
+    public void deleteCart(Long userId) {
+        stringRedisTemplate.delete(userKey(userId));
+        cartRepository.deleteByUserId(userId);
+    }
+
+    // --- Helpers ---
+
+    private void addItem(String key, long ttlMillis, CartItemRequest request) {
+        ProductSnapshotCache.Snapshot snapshot = productSnapshotCache.require(request.getProductId());
+
+        if (!snapshot.active()) {
+            throw new BadRequestException("Product is not available");
+        }
+
+        Integer availableStock = availableStock(snapshot, request.getQuantity());
+        if (availableStock < request.getQuantity()) {
+            throw new InsufficientStockException("Insufficient stock. Available: " + availableStock);
+        }
+
+        // Display data is only needed (and the product only loaded) when the line is new
+        String meta = "";
+        if (!stringRedisTemplate.opsForHash().hasKey(key, LINE_PREFIX + snapshot.productId())) {
+            Product product = productRepository.findById(request.getProductId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+            meta = String.join(META_SEPARATOR,
+                    nullToEmpty(product.getName()), nullToEmpty(product.getSku()), nullToEmpty(product.getImageUrl()));
+        }
+
+        Long result = changeLine(key, ttlMillis, request.getProductId(), request.getQuantity(),
+                snapshot.priceCents(), availableStock, "add", meta);
+        if (result == OVER_LIMIT) {
+            throw new InsufficientStockException("Cannot add more. Max available: " + availableStock);
+        }
+    }
+
+    private Long changeLine(String key, long ttlMillis, Long productId, int quantity, long unitCents,
+                            int limit, String mode, String meta) {
+        return stringRedisTemplate.execute(LINE_SCRIPT, List.of(key),
+                String.valueOf(productId),
+                String.valueOf(quantity),
+                String.valueOf(unitCents),
+                String.valueOf(limit),
+                mode,
+                String.valueOf(ttlMillis),
+                String.valueOf(System.currentTimeMillis()),
+                meta);
+    }
+
+    private CartResponse toResponse(String key, Long userId, String sessionId) {
+        Map<Object, Object> hash = stringRedisTemplate.opsForHash().entries(key);
+
+        List<CartItemDTO> items = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : hash.entrySet()) {
+            String field = (String) entry.getKey();
+            if (!field.startsWith(LINE_PREFIX)) {
+                continue;
+            }
+            Long productId = Long.valueOf(field.substring(LINE_PREFIX.length()));
+            long[] line = parseLine((String) entry.getValue());
+            String[] meta = ((String) hash.getOrDefault(META_PREFIX + productId, "")).split(META_SEPARATOR, -1);
+            BigDecimal unitPrice = fromCents(line[1]);
+
+            items.add(CartItemDTO.builder()
+                    .id(productId)
+                    .productId(productId)
+                    .productName(meta.length > 0 ? emptyToNull(meta[0]) : null)
+                    .productSku(meta.length > 1 ? emptyToNull(meta[1]) : null)
+                    .productImageUrl(meta.length > 2 ? emptyToNull(meta[2]) : null)
+                    .quantity((int) line[0])
+                    .unitPrice(unitPrice)
+                    .totalPrice(unitPrice.multiply(BigDecimal.valueOf(line[0])))
+                    .isAvailable(true)
+                    .build());
+        }
+        items.sort(Comparator.comparing(CartItemDTO::getProductId));
+
+        BigDecimal subtotal = fromCents(parseLong(hash.get(SUBTOTAL_FIELD)));
+        return CartResponse.builder()
+                .userId(userId)
+                .sessionId(sessionId)
+                .items(items)
+                .totalItems((int) parseLong(hash.get(ITEMS_FIELD)))
+                .subtotal(subtotal)
+                .discountAmount(BigDecimal.ZERO)
+                .taxAmount(BigDecimal.ZERO)
+                .totalAmount(subtotal)
+                .couponCode((String) hash.get(COUPON_FIELD))
+                .createdAt(toDateTime(hash.get(CREATED_FIELD)))
+                .updatedAt(toDateTime(hash.get(UPDATED_FIELD)))
+                .build();
+    }
+
+    /**
+     * The snapshot can lag writes made on other instances, so a shortfall is confirmed
+     * with InventoryService before it is reported
+     */
+    private int availableStock(ProductSnapshotCache.Snapshot product, int requiredQuantity) {
+        if (product.availableStock() >= requiredQuantity) {
+            return product.availableStock();
+        }
+        return inventoryService.getStock(product.productId());
+    }
+
+    private String userKey(Long userId) {
+        return USER_CART_KEY + userId;
+    }
+
+    private String guestKey(String sessionId) {
+        return GUEST_CART_KEY + sessionId;
+    }
+
+    private long guestTtlMillis() {
+        return TimeUnit.HOURS.toMillis(guestTtlHours);
+    }
+
+    private static long[] parseLine(String value) {
+        int separator = value.indexOf(':');
+        return new long[]{
+                Long.parseLong(value.substring(0, separator)),
+                Long.parseLong(value.substring(separator + 1))
+        };
+    }
+
+    private static long parseLong(Object value) {
+        return value != null ? Long.parseLong((String) value) : 0L;
+    }
+
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static LocalDateTime toDateTime(Object millis) {
+        return millis != null
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong((String) millis)), ZoneId.systemDefault())
+                : null;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
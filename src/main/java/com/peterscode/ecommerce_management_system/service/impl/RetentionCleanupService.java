@@ -0,0 +1,51 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Scheduled TTL cleanups for notifications and the email outbox, run through
+ * {@link ChunkedCleanupRunner}. Audit logs are handled by partition rollover instead
+ * (see AuditLogPartitionManager).
+ * <p>
+ * Chunks read the oldest rows off the expiry indexes (V14 migration) without locking; the
+ * deletes check the predicate again before removing anything, and deleted rows leave the
+ * index, so the next chunk starts from the oldest row left.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RetentionCleanupService {
+
+    private final ChunkedCleanupRunner cleanupRunner;
+
+    static final ChunkedCleanupRunner.Job EXPIRED_NOTIFICATIONS = new ChunkedCleanupRunner.Job(
+            "expired-notifications",
+            "SELECT id FROM notifications WHERE expires_at < :cutoff ORDER BY expires_at, id LIMIT :limit",
+            List.of("DELETE FROM notifications WHERE id IN (:ids) AND expires_at < :cutoff"));
+
+    static final ChunkedCleanupRunner.Job SENT_EMAILS = new ChunkedCleanupRunner.Job(
+            "sent-emails",
+            "SELECT id FROM email_outbox WHERE status = 'SENT' AND sent_at < :cutoff " +
+                    "ORDER BY sent_at, id LIMIT :limit",
+            List.of("DELETE FROM email_outbox WHERE id IN (:ids) AND status = 'SENT' AND sent_at < :cutoff"));
+
+    @Value("${app.cleanup.email-outbox.sent-retention-days:7}")
+    private long sentEmailRetentionDays;
+
+    @Scheduled(cron = "${app.cleanup.notifications.cron:0 30 3 * * ?}")
+    public void cleanupExpiredNotifications() {
+        cleanupRunner.run(EXPIRED_NOTIFICATIONS, LocalDateTime.now());
+    }
+
+    @Scheduled(cron = "${app.cleanup.email-outbox.cron:0 45 3 * * ?}")
+    public void cleanupSentEmails() {
+        cleanupRunner.run(SENT_EMAILS, LocalDateTime.now().minusDays(sentEmailRetentionDays));
+    }
+}
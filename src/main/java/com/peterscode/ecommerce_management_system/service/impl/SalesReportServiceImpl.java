@@ -0,0 +1,143 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import com.peterscode.ecommerce_management_system.exception.BadRequestException;
+import com.peterscode.ecommerce_management_system.model.dto.response.SalesReportResponse;
+import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
+import com.peterscode.ecommerce_management_system.model.enums.ReportGranularity;
+import com.peterscode.ecommerce_management_system.model.enums.SalesDimension;
+import com.peterscode.ecommerce_management_system.service.SalesReportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Sales reports read only from the rollups maintained by {@link SalesRollupManager}; they lag
+ * live orders by at most one rollup flush.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalesReportServiceImpl implements SalesReportService {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final SalesRollupManager salesRollupManager;
+
+    @Qualifier("taskExecutor")
+    private final Executor taskExecutor;
+
+    static final Set<OrderStatus> SALE_STATUSES = EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.PROCESSING,
+            OrderStatus.SHIPPED, OrderStatus.OUT_FOR_DELIVERY, OrderStatus.DELIVERED);
+
+    private static final String SERIES_SQL = "SELECT bucket_start, SUM(order_count) AS total_orders, " +
+            "SUM(units) AS total_units, SUM(revenue) AS total_revenue FROM %s " +
+            "WHERE dimension = 'TOTAL' AND bucket_start >= :from AND bucket_start < :to AND status IN (:statuses) " +
+            "GROUP BY bucket_start ORDER BY bucket_start";
+
+    private static final String TOP_SQL = "SELECT dimension_id, SUM(order_count) AS total_orders, " +
+            "SUM(units) AS total_units, SUM(revenue) AS total_revenue FROM sales_rollup_daily " +
+            "WHERE dimension = :dimension AND bucket_start >= :from AND bucket_start < :to AND status IN (:statuses) " +
+            "GROUP BY dimension_id ORDER BY total_revenue DESC, dimension_id LIMIT :limit";
+
+    private static final Map<SalesDimension, String> NAME_SQL = new EnumMap<>(Map.of(
+            SalesDimension.PRODUCT, "SELECT id, name FROM products WHERE id IN (:ids)",
+            SalesDimension.CATEGORY, "SELECT id, name FROM categories WHERE id IN (:ids)",
+            SalesDimension.SELLER, "SELECT id, CONCAT(first_name, ' ', last_name) AS name FROM users WHERE id IN (:ids)"));
+
+    @Value("${app.sales-rollup.max-hourly-days:31}")
+    private int maxHourlyDays;
+
+    @Value("${app.sales-rollup.max-top-limit:100}")
+    private int maxTopLimit;
+
+    @Override
+    public SalesReportResponse getSalesReport(LocalDate from, LocalDate to, SalesDimension dimension,
+                                              ReportGranularity granularity, Set<OrderStatus> statuses, int limit) {
+        validateRange(from, to);
+        Set<OrderStatus> effectiveStatuses = statuses == null || statuses.isEmpty() ? SALE_STATUSES : statuses;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", from.atStartOfDay())
+                .addValue("to", to.plusDays(1).atStartOfDay())
+                .addValue("statuses", effectiveStatuses.stream().map(Enum::name).toList());
+
+        SalesReportResponse.SalesReportResponseBuilder report = SalesReportResponse.builder()
+                .from(from)
+                .to(to)
+                .dimension(dimension)
+                .statuses(List.copyOf(effectiveStatuses));
+
+        if (dimension == SalesDimension.TOTAL) {
+            if (granularity == ReportGranularity.HOUR && ChronoUnit.DAYS.between(from, to) >= maxHourlyDays) {
+                throw new BadRequestException("Hourly reports cover at most " + maxHourlyDays + " days");
+            }
+            String table = granularity == ReportGranularity.HOUR ? "sales_rollup_hourly" : "sales_rollup_daily";
+            List<SalesReportResponse.Row> rows = namedParameterJdbcTemplate.query(String.format(SERIES_SQL, table),
+                    params, (rs, rowNum) -> SalesReportResponse.Row.builder()
+                            .bucket(rs.getTimestamp("bucket_start").toLocalDateTime())
+                            .orders(rs.getLong("total_orders"))
+                            .units(rs.getLong("total_units"))
+                            .revenue(rs.getBigDecimal("total_revenue"))
+                            .build());
+            return report.granularity(granularity).rows(rows).build();
+        }
+
+        if (limit < 1 || limit > maxTopLimit) {
+            throw new BadRequestException("Limit must be between 1 and " + maxTopLimit);
+        }
+        params.addValue("dimension", dimension.name()).addValue("limit", limit);
+        List<SalesReportResponse.Row> rows = namedParameterJdbcTemplate.query(TOP_SQL, params,
+                (rs, rowNum) -> SalesReportResponse.Row.builder()
+                        .dimensionId(rs.getLong("dimension_id"))
+                        .orders(rs.getLong("total_orders"))
+                        .units(rs.getLong("total_units"))
+                        .revenue(rs.getBigDecimal("total_revenue"))
+                        .build());
+        nameRows(dimension, rows);
+        return report.rows(rows).build();
+    }
+
+    // Names are looked up for the returned entries only
+    private void nameRows(SalesDimension dimension, List<SalesReportResponse.Row> rows) {
+        List<Long> ids = rows.stream().map(SalesReportResponse.Row::getDimensionId).filter(id -> id != 0).toList();
+        Map<Long, String> names = new HashMap<>();
+        if (!ids.isEmpty()) {
+            namedParameterJdbcTemplate.query(NAME_SQL.get(dimension), Map.of("ids", ids),
+                    rs -> {
+                        names.put(rs.getLong("id"), rs.getString("name"));
+                    });
+        }
+        for (SalesReportResponse.Row row : rows) {
+            row.setName(row.getDimensionId() == 0 ? "Unassigned" : names.get(row.getDimensionId()));
+        }
+    }
+
+    @Override
+    public void backfill(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        CompletableFuture.runAsync(() -> salesRollupManager.backfill(from, to), taskExecutor)
+                .exceptionally(e -> {
+                    log.error("Sales rollup backfill for {} to {} failed", from, to, e);
+                    return null;
+                });
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new BadRequestException("'from' must be on or before 'to'");
+        }
+    }
+}
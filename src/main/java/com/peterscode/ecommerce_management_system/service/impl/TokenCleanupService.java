@@ -1,40 +1,39 @@
 package com.peterscode.ecommerce_management_system.service.impl;
 
-import com.peterscode.ecommerce_management_system.repository.VerificationTokenRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TokenCleanupService {
 
-    private final VerificationTokenRepository verificationTokenRepository;
+    private final ChunkedCleanupRunner cleanupRunner;
+
+    /**
+     * Reads the oldest expired tokens off idx_expires_at without locking; the delete checks the
+     * expiry again before removing a row
+     */
+    static final ChunkedCleanupRunner.Job EXPIRED_VERIFICATION_TOKENS = new ChunkedCleanupRunner.Job(
+            "expired-verification-tokens",
+            "SELECT id FROM verification_tokens WHERE expires_at < :cutoff ORDER BY expires_at, id LIMIT :limit",
+            List.of("DELETE FROM verification_tokens WHERE id IN (:ids) AND expires_at < :cutoff"));
 
     /**
      * Runs automatically every day at 3:00 AM server time.
      * Cron expression format: "Seconds Minutes Hours DayMonth Month DayWeek"
      * "0 0 3 * * ?" = At 03:00:00am every day
+     * <p>
+     * Only the node holding the cleanup lease does the work, in small chunks.
      */
-    @Scheduled(cron = "0 0 3 * * ?")
-    @Transactional
+    @Scheduled(cron = "${app.cleanup.tokens.cron:0 0 3 * * ?}")
     public void cleanupExpiredTokens() {
         log.info("Starting scheduled cleanup of expired verification tokens...");
-
-        try {
-            LocalDateTime now = LocalDateTime.now();
-
-            // This calls the custom JPQL query we added to your repository earlier
-            verificationTokenRepository.deleteExpiredTokens(now);
-
-            log.info("Expired token cleanup completed successfully at {}", now);
-        } catch (Exception e) {
-            log.error("Failed to cleanup expired tokens: {}", e.getMessage(), e);
-        }
+        cleanupRunner.run(EXPIRED_VERIFICATION_TOKENS, LocalDateTime.now());
     }
-}
\ No newline at end of file
+}
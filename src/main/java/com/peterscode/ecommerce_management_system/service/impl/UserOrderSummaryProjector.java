@@ -0,0 +1,298 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.peterscode.ecommerce_management_system.model.entity.Order;
+import com.peterscode.ecommerce_management_system.model.enums.OrderStatus;
+import com.peterscode.ecommerce_management_system.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maintains user_order_summaries, the read model behind a customer's order history and stats.
+ * <p>
+ * Each row holds the user's total spent (delivered orders), order counts per status and the ids
+ * of their most recent orders, so those reads are a single primary-key lookup. Only ids are
+ * stored; order details are always loaded from orders, so edits to an order never leave a
+ * stale copy here.
+ * <p>
+ * Order writes apply a delta ({@link #orderCreated}, {@link #statusChanged},
+ * {@link #orderDeleted}) to the user's row inside their own transaction, creating an unbuilt
+ * placeholder row if needed and locking it. A read with no built row, or one built more than
+ * {@code max-age-minutes} ago, rebuilds it in its own transaction: it locks the row first and
+ * only then reads orders, so every order write either committed before the rebuild read orders
+ * or waits and applies its delta on top of the rebuilt row. Nothing is counted twice or lost.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserOrderSummaryProjector {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    private static final String SELECT_SQL = "SELECT total_spent, order_count, status_counts, recent_orders " +
+            "FROM user_order_summaries WHERE user_id = ? AND built_at > NOW(6) - INTERVAL ? MINUTE";
+
+    // built_at of a row no rebuild has filled in yet; SELECT_SQL never returns it
+    private static final String ENSURE_ROW_SQL = "INSERT IGNORE INTO user_order_summaries " +
+            "(user_id, status_counts, recent_orders, built_at, updated_at) " +
+            "VALUES (?, '{}', '[]', '1970-01-01 00:00:01', NOW(6))";
+
+    private static final String LOCK_ROW_SQL = "SELECT total_spent, order_count, status_counts, recent_orders " +
+            "FROM user_order_summaries WHERE user_id = ? FOR UPDATE";
+
+    private static final String STATUS_TOTALS_SQL = "SELECT status, COUNT(*) AS cnt, COALESCE(SUM(total_amount), 0) AS amount " +
+            "FROM orders WHERE user_id = ? GROUP BY status";
+
+    private static final String UPDATE_SQL = "UPDATE user_order_summaries SET total_spent = ?, order_count = ?, " +
+            "status_counts = ?, recent_orders = ?, updated_at = NOW(6) WHERE user_id = ?";
+
+    private static final String BUILD_SQL = "UPDATE user_order_summaries SET total_spent = ?, order_count = ?, " +
+            "status_counts = ?, recent_orders = ?, built_at = NOW(6), updated_at = NOW(6) WHERE user_id = ?";
+
+    private static final Sort RECENT_FIRST = Sort.by(Sort.Direction.DESC, "createdAt");
+
+    @Value("${app.order-summary.recent-orders:20}")
+    private int recentOrders;
+
+    @Value("${app.order-summary.max-age-minutes:60}")
+    private long maxAgeMinutes;
+
+    private TransactionTemplate rowTemplate;
+
+    public record Summary(BigDecimal totalSpent, long orderCount, Map<OrderStatus, Long> statusCounts,
+                          List<Long> recentOrderIds) {
+    }
+
+    /**
+     * One order's effect on its user's row; a null {@code from} is a new order, a null {@code to} a deleted one
+     */
+    private record Delta(Long userId, Long orderId, OrderStatus from, OrderStatus to, BigDecimal amount) {
+    }
+
+    @PostConstruct
+    void init() {
+        rowTemplate = new TransactionTemplate(transactionManager);
+        rowTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Each statement of a rebuild sees what committed before it, not a snapshot from its start
+        rowTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Count a newly saved order in the current transaction
+     */
+    public void orderCreated(Order order) {
+        record(new Delta(order.getUser().getId(), order.getId(), null, order.getStatus(), order.getTotalAmount()));
+    }
+
+    /**
+     * Move an order from {@code from} to its current status in the current transaction
+     */
+    public void statusChanged(Order order, OrderStatus from) {
+        if (from == order.getStatus()) {
+            return;
+        }
+        record(new Delta(order.getUser().getId(), order.getId(), from, order.getStatus(), order.getTotalAmount()));
+    }
+
+    /**
+     * Remove a deleted order in the current transaction
+     */
+    public void orderDeleted(Order order) {
+        record(new Delta(order.getUser().getId(), order.getId(), order.getStatus(), null, order.getTotalAmount()));
+    }
+
+    private void record(Delta delta) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            apply(delta);
+        } else {
+            rowTemplate.executeWithoutResult(status -> apply(delta));
+        }
+    }
+
+    /**
+     * Drop the users' summaries once the current transaction commits; each is built again on its
+     * next read. Used by bulk writes, where a delta per order would dominate.
+     */
+    public void invalidate(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(userIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    delete(ids);
+                }
+            });
+        } else {
+            delete(ids);
+        }
+    }
+
+    private void delete(List<Long> userIds) {
+        try {
+            namedParameterJdbcTemplate.update("DELETE FROM user_order_summaries WHERE user_id IN (:ids)",
+                    Map.of("ids", userIds));
+        } catch (Exception e) {
+            log.error("Failed to invalidate order summaries for {} users", userIds.size(), e);
+        }
+    }
+
+    public Summary find(Long userId) {
+        List<Summary> rows = jdbcTemplate.query(SELECT_SQL, this::mapRow, userId, maxAgeMinutes);
+        if (!rows.isEmpty()) {
+            return rows.get(0);
+        }
+        try {
+            return rowTemplate.execute(status -> rebuild(userId));
+        } catch (Exception e) {
+            log.warn("Failed to rebuild order summary for user {}, answering from orders: {}", userId, e.getMessage());
+            return load(userId);
+        }
+    }
+
+    /**
+     * Ids of the requested page of a user's orders when it lies within the stored recent orders
+     * (newest first); empty when the page must be read from orders instead
+     */
+    public Optional<Page<Long>> recentOrderIdsPage(Long userId, Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getOffset() >= recentOrders
+                || (pageable.getSort().isSorted() && !pageable.getSort().equals(RECENT_FIRST))) {
+            return Optional.empty();
+        }
+        Summary summary = find(userId);
+        List<Long> recent = summary.recentOrderIds();
+        long end = pageable.getOffset() + pageable.getPageSize();
+        // Either the page ends inside the stored list, or the list already holds every order
+        if (end > recent.size() && summary.orderCount() > recent.size()) {
+            return Optional.empty();
+        }
+        int from = (int) Math.min(pageable.getOffset(), recent.size());
+        int to = (int) Math.min(end, recent.size());
+        return Optional.of(new PageImpl<>(recent.subList(from, to), pageable, summary.orderCount()));
+    }
+
+    private void apply(Delta delta) {
+        // Held until the order write commits, so a rebuild either sees the order or runs before it
+        jdbcTemplate.update(ENSURE_ROW_SQL, delta.userId());
+        Summary current = jdbcTemplate.query(LOCK_ROW_SQL, this::mapRow, delta.userId()).get(0);
+        Map<OrderStatus, Long> statusCounts = new EnumMap<>(OrderStatus.class);
+        statusCounts.putAll(current.statusCounts());
+        List<Long> recent = new ArrayList<>(current.recentOrderIds());
+        BigDecimal totalSpent = current.totalSpent();
+        long orderCount = current.orderCount();
+        BigDecimal amount = delta.amount() != null ? delta.amount() : BigDecimal.ZERO;
+
+        if (delta.from() == null) {
+            orderCount++;
+            recent.add(0, delta.orderId());
+            if (recent.size() > recentOrders) {
+                recent.subList(recentOrders, recent.size()).clear();
+            }
+        } else {
+            statusCounts.merge(delta.from(), -1L, Long::sum);
+            if (delta.from() == OrderStatus.DELIVERED) {
+                totalSpent = totalSpent.subtract(amount);
+            }
+        }
+        if (delta.to() == null) {
+            orderCount = Math.max(0, orderCount - 1);
+            recent.remove(delta.orderId());
+        } else {
+            statusCounts.merge(delta.to(), 1L, Long::sum);
+            if (delta.to() == OrderStatus.DELIVERED) {
+                totalSpent = totalSpent.add(amount);
+            }
+        }
+        statusCounts.values().removeIf(count -> count <= 0);
+
+        jdbcTemplate.update(UPDATE_SQL, totalSpent, orderCount, writeJson(statusCounts), writeJson(recent),
+                delta.userId());
+    }
+
+    /**
+     * The summary computed from orders
+     */
+    private Summary load(Long userId) {
+        Map<OrderStatus, Long> statusCounts = new EnumMap<>(OrderStatus.class);
+        BigDecimal[] totalSpent = {BigDecimal.ZERO};
+        jdbcTemplate.query(STATUS_TOTALS_SQL, rs -> {
+            OrderStatus orderStatus = OrderStatus.valueOf(rs.getString("status"));
+            statusCounts.put(orderStatus, rs.getLong("cnt"));
+            if (orderStatus == OrderStatus.DELIVERED) {
+                totalSpent[0] = rs.getBigDecimal("amount");
+            }
+        }, userId);
+        long orderCount = statusCounts.values().stream().mapToLong(Long::longValue).sum();
+        List<Long> recent = orderRepository.findRecentIdsByUserId(userId, PageRequest.of(0, recentOrders));
+        return new Summary(totalSpent[0], orderCount, statusCounts, recent);
+    }
+
+    /**
+     * Lock the user's row, then fill it from orders. Runs in its own READ COMMITTED transaction.
+     */
+    private Summary rebuild(Long userId) {
+        jdbcTemplate.update(ENSURE_ROW_SQL, userId);
+        jdbcTemplate.query(LOCK_ROW_SQL, this::mapRow, userId);
+        Summary summary = load(userId);
+        jdbcTemplate.update(BUILD_SQL, summary.totalSpent(), summary.orderCount(),
+                writeJson(summary.statusCounts()), writeJson(summary.recentOrderIds()), userId);
+        return summary;
+    }
+
+    private Summary mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new Summary(
+                rs.getBigDecimal("total_spent"),
+                rs.getLong("order_count"),
+                readJson(rs.getString("status_counts"), new TypeReference<EnumMap<OrderStatus, Long>>() {}),
+                readJson(rs.getString("recent_orders"), new TypeReference<List<Long>>() {}));
+    }
+
+    private String writeJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize order summary", e);
+        }
+    }
+
+    private <T> T readJson(String json, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read order summary", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+-- ============================================
+-- Monthly range partitioning for audit_logs
+-- ============================================
+-- Partition boundaries are UTC month starts expressed as epoch seconds, so that
+-- UNIX_TIMESTAMP(created_at) prunes date-bounded queries to the months they touch.
+-- Existing rows land in p_history; AuditLogPartitionManager splits p_future into
+-- monthly partitions ahead of time and archives/drops partitions past retention.
+
+-- The partitioning column must be part of every unique key
+ALTER TABLE audit_logs
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+-- Serves countFailedAttemptsByIp within the pruned partitions
+CREATE INDEX idx_ip_status_created ON audit_logs(ip_address, status, created_at);
+CREATE INDEX idx_action_status_created ON audit_logs(action, status, created_at);
+
+SET @next_month_start = TIMESTAMPDIFF(SECOND, '1970-01-01 00:00:00',
+        DATE_FORMAT(UTC_DATE() + INTERVAL 1 MONTH, '%Y-%m-01'));
+
+SET @partition_ddl = CONCAT(
+        'ALTER TABLE audit_logs PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (',
+        'PARTITION p_history VALUES LESS THAN (', @next_month_start, '), ',
+        'PARTITION p_future VALUES LESS THAN MAXVALUE)');
+
+PREPARE partition_stmt FROM @partition_ddl;
+EXECUTE partition_stmt;
+DEALLOCATE PREPARE partition_stmt;
@@ -0,0 +1,26 @@
+-- ============================================
+-- Create Email Outbox Table
+-- ============================================
+-- Durable send queue drained by MailDispatcher. Workers claim due rows by setting
+-- lease_owner/lease_expires_at; a row whose lease expires (crashed worker) becomes
+-- claimable again, so delivery is at-least-once. idempotency_key deduplicates enqueues.
+CREATE TABLE IF NOT EXISTS email_outbox (
+                                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                            idempotency_key VARCHAR(191) NOT NULL,
+                                            recipient VARCHAR(255) NOT NULL,
+                                            subject VARCHAR(500) NOT NULL,
+                                            body MEDIUMTEXT NOT NULL,
+                                            status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+                                            attempts INT NOT NULL DEFAULT 0,
+                                            next_attempt_at DATETIME(6) NOT NULL,
+                                            lease_owner VARCHAR(100),
+                                            lease_expires_at DATETIME(6),
+                                            last_error VARCHAR(1000),
+                                            created_at DATETIME(6) NOT NULL,
+                                            sent_at DATETIME(6),
+
+                                            CONSTRAINT uk_email_outbox_idempotency_key UNIQUE (idempotency_key),
+                                            INDEX idx_email_outbox_due (status, next_attempt_at),
+                                            INDEX idx_email_outbox_lease (status, lease_expires_at),
+                                            INDEX idx_email_outbox_lease_owner (lease_owner)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
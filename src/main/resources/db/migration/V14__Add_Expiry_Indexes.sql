@@ -0,0 +1,6 @@
+-- ============================================
+-- Expiry indexes for the chunked TTL cleanups
+-- ============================================
+CREATE INDEX idx_expires_at ON notifications (expires_at);
+
+CREATE INDEX idx_email_outbox_sent ON email_outbox (status, sent_at);
@@ -0,0 +1,28 @@
+-- ============================================
+-- Category closure table: one row per (ancestor, descendant) pair, including
+-- each category's path to itself (depth 0). Maintained by CategoryTreeManager.
+-- ============================================
+CREATE TABLE category_closure (
+                                  ancestor_id BIGINT NOT NULL,
+                                  descendant_id BIGINT NOT NULL,
+                                  depth INT NOT NULL,
+
+                                  PRIMARY KEY (ancestor_id, descendant_id),
+                                  INDEX idx_category_closure_descendant (descendant_id, ancestor_id),
+
+                                  CONSTRAINT fk_category_closure_ancestor
+                                      FOREIGN KEY (ancestor_id) REFERENCES categories (id) ON DELETE CASCADE,
+                                  CONSTRAINT fk_category_closure_descendant
+                                      FOREIGN KEY (descendant_id) REFERENCES categories (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Backfill from the existing parent_id adjacency list
+INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE paths (ancestor_id, descendant_id, depth) AS (
+    SELECT id, id, 0 FROM categories
+    UNION ALL
+    SELECT p.ancestor_id, c.id, p.depth + 1
+    FROM paths p
+             JOIN categories c ON c.parent_id = p.descendant_id
+)
+SELECT ancestor_id, descendant_id, depth FROM paths;
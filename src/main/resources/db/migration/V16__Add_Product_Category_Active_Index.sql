@@ -0,0 +1,5 @@
+-- ============================================
+-- Category listings (including descendant listings, which pass the subtree's
+-- ids as an IN list) filter on category and active flag together
+-- ============================================
+CREATE INDEX idx_product_category_active ON products (category_id, is_active);
@@ -0,0 +1,23 @@
+-- ============================================
+-- Table-backed id generators (Hibernate pooled TableGenerator + JdbcIdAllocator).
+-- next_val is the high end of the next block of 50 ids, so each row is seeded one
+-- block above the table's current maximum id. AUTO_INCREMENT is left on the id
+-- columns but no longer used by the application.
+-- ============================================
+CREATE TABLE id_generators (
+                               sequence_name VARCHAR(64) NOT NULL PRIMARY KEY,
+                               next_val BIGINT NOT NULL
+) ENGINE=InnoDB;
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'orders', COALESCE(MAX(id), 0) + 50 FROM orders
+UNION ALL
+SELECT 'order_items', COALESCE(MAX(id), 0) + 50 FROM order_items
+UNION ALL
+SELECT 'notifications', COALESCE(MAX(id), 0) + 50 FROM notifications
+UNION ALL
+SELECT 'audit_logs', COALESCE(MAX(id), 0) + 50 FROM audit_logs
+UNION ALL
+SELECT 'cart_items', COALESCE(MAX(id), 0) + 50 FROM cart_items
+UNION ALL
+SELECT 'inventory', COALESCE(MAX(id), 0) + 50 FROM inventory;
@@ -0,0 +1,18 @@
+-- ============================================
+-- Per-user order read model (UserOrderSummaryProjector). Rows are rebuilt from
+-- orders after each order write and created lazily on first read, so nothing
+-- is backfilled here.
+-- ============================================
+CREATE TABLE user_order_summaries (
+                                      user_id BIGINT NOT NULL PRIMARY KEY,
+                                      total_spent DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+                                      order_count INT NOT NULL DEFAULT 0,
+                                      status_counts JSON NOT NULL,
+                                      recent_orders JSON NOT NULL,
+                                      updated_at DATETIME(6) NOT NULL,
+
+                                      CONSTRAINT fk_order_summary_user
+                                          FOREIGN KEY (user_id)
+                                              REFERENCES users (id)
+                                              ON DELETE CASCADE
+) ENGINE=InnoDB;
@@ -0,0 +1,46 @@
+-- ============================================
+-- Sales analytics (SalesRollupManager).
+-- sales_order_lines holds each order's current contribution (one row per
+-- order item, stamped with the order's hour bucket and status); a change to an
+-- order replaces its lines and the difference is folded into the rollups.
+-- Rollup rows are keyed by dimension (TOTAL, PRODUCT, CATEGORY, SELLER; id 0
+-- for TOTAL), bucket and order status. Backfill (POST /api/v1/reports/sales/backfill)
+-- rebuilds lines and rollups from orders for a date range.
+-- ============================================
+CREATE TABLE sales_order_lines (
+                                   order_id BIGINT NOT NULL,
+                                   product_id BIGINT NOT NULL,
+                                   category_id BIGINT NOT NULL,
+                                   seller_id BIGINT NOT NULL DEFAULT 0,
+                                   bucket_hour DATETIME NOT NULL,
+                                   status VARCHAR(30) NOT NULL,
+                                   units INT NOT NULL,
+                                   revenue DECIMAL(14, 2) NOT NULL,
+
+                                   PRIMARY KEY (order_id, product_id),
+                                   INDEX idx_sales_lines_bucket (bucket_hour)
+) ENGINE=InnoDB;
+
+CREATE TABLE sales_rollup_hourly (
+                                     dimension VARCHAR(16) NOT NULL,
+                                     bucket_start DATETIME NOT NULL,
+                                     dimension_id BIGINT NOT NULL,
+                                     status VARCHAR(30) NOT NULL,
+                                     order_count BIGINT NOT NULL DEFAULT 0,
+                                     units BIGINT NOT NULL DEFAULT 0,
+                                     revenue DECIMAL(16, 2) NOT NULL DEFAULT 0.00,
+
+                                     PRIMARY KEY (dimension, bucket_start, dimension_id, status)
+) ENGINE=InnoDB;
+
+CREATE TABLE sales_rollup_daily (
+                                    dimension VARCHAR(16) NOT NULL,
+                                    bucket_start DATETIME NOT NULL,
+                                    dimension_id BIGINT NOT NULL,
+                                    status VARCHAR(30) NOT NULL,
+                                    order_count BIGINT NOT NULL DEFAULT 0,
+                                    units BIGINT NOT NULL DEFAULT 0,
+                                    revenue DECIMAL(16, 2) NOT NULL DEFAULT 0.00,
+
+                                    PRIMARY KEY (dimension, bucket_start, dimension_id, status)
+) ENGINE=InnoDB;
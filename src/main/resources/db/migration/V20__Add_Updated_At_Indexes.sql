@@ -0,0 +1,7 @@
+-- ============================================
+-- DashboardSnapshot polls products, users and orders for rows changed since its
+-- last pass (updated_at >= watermark); these keep that poll a short range scan.
+-- ============================================
+CREATE INDEX idx_product_updated_at ON products (updated_at);
+CREATE INDEX idx_user_updated_at ON users (updated_at);
+CREATE INDEX idx_order_updated_at ON orders (updated_at);
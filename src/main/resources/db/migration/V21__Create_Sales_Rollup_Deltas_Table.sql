@@ -0,0 +1,20 @@
+-- ============================================
+-- Sales rollup journal (SalesRollupManager).
+-- An order recompute writes the difference it makes to the hourly rollups here,
+-- in the same transaction that replaces the order's sales lines; any node's
+-- flush claims rows with FOR UPDATE SKIP LOCKED, folds them into
+-- sales_rollup_hourly / sales_rollup_daily and deletes them. A backfill deletes
+-- the rows of its range together with the range's lines and rollups.
+-- ============================================
+CREATE TABLE sales_rollup_deltas (
+                                     id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                                     dimension VARCHAR(16) NOT NULL,
+                                     bucket_start DATETIME NOT NULL,
+                                     dimension_id BIGINT NOT NULL,
+                                     status VARCHAR(30) NOT NULL,
+                                     order_count BIGINT NOT NULL,
+                                     units BIGINT NOT NULL,
+                                     revenue DECIMAL(16, 2) NOT NULL,
+
+                                     INDEX idx_sales_deltas_bucket (bucket_start)
+) ENGINE=InnoDB;
@@ -0,0 +1,5 @@
+-- ============================================
+-- AbandonedCartReaper selects guest carts (user_id IS NULL) older than its cutoff;
+-- this lets it read them off an index range instead of scanning carts by id.
+-- ============================================
+CREATE INDEX idx_cart_guest_updated_at ON carts (user_id, updated_at, id);
@@ -0,0 +1,10 @@
+-- ============================================
+-- user_order_summaries now keeps the ids of a user's recent orders instead of
+-- their OrderResponse JSON, and is kept current by per-order deltas. built_at
+-- records the last full build from orders, which bounds how long a missed
+-- delta can survive. Existing rows are dropped and built again on first read.
+-- ============================================
+DELETE FROM user_order_summaries;
+
+ALTER TABLE user_order_summaries
+    ADD COLUMN built_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) AFTER recent_orders;
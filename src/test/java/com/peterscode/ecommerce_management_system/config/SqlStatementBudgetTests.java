@@ -0,0 +1,266 @@
+package com.peterscode.ecommerce_management_system.config;
+
+import com.peterscode.ecommerce_management_system.constant.IdGenerators;
+import com.peterscode.ecommerce_management_system.service.impl.JdbcIdAllocator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the endpoints that have a statement budget in {@code app.sql-stats.budgets} with
+ * {@code fail-on-budget} on, so a request over budget fails the test, and checks the statement
+ * counts the filter published.
+ * <p>
+ * The pages are seeded first (orders with several items across users and addresses, products
+ * across categories, rollup rows), since an N+1 only shows once a page has rows to load.
+ */
+@SpringBootTest(properties = "app.sql-stats.fail-on-budget=true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SqlStatementBudgetTests {
+
+    private static final int CATEGORIES = 4;
+    private static final int PRODUCTS = 24;
+    private static final int USERS = 6;
+    private static final int ORDERS = 24;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private SqlStatsConfig.SqlStatsFilter sqlStatsFilter;
+
+    @Autowired
+    private SqlStatsProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JdbcIdAllocator idAllocator;
+
+    private MockMvc mockMvc;
+
+    // Suffix for unique columns, so the seed does not clash with rows already in the database
+    private final String tag = Long.toString(System.currentTimeMillis(), 36);
+
+    private final List<Long> categoryIds = new ArrayList<>();
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> addressIds = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        SimpleJdbcInsert categories = insertInto("categories");
+        SimpleJdbcInsert products = insertInto("products");
+        SimpleJdbcInsert users = insertInto("users");
+        SimpleJdbcInsert addresses = insertInto("addresses");
+
+        for (int c = 0; c < CATEGORIES; c++) {
+            long categoryId = categories.executeAndReturnKey(Map.of(
+                    "name", "Budget category " + c + " " + tag,
+                    "slug", "budget-category-" + c + "-" + tag,
+                    "is_active", true)).longValue();
+            jdbcTemplate.update("INSERT INTO category_closure (ancestor_id, descendant_id, depth) VALUES (?, ?, 0)",
+                    categoryId, categoryId);
+            categoryIds.add(categoryId);
+        }
+
+        for (int u = 0; u < USERS; u++) {
+            long userId = users.executeAndReturnKey(Map.of(
+                    "first_name", "Budget",
+                    "last_name", "User " + u,
+                    "email", "budget-user-" + u + "-" + tag + "@example.com",
+                    "password", "not-a-hash",
+                    "phone_number", "+2547000000" + u,
+                    "role", "CUSTOMER",
+                    "is_enabled", true)).longValue();
+            userIds.add(userId);
+            addressIds.add(addresses.executeAndReturnKey(Map.of(
+                    "user_id", userId,
+                    "full_name", "Budget User " + u,
+                    "phone_number", "+2547000000" + u,
+                    "address_line1", u + " Budget Street",
+                    "city", "Nairobi",
+                    "postal_code", "0010" + u,
+                    "country", "Kenya",
+                    "is_default", true,
+                    "created_at", Timestamp.valueOf(now))).longValue());
+        }
+
+        for (int p = 0; p < PRODUCTS; p++) {
+            productIds.add(products.executeAndReturnKey(Map.of(
+                    "name", "Budget product " + p,
+                    "sku", "BUDGET-" + p + "-" + tag,
+                    "price", BigDecimal.valueOf(10 + p),
+                    "category_id", categoryIds.get(p % CATEGORIES),
+                    "stock_quantity", 100,
+                    "brand", "Brand " + (p % 3),
+                    "is_active", true)).longValue());
+        }
+
+        long[] orderIds = idAllocator.allocate(IdGenerators.ORDERS, ORDERS);
+        long[] itemIds = idAllocator.allocate(IdGenerators.ORDER_ITEMS, ORDERS * ITEMS_PER_ORDER);
+        List<Object[]> orders = new ArrayList<>();
+        List<Object[]> items = new ArrayList<>();
+        for (int o = 0; o < ORDERS; o++) {
+            int u = o % USERS;
+            String status = o % 2 == 0 ? "PENDING" : "CONFIRMED";
+            Timestamp createdAt = Timestamp.valueOf(now.minusHours(o));
+            BigDecimal subtotal = BigDecimal.ZERO;
+            for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                int p = (o + i * 7) % PRODUCTS;
+                BigDecimal unitPrice = BigDecimal.valueOf(10 + p);
+                BigDecimal total = unitPrice.multiply(BigDecimal.valueOf(i + 1));
+                subtotal = subtotal.add(total);
+                items.add(new Object[]{itemIds[o * ITEMS_PER_ORDER + i], orderIds[o], productIds.get(p),
+                        "Budget product " + p, "BUDGET-" + p + "-" + tag, i + 1, unitPrice, total, createdAt});
+            }
+            orders.add(new Object[]{orderIds[o], "BUDGET-" + tag + "-" + o, userIds.get(u), status,
+                    addressIds.get(u), addressIds.get(u), subtotal, subtotal, createdAt});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (id, order_number, user_id, status, shipping_address_id, " +
+                "billing_address_id, subtotal, total_amount, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", orders);
+        jdbcTemplate.batchUpdate("INSERT INTO order_items (id, order_id, product_id, product_name, product_sku, " +
+                "quantity, unit_price, total_price, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", items);
+
+        List<Object[]> rollups = new ArrayList<>();
+        for (int day = 0; day < 7; day++) {
+            Timestamp bucket = Timestamp.valueOf(LocalDate.now().minusDays(day).atStartOfDay());
+            for (long productId : productIds) {
+                rollups.add(new Object[]{bucket, productId, 1 + day, BigDecimal.valueOf(productId % 50 + day)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sales_rollup_daily (dimension, bucket_start, dimension_id, status, " +
+                "order_count, units, revenue) VALUES ('PRODUCT', ?, ?, 'CONFIRMED', 1, ?, ?)", rollups);
+    }
+
+    @AfterAll
+    void removeSeed() {
+        String products = inList(productIds);
+        String users = inList(userIds);
+        jdbcTemplate.update("DELETE FROM sales_rollup_daily WHERE dimension = 'PRODUCT' AND dimension_id IN " + products);
+        // order_items, addresses and the users' summary rows go with their parents
+        jdbcTemplate.update("DELETE FROM orders WHERE user_id IN " + users);
+        jdbcTemplate.update("DELETE FROM users WHERE id IN " + users);
+        jdbcTemplate.update("DELETE FROM products WHERE id IN " + products);
+        jdbcTemplate.update("DELETE FROM categories WHERE id IN " + inList(categoryIds));
+    }
+
+    @BeforeEach
+    void setUp() {
+        // The stats filter goes first so authentication is counted, as in the servlet container
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(sqlStatsFilter)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void productSummariesStayWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/v1/products/summary").param("page", "0").param("size", "24"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/products/summary")
+                        .param("categoryId", categoryIds.get(0).toString())
+                        .param("page", "0")
+                        .param("size", "24"))
+                .andExpect(status().isOk());
+
+        assertWithinBudget("GET", "/api/v1/products/summary");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void orderListsStayWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/v1/orders").param("size", "20")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/orders/status/{status}", "PENDING").param("size", "20"))
+                .andExpect(status().isOk());
+
+        assertWithinBudget("GET", "/api/v1/orders");
+        assertWithinBudget("GET", "/api/v1/orders/status/{status}");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void userOrderHistoryStaysWithinBudget() throws Exception {
+        // First read builds the summary row, the second is served from it
+        Long userId = userIds.get(0);
+        mockMvc.perform(get("/api/v1/orders/user/{userId}", userId)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/orders/user/{userId}", userId)).andExpect(status().isOk());
+
+        assertWithinBudget("GET", "/api/v1/orders/user/{userId}");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void salesReportStaysWithinBudget() throws Exception {
+        LocalDate to = LocalDate.now();
+        mockMvc.perform(get("/api/v1/reports/sales")
+                        .param("from", to.minusDays(30).toString())
+                        .param("to", to.toString())
+                        .param("dimension", "PRODUCT")
+                        .param("limit", "20"))
+                .andExpect(status().isOk());
+
+        assertWithinBudget("GET", "/api/v1/reports/sales");
+    }
+
+    private void assertWithinBudget(String method, String uri) {
+        Integer budget = properties.getBudgets().get(method + " " + uri);
+        assertThat(budget).as("budget for %s %s", method, uri).isNotNull();
+
+        DistributionSummary statements = meterRegistry.find("http.server.sql.statements")
+                .tags("method", method, "uri", uri)
+                .summary();
+        assertThat(statements).as("SQL stats for %s %s", method, uri).isNotNull();
+        assertThat(statements.count()).isPositive();
+        assertThat(statements.max()).as("statements per request for %s %s", method, uri)
+                .isLessThanOrEqualTo(budget);
+
+        Counter repeated = meterRegistry.find("http.server.sql.repeated")
+                .tags("method", method, "uri", uri)
+                .counter();
+        assertThat(repeated == null ? 0 : repeated.count()).as("repeated statements for %s %s", method, uri)
+                .isZero();
+    }
+
+    private SimpleJdbcInsert insertInto(String table) {
+        return new SimpleJdbcInsert(jdbcTemplate).withTableName(table).usingGeneratedKeyColumns("id");
+    }
+
+    private static String inList(List<Long> ids) {
+        return ids.isEmpty() ? "(NULL)" : ids.stream().map(String::valueOf)
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+}
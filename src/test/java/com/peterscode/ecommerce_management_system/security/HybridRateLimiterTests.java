@@ -0,0 +1,91 @@
+package com.peterscode.ecommerce_management_system.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Drives {@link HybridRateLimiter} with Redis clients that fail, as during a Redis outage.
+ */
+class HybridRateLimiterTests {
+
+    private static final String IP = "203.0.113.7";
+
+    private final AtomicBoolean redisUp = new AtomicBoolean();
+
+    private HybridRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class, invocation -> {
+            throw new RedisConnectionFailureException("Redis is down");
+        });
+        SecurityUtils securityUtils = mock(SecurityUtils.class, invocation -> {
+            if (!redisUp.get()) {
+                throw new RedisConnectionFailureException("Redis is down");
+            }
+            return "isIpBlacklisted".equals(invocation.getMethod().getName()) ? Boolean.TRUE : null;
+        });
+
+        rateLimiter = new HybridRateLimiter(stringRedisTemplate, securityUtils);
+        ReflectionTestUtils.setField(rateLimiter, "requestsPerMinute", 5);
+        ReflectionTestUtils.setField(rateLimiter, "requestsPerHour", 1000);
+        ReflectionTestUtils.setField(rateLimiter, "sensitiveRequestsPerMinute", 5);
+        ReflectionTestUtils.setField(rateLimiter, "leaseFraction", 1.0);
+        ReflectionTestUtils.setField(rateLimiter, "refillThreshold", 0.5);
+        ReflectionTestUtils.setField(rateLimiter, "expectedNodes", 1);
+        ReflectionTestUtils.setField(rateLimiter, "blacklistCacheMillis", 5000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateLimiter.shutdown();
+    }
+
+    @Test
+    void blacklistCheckAllowsUnknownIpWhenRedisIsDown() {
+        assertThat(rateLimiter.isBlacklisted(IP)).isFalse();
+    }
+
+    @Test
+    void blacklistCheckServesLastAnswerWhenRedisIsDown() {
+        ReflectionTestUtils.setField(rateLimiter, "blacklistCacheMillis", 0L);
+        redisUp.set(true);
+        assertThat(rateLimiter.isBlacklisted(IP)).isTrue();
+
+        redisUp.set(false);
+        assertThat(rateLimiter.isBlacklisted(IP)).isTrue();
+    }
+
+    @Test
+    void requestsUseTheLocalBudgetWhenRedisIsDown() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.tryAcquire(IP, false)).isEqualTo(HybridRateLimiter.Decision.ALLOWED);
+        }
+        assertThat(rateLimiter.tryAcquire(IP, false)).isEqualTo(HybridRateLimiter.Decision.MINUTE_LIMIT_EXCEEDED);
+    }
+
+    @Test
+    void sensitiveRequestsFailClosedWhenRedisIsDown() {
+        assertThat(rateLimiter.tryAcquire(IP, true)).isEqualTo(HybridRateLimiter.Decision.SENSITIVE_LIMIT_EXCEEDED);
+    }
+
+    @Test
+    void hourlyAbuseIsBlacklistedLocallyWhenRedisIsDown() {
+        ReflectionTestUtils.setField(rateLimiter, "requestsPerMinute", 100);
+        ReflectionTestUtils.setField(rateLimiter, "requestsPerHour", 2);
+
+        assertThat(rateLimiter.tryAcquire(IP, false)).isEqualTo(HybridRateLimiter.Decision.ALLOWED);
+        assertThat(rateLimiter.tryAcquire(IP, false)).isEqualTo(HybridRateLimiter.Decision.ALLOWED);
+        assertThat(rateLimiter.tryAcquire(IP, false)).isEqualTo(HybridRateLimiter.Decision.HOUR_LIMIT_EXCEEDED);
+        assertThat(rateLimiter.isBlacklisted(IP)).isTrue();
+    }
+}
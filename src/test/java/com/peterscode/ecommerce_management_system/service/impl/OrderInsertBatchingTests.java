@@ -0,0 +1,149 @@
+package com.peterscode.ecommerce_management_system.service.impl;
+
+import com.peterscode.ecommerce_management_system.config.SqlRequestStats;
+import com.peterscode.ecommerce_management_system.constant.IdGenerators;
+import com.peterscode.ecommerce_management_system.model.dto.request.OrderRequest;
+import com.peterscode.ecommerce_management_system.model.dto.response.OrderResponse;
+import com.peterscode.ecommerce_management_system.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that an order's rows go out as batched inserts: ids come from the {@link JdbcIdAllocator}
+ * pool before the insert, so Hibernate can batch them (hibernate.jdbc.batch_size is 20).
+ */
+@SpringBootTest
+class OrderInsertBatchingTests {
+
+    private static final int ITEMS = 20;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JdbcIdAllocator idAllocator;
+
+    // Suffix for unique columns, so the seed does not clash with rows already in the database
+    private final String tag = Long.toString(System.currentTimeMillis(), 36);
+
+    private final List<Long> productIds = new ArrayList<>();
+    private long categoryId;
+    private long userId;
+    private long addressId;
+
+    @BeforeEach
+    void seed() {
+        categoryId = insertInto("categories").executeAndReturnKey(Map.of(
+                "name", "Batching category " + tag,
+                "slug", "batching-category-" + tag,
+                "is_active", true)).longValue();
+        userId = insertInto("users").executeAndReturnKey(Map.of(
+                "first_name", "Batching",
+                "last_name", "Customer",
+                "email", "batching-" + tag + "@example.com",
+                "password", "not-a-hash",
+                "phone_number", "+254700000001",
+                "role", "CUSTOMER",
+                "is_enabled", true)).longValue();
+        addressId = insertInto("addresses").executeAndReturnKey(Map.of(
+                "user_id", userId,
+                "full_name", "Batching Customer",
+                "phone_number", "+254700000001",
+                "address_line1", "1 Batch Street",
+                "city", "Nairobi",
+                "postal_code", "00100",
+                "country", "Kenya",
+                "is_default", true,
+                "created_at", Timestamp.valueOf(LocalDateTime.now()))).longValue();
+
+        SimpleJdbcInsert products = insertInto("products");
+        for (int p = 0; p < ITEMS; p++) {
+            productIds.add(products.executeAndReturnKey(Map.of(
+                    "name", "Batching product " + p,
+                    "sku", "BATCHING-" + p + "-" + tag,
+                    "price", BigDecimal.valueOf(10 + p),
+                    "category_id", categoryId,
+                    "stock_quantity", 100,
+                    "brand", "Batching",
+                    "is_active", true)).longValue());
+        }
+
+        // Inventory ids come from the pool, like every other inventory row
+        long[] inventoryIds = idAllocator.allocate(IdGenerators.INVENTORY, ITEMS);
+        List<Object[]> inventory = new ArrayList<>();
+        for (int p = 0; p < ITEMS; p++) {
+            inventory.add(new Object[]{inventoryIds[p], productIds.get(p)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO inventory (id, product_id, quantity, reserved_quantity, " +
+                "low_stock_threshold, version) VALUES (?, ?, 100, 0, 10, 0)", inventory);
+    }
+
+    @AfterEach
+    void removeSeed() {
+        String products = productIds.stream().map(String::valueOf).collect(Collectors.joining(", ", "(", ")"));
+        // order_items and the address go with their parents
+        jdbcTemplate.update("DELETE FROM orders WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM inventory WHERE product_id IN " + products);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+        jdbcTemplate.update("DELETE FROM products WHERE id IN " + products);
+        jdbcTemplate.update("DELETE FROM categories WHERE id = ?", categoryId);
+    }
+
+    @Test
+    void orderWithTwentyItemsIsInsertedInOneBatchPerTable() {
+        OrderRequest request = OrderRequest.builder()
+                .shippingAddressId(addressId)
+                .billingAddressId(addressId)
+                .items(productIds.stream()
+                        .map(productId -> OrderRequest.OrderItemRequest.builder()
+                                .productId(productId)
+                                .quantity(1)
+                                .build())
+                        .toList())
+                .build();
+
+        SqlRequestStats stats = SqlRequestStats.begin();
+        OrderResponse order;
+        try {
+            order = orderService.createOrder(request, userId);
+        } finally {
+            SqlRequestStats.end();
+        }
+
+        assertThat(order.getId()).isNotNull();
+        assertThat(insertsInto(stats, "orders")).as("order inserts prepared").isEqualTo(1);
+        assertThat(insertsInto(stats, "order_items")).as("order item inserts prepared").isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items WHERE order_id = ?",
+                Integer.class, order.getId())).isEqualTo(ITEMS);
+    }
+
+    private static int insertsInto(SqlRequestStats stats, String table) {
+        String prefix = "insert into " + table + " ";
+        return stats.getShapes().entrySet().stream()
+                .filter(shape -> shape.getKey().toLowerCase().startsWith(prefix))
+                .mapToInt(Map.Entry::getValue)
+                .sum();
+    }
+
+    private SimpleJdbcInsert insertInto(String table) {
+        return new SimpleJdbcInsert(jdbcTemplate).withTableName(table).usingGeneratedKeyColumns("id");
+    }
+}